@@ -0,0 +1,74 @@
+package com.spammers.AlertsAndNotifications.benchmark;
+
+import com.spammers.AlertsAndNotifications.model.dto.FineOutputDTO;
+import com.spammers.AlertsAndNotifications.model.dto.NotificationDTO;
+import com.spammers.AlertsAndNotifications.model.dto.PaginatedResponseDTO;
+import com.spammers.AlertsAndNotifications.model.enums.FineStatus;
+import com.spammers.AlertsAndNotifications.model.enums.FineType;
+import com.spammers.AlertsAndNotifications.model.enums.NotificationType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the projection of the pages of fines and notifications to the response DTOs:
+ * the DTOs built from the column values of each row, as the constructor expressions of
+ * the repository queries build them, and the page wrapped in the response.
+ * @since 17-10-2026
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DtoMappingBenchmark {
+    @Param({"10", "100"})
+    private int pageSize;
+    private List<Object[]> fineRows;
+    private List<Object[]> notificationRows;
+    private PageRequest pageRequest;
+
+    @Setup
+    public void setUp() {
+        LocalDate today = LocalDate.now();
+        fineRows = new ArrayList<>(pageSize);
+        notificationRows = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            fineRows.add(new Object[]{"fine-" + i, "Libro devuelto con daños", 8000f, FineStatus.PENDING, FineType.DAMAGE,
+                    today, "Book " + i, "Student " + i, "guardian" + i + "@email.com"});
+            notificationRows.add(new Object[]{"notification-" + i, today, NotificationType.BOOK_LOAN, "Book " + i, false});
+        }
+        pageRequest = PageRequest.of(0, pageSize);
+    }
+
+    @Benchmark
+    public PaginatedResponseDTO<FineOutputDTO> fines() {
+        List<FineOutputDTO> content = new ArrayList<>(fineRows.size());
+        for (Object[] row : fineRows) {
+            content.add(new FineOutputDTO((String) row[0], (String) row[1], (float) row[2], (FineStatus) row[3],
+                    (FineType) row[4], (LocalDate) row[5], (String) row[6], (String) row[7], (String) row[8]));
+        }
+        return FineOutputDTO.encapsulateFineOutputPage(new PageImpl<>(content, pageRequest, pageSize * 5L));
+    }
+
+    @Benchmark
+    public PaginatedResponseDTO<NotificationDTO> notifications() {
+        List<NotificationDTO> content = new ArrayList<>(notificationRows.size());
+        for (Object[] row : notificationRows) {
+            content.add(new NotificationDTO((String) row[0], (LocalDate) row[1], (NotificationType) row[2],
+                    (String) row[3], (boolean) row[4]));
+        }
+        return NotificationDTO.encapsulateNotificationDTOPage(new PageImpl<>(content, pageRequest, pageSize * 5L));
+    }
+}
@@ -0,0 +1,70 @@
+package com.spammers.AlertsAndNotifications.benchmark;
+
+import com.spammers.AlertsAndNotifications.model.enums.EmailTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the rendering of the email templates: String.format over the template with
+ * %s in place of the placeholders, as the templates were rendered before, against the
+ * compiled template, into a new string or into a buffer reused across the emails, and
+ * the HTML part, which only encodes the values around the segments encoded at startup.
+ * @since 17-10-2026
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EmailTemplateBenchmark {
+
+    @Param({"NOTIFICATION_ALERT", "FINE_OPENED", "BOOK_RETURN", "LOAN_EXPIRED"})
+    private EmailTemplate template;
+    private String format;
+    private Object[] args;
+    private final StringBuilder buffer = new StringBuilder(1024);
+
+    @Setup
+    public void setUp() {
+        format = template.getTemplate().replaceAll("\\{[A-Za-z0-9]+}", "%s");
+        args = switch (template) {
+            case NOTIFICATION_ALERT -> new Object[]{"El préstamo del libro Cien años de soledad vence en 3 días."};
+            case FINE_OPENED -> new Object[]{"Maria Perez", 8000f, "17/10/2026", "Libro devuelto con daños", "Juan Perez",
+                    "Cien años de soledad"};
+            case BOOK_RETURN -> new Object[]{"Maria Perez", "Juan Perez", "Cien años de soledad", "01/10/2026",
+                    "El libro fue devuelto en buen estado.", ""};
+            case LOAN_EXPIRED -> new Object[]{"Maria Perez", "Juan Perez", "Cien años de soledad", "01/10/2026"};
+            default -> throw new IllegalArgumentException(template.name());
+        };
+        if (!String.format(format, args).equals(template.formatBody(args))) {
+            throw new IllegalStateException("The placeholders of " + template + " are not in the order of its parameters");
+        }
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        return String.format(format, args);
+    }
+
+    @Benchmark
+    public String compiled() {
+        return template.formatBody(args);
+    }
+
+    @Benchmark
+    public String compiledReusedBuffer() {
+        return template.formatBody(buffer, args);
+    }
+
+    @Benchmark
+    public byte[] compiledHtml() {
+        return template.formatHtml(args);
+    }
+}
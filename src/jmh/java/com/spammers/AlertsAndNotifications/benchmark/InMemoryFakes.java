@@ -0,0 +1,75 @@
+package com.spammers.AlertsAndNotifications.benchmark;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * In-memory stand-ins for the repositories and the transaction manager, so the
+ * benchmarks measure the service code without a database.
+ * @since 17-10-2026
+ * @version 1.0
+ */
+final class InMemoryFakes {
+
+    private InMemoryFakes() {
+    }
+
+    /**
+     * Creates a repository whose methods answer with the given functions. The other
+     * methods return their argument when saving and an empty value otherwise.
+     * @param type the repository interface.
+     * @param answers the answers by method name.
+     * @return the fake repository.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            if (method.getName().startsWith("save")) {
+                return args[0];
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == Optional.class) return Optional.empty();
+            if (returnType == List.class) return Collections.emptyList();
+            if (returnType == int.class) return 0;
+            if (returnType == long.class) return 0L;
+            if (returnType == boolean.class) return false;
+            if (method.getDeclaringClass() == Object.class) return method.invoke(type, args);
+            return null;
+        });
+    }
+
+    /**
+     * Creates a transaction template that runs the callbacks without a transaction.
+     * @return the transaction template.
+     */
+    static TransactionTemplate transactionTemplate() {
+        return new TransactionTemplate(new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        });
+    }
+}
@@ -0,0 +1,159 @@
+package com.spammers.AlertsAndNotifications.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the inbox page query of the notification entities, which joins both
+ * subclass tables of the JOINED hierarchy, with the DTO projection that reads the
+ * notifications table only. The statements are the SQL Hibernate renders for them.
+ * <p>
+ * It needs a PostgreSQL database, given with -Dbenchmark.jdbc.url, -Dbenchmark.jdbc.user
+ * and -Dbenchmark.jdbc.password. The migrations are applied to the inbox_benchmark schema,
+ * which is filled once with the given number of notifications and reused by later runs.
+ * @since 17-10-2026
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InboxQueryBenchmark {
+    private static final String SCHEMA = "inbox_benchmark";
+    private static final int NOTIFICATIONS_PER_USER = 20;
+    private static final int PAGE_SIZE = 10;
+    private static final String ENTITY_PAGE = """
+            SELECT n.id_notification,
+                   CASE WHEN ln.id_notification IS NOT NULL THEN 1 WHEN fn.id_notification IS NOT NULL THEN 2
+                        WHEN n.id_notification IS NOT NULL THEN 0 END,
+                   n.book_name, n.email_guardian, n.has_been_seen, n.type, n.sent_date, n.student_id,
+                   ln.loan_id, fn.fine_id
+            FROM notifications n
+            LEFT JOIN loan_notifications ln ON n.id_notification = ln.id_notification
+            LEFT JOIN fine_notifications fn ON n.id_notification = fn.id_notification
+            WHERE n.student_id = ? FETCH FIRST ? ROWS ONLY""";
+    private static final String PROJECTION_PAGE = """
+            SELECT n.id_notification, n.sent_date, n.type, n.book_name, n.has_been_seen
+            FROM notifications n
+            WHERE n.student_id = ? FETCH FIRST ? ROWS ONLY""";
+
+    @Param({"10000000"})
+    private int notifications;
+    private Connection connection;
+    private PreparedStatement entityPage;
+    private PreparedStatement projectionPage;
+    private int users;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5432/postgres");
+        String user = System.getProperty("benchmark.jdbc.user", "postgres");
+        String password = System.getProperty("benchmark.jdbc.password", "");
+        Flyway.configure()
+                .dataSource(url, user, password)
+                .schemas(SCHEMA)
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load()
+                .migrate();
+        connection = DriverManager.getConnection(url, user, password);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + SCHEMA);
+        }
+        users = Math.max(1, notifications / NOTIFICATIONS_PER_USER);
+        if (count() != notifications) {
+            fill();
+        }
+        entityPage = connection.prepareStatement(ENTITY_PAGE);
+        projectionPage = connection.prepareStatement(PROJECTION_PAGE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void entityPage(Blackhole blackhole) throws SQLException {
+        read(entityPage, 10, blackhole);
+    }
+
+    @Benchmark
+    public void projectionPage(Blackhole blackhole) throws SQLException {
+        read(projectionPage, 5, blackhole);
+    }
+
+    private void read(PreparedStatement query, int columns, Blackhole blackhole) throws SQLException {
+        query.setString(1, "user-" + ThreadLocalRandom.current().nextInt(users));
+        query.setInt(2, PAGE_SIZE);
+        try (ResultSet resultSet = query.executeQuery()) {
+            while (resultSet.next()) {
+                for (int column = 1; column <= columns; column++) {
+                    blackhole.consume(resultSet.getObject(column));
+                }
+            }
+        }
+    }
+
+    private long count() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM notifications")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    /**
+     * Half of the notifications are loan notifications and a quarter fine notifications,
+     * spread evenly among the users.
+     */
+    private void fill() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE fine_notifications, loan_notifications, notifications, fines, loans CASCADE");
+            statement.execute("""
+                    INSERT INTO loans (loan_id, user_id, book_id, book_name, loan_date, loan_expired, status, book_returned)
+                    SELECT 'loan-' || i, 'user-' || (i %% %1$d), 'book-' || (i %% 2000), 'Book ' || i,
+                           current_date - (i %% 400) - 15, current_date - (i %% 400), TRUE, TRUE
+                    FROM generate_series(0, %2$d - 1) i""".formatted(users, notifications / 2));
+            statement.execute("""
+                    INSERT INTO fines (fine_id, loan_id, description, amount, expired_date, student_name, guardian_email,
+                                       fine_status, fine_type)
+                    SELECT 'fine-' || i, 'loan-' || i, 'Fine ' || i, 800, current_date - (i %% 400),
+                           'Student ' || i, 'guardian@email.com', 1, 0
+                    FROM generate_series(0, %d - 1) i""".formatted(notifications / 4));
+            statement.execute("""
+                    INSERT INTO notifications (id_notification, student_id, email_guardian, sent_date, type,
+                                               has_been_seen, book_name)
+                    SELECT 'notification-' || i, 'user-' || (i %% %1$d), 'guardian@email.com', current_date - (i %% 400),
+                           i %% 6, i %% 3 <> 0, 'Book ' || i
+                    FROM generate_series(0, %2$d - 1) i""".formatted(users, notifications));
+            statement.execute("""
+                    INSERT INTO loan_notifications (id_notification, loan_id)
+                    SELECT 'notification-' || i, 'loan-' || i FROM generate_series(0, %d - 1) i"""
+                    .formatted(notifications / 2));
+            statement.execute("""
+                    INSERT INTO fine_notifications (id_notification, fine_id)
+                    SELECT 'notification-' || (%1$d + i), 'fine-' || i FROM generate_series(0, %2$d - 1) i"""
+                    .formatted(notifications / 2, notifications / 4));
+            statement.execute("ANALYZE");
+        }
+    }
+}
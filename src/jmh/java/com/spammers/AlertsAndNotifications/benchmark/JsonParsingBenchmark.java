@@ -0,0 +1,84 @@
+package com.spammers.AlertsAndNotifications.benchmark;
+
+import com.spammers.AlertsAndNotifications.model.dto.TokenClaims;
+import com.spammers.AlertsAndNotifications.model.dto.UserInfo;
+import com.spammers.AlertsAndNotifications.service.implementations.JsonResponseParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming parsing of the gateway and auth responses with the
+ * string splitting it replaced.
+ * @since 17-10-2026
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JsonParsingBenchmark {
+    private String userBody;
+    private byte[] userBytes;
+    private String loginBody;
+    private byte[] loginBytes;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        userBody = "{\"id\":\"user123\",\"studentName\":\"Juan Perez\",\"grade\":\"5\",\"course\":\"5A\","
+                + "\"responsibleName\":\"Maria Perez\",\"responsibleDocument\":\"1012345678\","
+                + "\"responsibleEmail\":\"maria.perez@email.com\",\"responsiblePhone\":\"3001234567\",\"active\":true}";
+        userBytes = userBody.getBytes(StandardCharsets.UTF_8);
+        token = "eyJhbGciOiJSUzI1NiIsInR5cCI6IkpXVCJ9."
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(
+                "{\"sub\":\"user123\",\"role\":\"student\",\"iat\":1700000000,\"exp\":1700003600}".getBytes(StandardCharsets.UTF_8))
+                + ".c2lnbmF0dXJl";
+        loginBody = "{\"status\":\"OK\",\"data\":\"" + token + "\"}";
+        loginBytes = loginBody.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public UserInfo userInfoSplit() {
+        String name = userBody.split("\"studentName\":\"")[1].split("\"")[0];
+        String guardianName = userBody.split("\"responsibleName\":\"")[1].split("\"")[0];
+        String guardianEmail = userBody.split("\"responsibleEmail\":\"")[1].split("\"")[0];
+        return new UserInfo(name, guardianName, guardianEmail);
+    }
+
+    @Benchmark
+    public UserInfo userInfoStreaming() {
+        return JsonResponseParser.parseUserInfo(userBytes);
+    }
+
+    @Benchmark
+    public String loginTokenSplit() {
+        return loginBody.split("\"data\":\"")[1].split("\"")[0];
+    }
+
+    @Benchmark
+    public String loginTokenStreaming() {
+        return JsonResponseParser.parseLoginToken(loginBytes);
+    }
+
+    @Benchmark
+    public String claimsSplit() {
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]));
+        int startIndex = payload.indexOf("\"role\":") + 7;
+        int endIndex = payload.indexOf("\"", startIndex + 1);
+        return payload.substring(startIndex + 1, endIndex).toUpperCase();
+    }
+
+    @Benchmark
+    public TokenClaims claimsStreaming() {
+        return JsonResponseParser.parseClaims(token);
+    }
+}
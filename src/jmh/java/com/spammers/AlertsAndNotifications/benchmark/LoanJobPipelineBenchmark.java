@@ -0,0 +1,83 @@
+package com.spammers.AlertsAndNotifications.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.spammers.AlertsAndNotifications.model.JobCursorModel;
+import com.spammers.AlertsAndNotifications.model.LoanModel;
+import com.spammers.AlertsAndNotifications.repository.EmailOutboxRepository;
+import com.spammers.AlertsAndNotifications.repository.JobCursorRepository;
+import com.spammers.AlertsAndNotifications.repository.LoanRepository;
+import com.spammers.AlertsAndNotifications.repository.NotificationRepository;
+import com.spammers.AlertsAndNotifications.repository.UserNotificationCounterRepository;
+import com.spammers.AlertsAndNotifications.service.implementations.ApiClientLocal;
+import com.spammers.AlertsAndNotifications.service.implementations.EmailServiceImpl;
+import com.spammers.AlertsAndNotifications.service.implementations.JobCursorManager;
+import com.spammers.AlertsAndNotifications.service.implementations.LoanExpiredNotification;
+import com.spammers.AlertsAndNotifications.service.implementations.NotificationMetrics;
+import com.spammers.AlertsAndNotifications.service.implementations.TokenHolder;
+import com.spammers.AlertsAndNotifications.service.implementations.UserNotificationCounters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one batch of the expired loans job, from the loans of the batch to the
+ * queued emails and notifications, with in-memory repositories and users.
+ * @since 17-10-2026
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LoanJobPipelineBenchmark {
+    private static final String[] USERS = {"miguel-123", "santi-123", "jorge-123", "daniel-123"};
+    private LoanExpiredNotification loanExpiredNotification;
+    private JobCursorModel cursor;
+
+    @Setup
+    public void setUp() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        LocalDate today = LocalDate.now();
+        List<LoanModel> loans = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            LoanModel loan = new LoanModel(USERS[i % USERS.length], "book-" + i, today.minusDays(20), "Book " + i, today.minusDays(1), true);
+            loan.setLoanId("loan-" + i);
+            loans.add(loan);
+        }
+        LoanRepository loanRepository = InMemoryFakes.repository(LoanRepository.class,
+                Map.of("findExpiredLoans", args -> loans));
+        JobCursorRepository jobCursorRepository = InMemoryFakes.repository(JobCursorRepository.class,
+                Map.of("advance", args -> 1));
+        cursor = new JobCursorModel(LoanExpiredNotification.JOB_NAME, 0, 1);
+        cursor.restart(today);
+        TokenHolder tokenHolder = new TokenHolder();
+        tokenHolder.setToken("token");
+        loanExpiredNotification = new LoanExpiredNotification(
+                loanRepository,
+                InMemoryFakes.repository(NotificationRepository.class, Map.of()),
+                new EmailServiceImpl(InMemoryFakes.repository(EmailOutboxRepository.class, Map.of())),
+                new ApiClientLocal(null, tokenHolder, null, null, null, null),
+                tokenHolder,
+                new JobCursorManager(jobCursorRepository, "benchmark", 300),
+                InMemoryFakes.transactionTemplate(),
+                new NotificationMetrics(new SimpleMeterRegistry()),
+                new UserNotificationCounters(InMemoryFakes.repository(UserNotificationCounterRepository.class, Map.of()), 30, 100),
+                Runnable::run, 1, 15);
+    }
+
+    @Benchmark
+    public void expiredLoansBatch() {
+        loanExpiredNotification.processEmails(cursor);
+    }
+}
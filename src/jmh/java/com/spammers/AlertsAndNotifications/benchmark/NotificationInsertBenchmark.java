@@ -0,0 +1,174 @@
+package com.spammers.AlertsAndNotifications.benchmark;
+
+import com.spammers.AlertsAndNotifications.model.UuidV7Generator;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the writes of one batch of the loan jobs: the notifications of 15 loans,
+ * each one a row of notifications and one of loan_notifications. The statements are
+ * the inserts Hibernate renders for them, sent one by one as with no batch size, or
+ * as JDBC batches that the driver rewrites to multi-row inserts. The identifiers are
+ * random UUIDs or the time ordered ones of {@link UuidV7Generator}.
+ * <p>
+ * It needs a PostgreSQL database, given with -Dbenchmark.jdbc.url, -Dbenchmark.jdbc.user
+ * and -Dbenchmark.jdbc.password. The migrations are applied to the insert_benchmark
+ * schema, which is filled again with the given number of notifications for every trial.
+ * @since 17-10-2026
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NotificationInsertBenchmark {
+    private static final String SCHEMA = "insert_benchmark";
+    private static final int LOANS = 15;
+    private static final int BATCH = 15;
+    private static final String INSERT_NOTIFICATION = """
+            INSERT INTO notifications (book_name, email_guardian, has_been_seen, type, sent_date, student_id, id_notification)
+            VALUES (?, ?, ?, ?, ?, ?, ?)""";
+    private static final String INSERT_LOAN_NOTIFICATION = """
+            INSERT INTO loan_notifications (loan_id, id_notification) VALUES (?, ?)""";
+
+    @Param({"1000000"})
+    private int notifications;
+    @Param({"random", "time-ordered"})
+    private String ids;
+    private Connection connection;
+    private Connection batchingConnection;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5432/postgres");
+        String user = System.getProperty("benchmark.jdbc.user", "postgres");
+        String password = System.getProperty("benchmark.jdbc.password", "");
+        Flyway.configure()
+                .dataSource(url, user, password)
+                .schemas(SCHEMA)
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load()
+                .migrate();
+        connection = connect(url, user, password, false);
+        batchingConnection = connect(url, user, password, true);
+        fill();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        batchingConnection.close();
+    }
+
+    @Benchmark
+    public void rowByRow() throws SQLException {
+        try (PreparedStatement notification = connection.prepareStatement(INSERT_NOTIFICATION);
+             PreparedStatement loanNotification = connection.prepareStatement(INSERT_LOAN_NOTIFICATION)) {
+            for (int i = 0; i < BATCH; i++) {
+                String id = nextId();
+                bindNotification(notification, id);
+                notification.executeUpdate();
+                bindLoanNotification(loanNotification, id);
+                loanNotification.executeUpdate();
+            }
+        }
+        connection.commit();
+    }
+
+    @Benchmark
+    public void batched() throws SQLException {
+        String[] batchIds = new String[BATCH];
+        try (PreparedStatement notification = batchingConnection.prepareStatement(INSERT_NOTIFICATION);
+             PreparedStatement loanNotification = batchingConnection.prepareStatement(INSERT_LOAN_NOTIFICATION)) {
+            for (int i = 0; i < BATCH; i++) {
+                batchIds[i] = nextId();
+                bindNotification(notification, batchIds[i]);
+                notification.addBatch();
+            }
+            notification.executeBatch();
+            for (String id : batchIds) {
+                bindLoanNotification(loanNotification, id);
+                loanNotification.addBatch();
+            }
+            loanNotification.executeBatch();
+        }
+        batchingConnection.commit();
+    }
+
+    private String nextId() {
+        return ids.equals("random") ? UUID.randomUUID().toString() : UuidV7Generator.next();
+    }
+
+    private void bindNotification(PreparedStatement statement, String id) throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        statement.setString(1, "Book " + random.nextInt(LOANS));
+        statement.setString(2, "guardian@email.com");
+        statement.setBoolean(3, false);
+        statement.setShort(4, (short) 1);
+        statement.setDate(5, Date.valueOf(LocalDate.now()));
+        statement.setString(6, "user-" + random.nextInt(LOANS));
+        statement.setString(7, id);
+    }
+
+    private void bindLoanNotification(PreparedStatement statement, String id) throws SQLException {
+        statement.setString(1, "loan-" + ThreadLocalRandom.current().nextInt(LOANS));
+        statement.setString(2, id);
+    }
+
+    private Connection connect(String url, String user, String password, boolean rewriteBatches) throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", user);
+        properties.setProperty("password", password);
+        properties.setProperty("reWriteBatchedInserts", Boolean.toString(rewriteBatches));
+        Connection opened = DriverManager.getConnection(url, properties);
+        try (Statement statement = opened.createStatement()) {
+            statement.execute("SET search_path TO " + SCHEMA);
+        }
+        opened.setAutoCommit(false);
+        return opened;
+    }
+
+    /**
+     * The existing notifications have random identifiers, as the ones written before
+     * the time ordered identifiers.
+     */
+    private void fill() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE fine_notifications, loan_notifications, notifications, fines, loans CASCADE");
+            statement.execute("""
+                    INSERT INTO loans (loan_id, user_id, book_id, book_name, loan_date, loan_expired, status, book_returned)
+                    SELECT 'loan-' || i, 'user-' || i, 'book-' || i, 'Book ' || i,
+                           current_date - 15, current_date, TRUE, FALSE
+                    FROM generate_series(0, %d - 1) i""".formatted(LOANS));
+            statement.execute("""
+                    INSERT INTO notifications (id_notification, student_id, email_guardian, sent_date, type,
+                                               has_been_seen, book_name)
+                    SELECT gen_random_uuid()::text, 'user-' || (i %% %1$d), 'guardian@email.com', current_date,
+                           1, TRUE, 'Book ' || i
+                    FROM generate_series(0, %2$d - 1) i""".formatted(LOANS, notifications));
+            statement.execute("ANALYZE");
+        }
+        connection.commit();
+    }
+}
@@ -0,0 +1,122 @@
+package com.spammers.AlertsAndNotifications.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Load test of the request handling: a burst of concurrent requests on an embedded
+ * Tomcat whose handler blocks on a RestClient call to a gateway that answers after
+ * the given latency, as the endpoints that resolve users do. With platform threads
+ * Tomcat serves at most its 200 worker threads at a time and the rest of the burst
+ * waits; with virtual threads every request waits on the gateway at the same time.
+ * <p>
+ * The virtual threads need Java 21: -jvm /path/to/java21/bin/java.
+ * @since 18-10-2026
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VirtualThreadLoadBenchmark {
+    private static final int MAX_PLATFORM_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+    @Param({"1000"})
+    private int concurrentRequests;
+    @Param({"500"})
+    private int gatewayLatencyMillis;
+    private HttpServer gateway;
+    private ExecutorService gatewayExecutor;
+    private WebServer webServer;
+    private HttpClient client;
+    private URI endpoint;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        gatewayExecutor = Executors.newCachedThreadPool();
+        gateway = HttpServer.create(new InetSocketAddress("localhost", 0), concurrentRequests);
+        gateway.setExecutor(gatewayExecutor);
+        gateway.createContext("/", exchange -> {
+            try {
+                Thread.sleep(gatewayLatencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"name\":\"Student\"}".getBytes();
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        gateway.start();
+
+        RestClient restClient = RestClient.create("http://localhost:" + gateway.getAddress().getPort());
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        factory.addProtocolHandlerCustomizers(handler -> {
+            AbstractProtocol<?> protocol = (AbstractProtocol<?>) handler;
+            protocol.setAcceptCount(concurrentRequests);
+            protocol.setMaxThreads(MAX_PLATFORM_THREADS);
+            if (threads.equals("virtual")) {
+                protocol.setExecutor(new VirtualThreadExecutor("tomcat-handler-"));
+            }
+        });
+        webServer = factory.getWebServer(context -> context.addServlet("users", new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                response.getWriter().write(restClient.get().uri("/users/student").retrieve().body(String.class));
+            }
+        }).addMapping("/*"));
+        webServer.start();
+        client = HttpClient.newHttpClient();
+        endpoint = URI.create("http://localhost:" + webServer.getPort() + "/users");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        webServer.stop();
+        gateway.stop(0);
+        gatewayExecutor.shutdownNow();
+    }
+
+    /**
+     * Sends the burst of requests at once and waits for all the responses.
+     */
+    @Benchmark
+    public int burst() {
+        HttpRequest request = HttpRequest.newBuilder(endpoint).GET().build();
+        List<CompletableFuture<HttpResponse<String>>> responses = IntStream.range(0, concurrentRequests)
+                .mapToObj(i -> client.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+                .toList();
+        return responses.stream().mapToInt(response -> response.join().statusCode()).sum();
+    }
+}
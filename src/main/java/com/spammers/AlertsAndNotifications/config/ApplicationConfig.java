@@ -1,18 +1,124 @@
 package com.spammers.AlertsAndNotifications.config;
 
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
 import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.security.SecurityScheme;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.client.RestClient;
 
+import java.time.Duration;
+
 @Configuration
 public class ApplicationConfig {
+    private static final Duration RATE_LIMIT_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * Client built from the auto-configured builder, so the outbound calls are
+     * timed by endpoint and outcome.
+     */
+    @Bean
+    public RestClient restClient(RestClient.Builder builder){
+        return builder.build();
+    }
+
+    /**
+     * Bounded worker pool that delivers the emails of the outbox. With virtual threads
+     * the pool size still caps the concurrent SMTP sessions: the mail transport blocks
+     * inside synchronized methods and pins one carrier thread per session.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor emailDispatchExecutor(@Value("${notifications.email.concurrency:4}") int concurrency,
+                                                        @Value("${notifications.email.queue-capacity:8}") int queueCapacity,
+                                                        Environment environment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("email-dispatch-");
+        useVirtualThreads(executor, environment);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Bounded pool used to resolve several users from the gateway concurrently.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor userLookupExecutor(@Value("${notifications.users.lookup-parallelism:8}") int parallelism,
+                                                     Environment environment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setThreadNamePrefix("user-lookup-");
+        useVirtualThreads(executor, environment);
+        return executor;
+    }
 
+    /**
+     * Pool that runs the partitions of the expired loans job concurrently.
+     */
     @Bean
-    public RestClient restClient(){
-        return RestClient.create();
+    public ThreadPoolTaskExecutor loanJobExecutor(@Value("${notifications.jobs.loan-expired.parallelism:4}") int parallelism,
+                                                  Environment environment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setThreadNamePrefix("loan-job-");
+        useVirtualThreads(executor, environment);
+        return executor;
+    }
+
+    /**
+     * Limits the user lookups the jobs send to the gateway. A job waits for its permit.
+     */
+    @Bean
+    public RateLimiter gatewayRateLimiter(@Value("${notifications.gateway.rate-per-second:50}") int ratePerSecond) {
+        return rateLimiter("gateway", ratePerSecond, RATE_LIMIT_TIMEOUT);
+    }
+
+    /**
+     * Limits the user lookups the requests send to the gateway. A request over the limit
+     * is answered as busy at once instead of holding its thread.
+     */
+    @Bean
+    public RateLimiter gatewayRequestRateLimiter(
+            @Value("${notifications.gateway.request-rate-per-second:20}") int ratePerSecond) {
+        return rateLimiter("gateway-requests", ratePerSecond, Duration.ZERO);
+    }
+
+    /**
+     * Limits the emails handed to the mail server by the dispatch workers.
+     */
+    @Bean
+    public RateLimiter smtpRateLimiter(@Value("${notifications.email.rate-per-second:10}") int ratePerSecond) {
+        return rateLimiter("smtp", ratePerSecond, RATE_LIMIT_TIMEOUT);
+    }
+
+    private RateLimiter rateLimiter(String name, int ratePerSecond, Duration timeout) {
+        return RateLimiter.of(name, RateLimiterConfig.custom()
+                .limitForPeriod(ratePerSecond)
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(timeout)
+                .build());
+    }
+
+    /**
+     * Runs the workers of the pool on virtual threads when they are enabled. The pool
+     * keeps its bounds, which limit the concurrent calls instead of the threads.
+     */
+    private void useVirtualThreads(ThreadPoolTaskExecutor executor, Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor(executor.getThreadNamePrefix()).getVirtualThreadFactory());
+        }
     }
 
     @Bean
@@ -1,8 +1,10 @@
 package com.spammers.AlertsAndNotifications.config;
 
 import com.spammers.AlertsAndNotifications.exceptions.SpammersPrivateExceptions;
-import com.spammers.AlertsAndNotifications.service.implementations.ApiClient;
+import com.spammers.AlertsAndNotifications.model.dto.TokenClaims;
+import com.spammers.AlertsAndNotifications.service.implementations.JsonResponseParser;
 import com.spammers.AlertsAndNotifications.service.implementations.TokenHolder;
+import com.spammers.AlertsAndNotifications.service.implementations.TokenVerifier;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,23 +20,21 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Base64;
 import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
-    private final ApiClient apiClient;
+    private final TokenVerifier tokenVerifier;
     private final TokenHolder tokenHolder;
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         final String token = getTokenFromRequest(request);
         if(token != null){
-            boolean isValid = apiClient.validateToken(token);
+            boolean isValid = tokenVerifier.isValid(token);
             if(isValid){
                 String role = decodePayload(token);
                 tokenHolder.setToken(token);
-                System.out.println("role = " + role);
                 UsernamePasswordAuthenticationToken userToken = new UsernamePasswordAuthenticationToken("12335"
                         ,
                         null,
@@ -55,18 +55,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         return null;
     }
     private String decodePayload(String token){
-        // Separar el payload
-        String[] parts = token.split("\\.");
-        String payload = new String(Base64.getUrlDecoder().decode(parts[1]));
-
-        // Buscar el valor del claim "role"
-        if (payload.contains("\"role\":")) {
-            int startIndex = payload.indexOf("\"role\":") + 7;
-            int endIndex = payload.indexOf("\"", startIndex + 1);
-            return payload.substring(startIndex + 1, endIndex).toUpperCase();
-        } else {
-           throw new SpammersPrivateExceptions(SpammersPrivateExceptions.ROLE_NOT_FOUND, 401);
+        TokenClaims claims = JsonResponseParser.parseClaims(token);
+        if (claims.role() == null) {
+            throw new SpammersPrivateExceptions(SpammersPrivateExceptions.ROLE_NOT_FOUND, 401);
         }
-
+        return claims.role().toUpperCase();
     }
 }
@@ -21,6 +21,8 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(request ->
                         request.requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-resources/**", "/webjars/**").permitAll()
+                                        .requestMatchers("/actuator/health").permitAll()
+                                        .requestMatchers("/actuator/prometheus").hasRole("ADMIN")
                                         .requestMatchers("/notifications/admin/**").hasRole("ADMIN")
                                         .requestMatchers("/notifications/users/**").hasRole("STUDENT")
                                 .anyRequest().authenticated()
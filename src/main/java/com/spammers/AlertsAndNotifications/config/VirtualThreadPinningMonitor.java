@@ -0,0 +1,103 @@
+package com.spammers.AlertsAndNotifications.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reports the virtual threads that stay pinned to their carrier thread, which happens
+ * when they block inside a synchronized block or a native frame. Every pinned period
+ * longer than the threshold is logged with its stack and counted in
+ * notifications.threads.pinned, tagged with the first frame of this application, or
+ * the first frame outside the JDK when the code that blocked belongs to a library.
+ * <p>
+ * It runs only when the virtual threads are enabled.
+ * @since 18-10-2026
+ * @version 1.0
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.spammers.";
+    private static final List<String> JDK_PACKAGES = List.of("java.", "jdk.", "sun.");
+    private static final int LOGGED_FRAMES = 8;
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${notifications.threads.pinned-threshold-ms:20}") long thresholdMillis) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = Duration.ofMillis(thresholdMillis);
+    }
+
+    @Override
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::pinned);
+        recordingStream.startAsync();
+    }
+
+    @Override
+    public void stop() {
+        recordingStream.close();
+        recordingStream = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return recordingStream != null;
+    }
+
+    void pinned(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames().stream()
+                .dropWhile(this::isJdkFrame)
+                .toList();
+        Counter.builder("notifications.threads.pinned")
+                .description("Virtual threads pinned to their carrier for longer than the threshold")
+                .tag("frame", hotSpot(frames))
+                .register(meterRegistry)
+                .increment();
+        logger.warn("Virtual thread pinned for {} ms at\n{}", event.getDuration().toMillis(), format(frames));
+    }
+
+    private String hotSpot(List<RecordedFrame> frames) {
+        return frames.stream()
+                .filter(frame -> frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE))
+                .findFirst()
+                .or(() -> frames.stream().findFirst())
+                .map(this::name)
+                .orElse("unknown");
+    }
+
+    private boolean isJdkFrame(RecordedFrame frame) {
+        String type = frame.getMethod().getType().getName();
+        return JDK_PACKAGES.stream().anyMatch(type::startsWith);
+    }
+
+    private String format(List<RecordedFrame> frames) {
+        return frames.stream().limit(LOGGED_FRAMES)
+                .map(frame -> "\tat " + name(frame) + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+
+    private String name(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+}
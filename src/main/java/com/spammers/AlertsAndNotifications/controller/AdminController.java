@@ -1,10 +1,12 @@
 package com.spammers.AlertsAndNotifications.controller;
 
 import com.spammers.AlertsAndNotifications.exceptions.SpammersPrivateExceptions;
+import com.spammers.AlertsAndNotifications.model.dto.CacheStatsDTO;
 import com.spammers.AlertsAndNotifications.model.dto.FineInputDTO;
 import com.spammers.AlertsAndNotifications.model.dto.FineOutputDTO;
 import com.spammers.AlertsAndNotifications.model.dto.LoanDTO;
 import com.spammers.AlertsAndNotifications.model.dto.PaginatedResponseDTO;
+import com.spammers.AlertsAndNotifications.model.dto.SliceResponseDTO;
 import com.spammers.AlertsAndNotifications.service.interfaces.AdminService;
 import com.spammers.AlertsAndNotifications.service.interfaces.NotificationService;
 import lombok.RequiredArgsConstructor;
@@ -36,6 +38,21 @@ public class AdminController {
         return adminService.returnAllActiveFinesBetweenDate(date, size, page);
     }
 
+    /**
+     * Retrieves the active fines (with status PENDING) within the month of a specific
+     * date without the totals, which keeps the request cheap on a long fines history.
+     * @param date the date to filter the fines
+     * @param page the current page of the request.
+     * @param size the size of the page requested.
+     * @return The page of fines and whether there is a next one.
+     */
+    @GetMapping("/fines/pending-by-date/slice")
+    @ResponseStatus(HttpStatus.OK)
+    public SliceResponseDTO<FineOutputDTO> getPendingFinesSliceByDate(@RequestParam LocalDate date,
+                                                                      @RequestParam int page, @RequestParam int size){
+        return adminService.returnActiveFinesSliceBetweenDate(date, size, page);
+    }
+
     /**
      * This method returns all active fines (with status PENDING)
      * in a paginated response.
@@ -132,5 +149,26 @@ public class AdminController {
         return "Fine Closed";
     }
 
+    /**
+     * This method removes a user from the user information cache, so the
+     * next operation reads the user from the gateway again.
+     * @param userId The ID of the user to evict.
+     * @return A message indicating that the user has been evicted.
+     */
+    @DeleteMapping("/cache/users/{userId}")
+    @ResponseStatus(HttpStatus.OK)
+    public String evictUserInfo(@PathVariable String userId) {
+        adminService.evictUserInfo(userId);
+        return "User Evicted";
+    }
 
+    /**
+     * This method returns the statistics of the user information cache.
+     * @return the size, hits, misses and evictions of the cache.
+     */
+    @GetMapping("/cache/users/stats")
+    @ResponseStatus(HttpStatus.OK)
+    public CacheStatsDTO getUserInfoCacheStats() {
+        return adminService.getUserInfoCacheStats();
+    }
 }
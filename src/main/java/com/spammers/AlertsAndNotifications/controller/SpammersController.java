@@ -8,6 +8,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+
 @RestController
 @RequiredArgsConstructor
 @CrossOrigin
@@ -60,6 +62,31 @@ public class SpammersController {
         return notificationService.markNotificationAsSeen(notificationId);
     }
 
+    /**
+     * Marks as seen all the unseen notifications of a user, or the ones sent before a date.
+     * <p>
+     * @param userId the ID of the user whose notifications are marked.
+     * @param before optional date; the notifications sent on it or later are kept unseen.
+     * @return the number of notifications marked as seen.
+     */
+    @PutMapping("/{userId}/mark-seen")
+    public int markAllNotificationsAsSeen(@PathVariable String userId,
+                                          @RequestParam(required = false) LocalDate before) {
+        return notificationService.markAllNotificationsAsSeen(userId, before);
+    }
+
+    /**
+     * Marks as seen the given notifications of a user with a single update.
+     * <p>
+     * @param userId the ID of the user whose notifications are marked.
+     * @param request the IDs of the notifications, at most 500.
+     * @return the number of notifications marked as seen.
+     */
+    @PutMapping("/{userId}/mark-seen/batch")
+    public int markNotificationsAsSeen(@PathVariable String userId, @RequestBody MarkSeenRequestDTO request) {
+        return notificationService.markNotificationsAsSeen(userId, request.getNotificationIds());
+    }
+
     /**
      * Retrieves the number of notifications that have not been seen by a specific user.
      * <p>
@@ -8,6 +8,8 @@ public class SpammersPrivateExceptions extends RuntimeException {
     public static final String ROLE_NOT_FOUND = "THE ROLE WAS NOT FOUND IN THE PAYLOAD OF THE TOKEN JWT";
     public int code;
     public static final String INVALID_RATE = "THE GIVEN RATE MUST BE IN RANGE [0,10000]";
+    public static final String TOO_MANY_NOTIFICATIONS = "AT MOST 500 NOTIFICATIONS CAN BE MARKED AS SEEN AT ONCE";
+    public static final String USER_SERVICE_BUSY = "THE USER SERVICE RATE LIMIT WAS EXCEEDED, TRY AGAIN LATER";
 
     public SpammersPrivateExceptions(String message, int code) {
         super(message);
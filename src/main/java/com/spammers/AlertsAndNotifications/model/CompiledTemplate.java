@@ -0,0 +1,139 @@
+package com.spammers.AlertsAndNotifications.model;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Text with named placeholders, such as {studentName}, parsed once into the literal
+ * segments between the placeholders and the parameter each placeholder takes. Rendering
+ * appends the segments and the values in turn, with nothing left to parse. The segments
+ * are also kept escaped as HTML and encoded in UTF-8, so an HTML rendering only has to
+ * escape and encode the values.
+ */
+public final class CompiledTemplate {
+    private final String[] literals;
+    private final int[] slots;
+    private final List<String> parameters;
+    private final int literalLength;
+    private final byte[][] htmlLiterals;
+    private final int htmlLiteralLength;
+
+    private CompiledTemplate(String[] literals, int[] slots, List<String> parameters) {
+        this.literals = literals;
+        this.slots = slots;
+        this.parameters = parameters;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+        this.htmlLiterals = new byte[literals.length][];
+        int htmlLength = 0;
+        for (int i = 0; i < literals.length; i++) {
+            htmlLiterals[i] = HtmlLayout.escape(literals[i]).getBytes(StandardCharsets.UTF_8);
+            htmlLength += htmlLiterals[i].length;
+        }
+        this.htmlLiteralLength = htmlLength;
+    }
+
+    /**
+     * Compiles the text. A placeholder is a parameter name between braces, any other
+     * brace is kept as text.
+     * @param text the text of the template.
+     * @param parameters the names of the parameters, in the order the values are given.
+     * @return the compiled template.
+     * @throws IllegalArgumentException If a placeholder names no parameter.
+     */
+    public static CompiledTemplate compile(String text, List<String> parameters) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int segmentStart = 0;
+        int open = text.indexOf('{');
+        while (open >= 0) {
+            int close = placeholderEnd(text, open);
+            if (close < 0) {
+                open = text.indexOf('{', open + 1);
+                continue;
+            }
+            String name = text.substring(open + 1, close);
+            int slot = parameters.indexOf(name);
+            if (slot < 0) {
+                throw new IllegalArgumentException("The template has no parameter " + name);
+            }
+            literals.add(text.substring(segmentStart, open));
+            slots.add(slot);
+            segmentStart = close + 1;
+            open = text.indexOf('{', segmentStart);
+        }
+        literals.add(text.substring(segmentStart));
+        return new CompiledTemplate(literals.toArray(String[]::new), slots.stream().mapToInt(Integer::intValue).toArray(),
+                List.copyOf(parameters));
+    }
+
+    private static int placeholderEnd(String text, int open) {
+        int i = open + 1;
+        while (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+            i++;
+        }
+        return i > open + 1 && i < text.length() && text.charAt(i) == '}' ? i : -1;
+    }
+
+    public List<String> parameters() {
+        return parameters;
+    }
+
+    /**
+     * Renders the template into a new string.
+     * @param values the values of the parameters, in order. They are written as String.valueOf writes them.
+     * @return the rendered text.
+     */
+    public String render(Object... values) {
+        return renderTo(new StringBuilder(literalLength + 32 * slots.length), values).toString();
+    }
+
+    /**
+     * Appends the rendered template to the given builder, so a batch can reuse one builder.
+     * @param target the builder to append to.
+     * @param values the values of the parameters, in order.
+     * @return the builder.
+     * @throws IllegalArgumentException If the number of values is not the number of parameters.
+     */
+    public StringBuilder renderTo(StringBuilder target, Object... values) {
+        checkValues(values);
+        for (int i = 0; i < slots.length; i++) {
+            target.append(literals[i]).append(values[slots[i]]);
+        }
+        return target.append(literals[slots.length]);
+    }
+
+    /**
+     * Renders the template as HTML between the given head and foot, which are written as
+     * they are. The values are escaped, and their line breaks kept, as in the text.
+     * @param head the encoded HTML before the template.
+     * @param foot the encoded HTML after the template.
+     * @param values the values of the parameters, in order.
+     * @return the page encoded in UTF-8.
+     * @throws IllegalArgumentException If the number of values is not the number of parameters.
+     */
+    public byte[] renderHtml(byte[] head, byte[] foot, Object... values) {
+        checkValues(values);
+        ByteArrayOutputStream target = new ByteArrayOutputStream(head.length + htmlLiteralLength + foot.length
+                + 32 * slots.length);
+        target.writeBytes(head);
+        for (int i = 0; i < slots.length; i++) {
+            target.writeBytes(htmlLiterals[i]);
+            target.writeBytes(HtmlLayout.escape(String.valueOf(values[slots[i]])).getBytes(StandardCharsets.UTF_8));
+        }
+        target.writeBytes(htmlLiterals[slots.length]);
+        target.writeBytes(foot);
+        return target.toByteArray();
+    }
+
+    private void checkValues(Object[] values) {
+        if (values.length != parameters.size()) {
+            throw new IllegalArgumentException("The template takes " + parameters + " but got " + values.length + " values");
+        }
+    }
+}
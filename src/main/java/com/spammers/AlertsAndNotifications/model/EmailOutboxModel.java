@@ -0,0 +1,82 @@
+package com.spammers.AlertsAndNotifications.model;
+
+import com.spammers.AlertsAndNotifications.model.enums.EmailStatus;
+import com.spammers.AlertsAndNotifications.model.enums.EmailTemplate;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Email waiting to be delivered. The row is written in the same transaction as
+ * the data that produced it and the dispatcher sends it once it is committed.
+ */
+@Entity
+@Table(name = "EmailOutbox")
+@RequiredArgsConstructor
+@Getter
+@Setter
+public class EmailOutboxModel {
+    public static final int BODY_LENGTH = 10000;
+    public static final int DIGEST_ITEM_LENGTH = 1000;
+
+    @Id
+    @UuidV7
+    private String emailId;
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Column(name = "subject", nullable = false)
+    private String subject;
+
+    @Column(name = "body", nullable = false, length = BODY_LENGTH)
+    private String body;
+
+    @Column(name = "htmlBody")
+    private byte[] htmlBody;
+
+    @Column(name = "digestItem", length = DIGEST_ITEM_LENGTH)
+    private String digestItem;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "template")
+    private EmailTemplate template;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private EmailStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "createdAt", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "nextAttemptAt", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "sentAt")
+    private LocalDateTime sentAt;
+
+    @Column(name = "lastError", length = 500)
+    private String lastError;
+
+    public EmailOutboxModel(String recipient, String subject, String body, EmailTemplate template) {
+        this(recipient, subject, body, null, template);
+    }
+
+    public EmailOutboxModel(String recipient, String subject, String body, byte[] htmlBody, EmailTemplate template) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.htmlBody = htmlBody;
+        this.template = template;
+        this.status = EmailStatus.PENDING;
+        this.attempts = 0;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+}
@@ -19,10 +19,10 @@ import java.util.List;
 @RequiredArgsConstructor
 public class FineModel {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private String fineId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="loanId", nullable=false)
     private LoanModel loan;
 
@@ -47,6 +47,9 @@ public class FineModel {
     @Column(name="fineType", nullable = false)
     private FineType fineType;
 
+    @Column(name="lastAccrualDate")
+    private LocalDate lastAccrualDate;
+
     @OneToMany(mappedBy = "fine", cascade = CascadeType.PERSIST, orphanRemoval = false)
     private List<FineNotification> fineNotifications;
 
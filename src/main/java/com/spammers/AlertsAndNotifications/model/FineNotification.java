@@ -17,7 +17,7 @@ import java.time.LocalDate;
 @Getter
 @Setter
 public class FineNotification extends NotificationModel {
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "fineId", nullable = true)
     @OnDelete(action = OnDeleteAction.SET_NULL)
     private FineModel fine;
@@ -0,0 +1,78 @@
+package com.spammers.AlertsAndNotifications.model;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The HTML page every email is framed in. The head, with the BibloSoft header, and the
+ * footer are the same for every email of a template, so they are encoded once and only
+ * the body in between is rendered per message.
+ */
+public final class HtmlLayout {
+    private static final String HEAD_START = """
+            <!DOCTYPE html>
+            <html lang="es">
+            <head>
+            <meta charset="UTF-8">
+            <title>""";
+    private static final String HEAD_END = """
+            </title>
+            </head>
+            <body style="margin:0;padding:0;background:#f4f4f4;font-family:Arial,Helvetica,sans-serif;">
+            <div style="max-width:600px;margin:0 auto;background:#ffffff;">
+            <div style="padding:16px 24px;background:#1f3b63;color:#ffffff;font-size:20px;font-weight:bold;">BibloSoft</div>
+            <div style="padding:24px;color:#333333;font-size:14px;line-height:1.5;">
+            """;
+
+    /**
+     * The closing of the body and the BibloSoft footer, shared by every template.
+     */
+    public static final byte[] FOOTER = """
+            </div>
+            <div style="padding:12px 24px;background:#eeeeee;color:#777777;font-size:12px;">\
+            BibloSoft &middot; Gestor de notificaciones</div>
+            </div>
+            </body>
+            </html>
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private HtmlLayout() {
+    }
+
+    /**
+     * Encodes the head of the page of an email, titled with its subject.
+     * @param title the subject of the email.
+     * @return the head, up to where the body begins.
+     */
+    public static byte[] head(String title) {
+        return (HEAD_START + escape(title) + HEAD_END).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Escapes plain text to be written as HTML, with its line breaks kept.
+     * @param text the plain text.
+     * @return the HTML text.
+     */
+    public static String escape(String text) {
+        StringBuilder html = null;
+        for (int i = 0; i < text.length(); i++) {
+            String replacement = switch (text.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                case '\n' -> "<br>\n";
+                default -> null;
+            };
+            if (replacement != null && html == null) {
+                html = new StringBuilder(text.length() + 16).append(text, 0, i);
+            }
+            if (replacement != null) {
+                html.append(replacement);
+            } else if (html != null) {
+                html.append(text.charAt(i));
+            }
+        }
+        return html == null ? text : html.toString();
+    }
+}
@@ -0,0 +1,89 @@
+package com.spammers.AlertsAndNotifications.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Keyset position of a partition of a scheduled job. The job stores the sort key
+ * of the last row it processed, so the next batch starts right after it. The
+ * claim that runs the partition holds a lease on it until the lease ends.
+ */
+@Entity
+@Table(name = "JobCursors")
+@RequiredArgsConstructor
+@Getter
+@Setter
+public class JobCursorModel {
+    public static final LocalDate START_DATE = LocalDate.of(1970, 1, 1);
+    public static final String START_ID = "";
+
+    @Id
+    @Column(name = "jobName", nullable = false)
+    private String jobName;
+
+    @Column(name = "job", nullable = false)
+    private String job;
+
+    @Column(name = "partitionIndex", nullable = false)
+    private int partitionIndex;
+
+    @Column(name = "partitions", nullable = false)
+    private int partitions;
+
+    @Column(name = "runDate", nullable = false)
+    private LocalDate runDate;
+
+    @Column(name = "lastKeyDate")
+    private LocalDate lastKeyDate;
+
+    @Column(name = "lastKeyId")
+    private String lastKeyId;
+
+    @Column(name = "completed", nullable = false)
+    private boolean completed;
+
+    /**
+     * The token of the claim that holds the lease: the instance id followed by a random id.
+     */
+    @Column(name = "leaseOwner")
+    private String leaseOwner;
+
+    @Column(name = "leaseUntil")
+    private LocalDateTime leaseUntil;
+
+    public JobCursorModel(String job, int partitionIndex, int partitions) {
+        this.jobName = name(job, partitionIndex, partitions);
+        this.job = job;
+        this.partitionIndex = partitionIndex;
+        this.partitions = partitions;
+    }
+
+    /**
+     * The cursors depend on the number of partitions, so changing it starts a fresh run.
+     */
+    public static String name(String job, int partitionIndex, int partitions) {
+        return job + "-" + partitionIndex + "-of-" + partitions;
+    }
+
+    public void restart(LocalDate runDate) {
+        this.runDate = runDate;
+        this.lastKeyDate = null;
+        this.lastKeyId = null;
+        this.completed = false;
+        this.leaseOwner = null;
+        this.leaseUntil = null;
+    }
+
+    public LocalDate keyDate() {
+        return lastKeyDate == null ? START_DATE : lastKeyDate;
+    }
+
+    public String keyId() {
+        return lastKeyId == null ? START_ID : lastKeyId;
+    }
+}
@@ -16,7 +16,7 @@ import java.util.List;
 @Setter
 public class LoanModel {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private String loanId;
 
     @OneToMany(mappedBy = "loan", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -14,7 +14,7 @@ import java.time.LocalDate;
 @Getter
 public class NotificationModel {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private String idNotification;
 
     @Column(name="studentId", nullable = false)
@@ -0,0 +1,33 @@
+package com.spammers.AlertsAndNotifications.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Badge counters of a user. The unseen notifications and the pending fines are
+ * kept up to date by the operations that change them, so reading the badge is a
+ * primary key lookup instead of two counts.
+ */
+@Entity
+@Table(name = "UserNotificationCounters")
+@RequiredArgsConstructor
+@Getter
+@Setter
+public class UserNotificationCounterModel {
+    @Id
+    @Column(name = "userId", nullable = false)
+    private String userId;
+
+    @Column(name = "unseenNotifications", nullable = false)
+    private long unseenNotifications;
+
+    @Column(name = "activeFines", nullable = false)
+    private long activeFines;
+
+    @Column(name = "updatedAt", nullable = false)
+    private LocalDateTime updatedAt;
+}
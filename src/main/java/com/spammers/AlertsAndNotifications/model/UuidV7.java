@@ -0,0 +1,18 @@
+package com.spammers.AlertsAndNotifications.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates the identifier of the entity with {@link UuidV7Generator}, so new rows
+ * land at the end of the primary key index.
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface UuidV7 {
+}
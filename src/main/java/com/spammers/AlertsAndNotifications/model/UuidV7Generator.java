@@ -0,0 +1,46 @@
+package com.spammers.AlertsAndNotifications.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time ordered UUIDs (version 7 of RFC 9562). The first 48 bits are the Unix time in
+ * milliseconds and the next 12 a counter within the millisecond, so the identifiers
+ * of one instance increase and their text sorts in creation order. A random primary
+ * key touches any page of the index on insert, these append to its right edge.
+ * The last 62 bits are random, the identifiers are still not guessable.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final AtomicLong LAST = new AtomicLong();
+
+    /**
+     * Returns a new identifier. When the counter of a millisecond is exhausted the
+     * timestamp moves to the next one, ahead of the clock for a moment.
+     * @return the identifier as a lower case UUID string.
+     */
+    public static String next() {
+        long now = System.currentTimeMillis() << 12;
+        long timeAndCounter = LAST.updateAndGet(last -> Math.max(last + 1, now));
+        long mostSignificantBits = (timeAndCounter >>> 12) << 16 | 0x7000L | (timeAndCounter & 0xFFFL);
+        long leastSignificantBits = RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits).toString();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
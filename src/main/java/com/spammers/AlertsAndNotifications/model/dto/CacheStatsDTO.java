@@ -0,0 +1,16 @@
+package com.spammers.AlertsAndNotifications.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@AllArgsConstructor
+@Getter
+@Setter
+public class CacheStatsDTO {
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private double hitRate;
+}
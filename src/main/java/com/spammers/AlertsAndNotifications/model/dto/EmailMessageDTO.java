@@ -0,0 +1,50 @@
+package com.spammers.AlertsAndNotifications.model.dto;
+
+import com.spammers.AlertsAndNotifications.model.enums.EmailTemplate;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class EmailMessageDTO {
+    private String to;
+    private String subject;
+    private String body;
+    private EmailTemplate template;
+    private byte[] htmlBody;
+    private String digestItem;
+
+    public EmailMessageDTO(String to, String subject, String body, EmailTemplate template) {
+        this(to, subject, body, template, null, null);
+    }
+
+    /**
+     * Builds a message from the Email Template and its arguments, with the body as text and as HTML.
+     * @param to The receiver of the email.
+     * @param template The template of the email.
+     * @param args The arguments to customise the content.
+     * @return the message.
+     */
+    public static EmailMessageDTO fromTemplate(String to, EmailTemplate template, Object... args) {
+        return new EmailMessageDTO(to, template.getSubject(), template.formatBody(args), template, template.formatHtml(args),
+                digestItem(template, args));
+    }
+
+    /**
+     * Builds a message from the Email Template and its arguments, rendering the body in the given
+     * buffer, so the messages of a batch share one.
+     * @param to The receiver of the email.
+     * @param template The template of the email.
+     * @param buffer The buffer to render the body in.
+     * @param args The arguments to customise the content.
+     * @return the message.
+     */
+    public static EmailMessageDTO fromTemplate(String to, EmailTemplate template, StringBuilder buffer, Object... args) {
+        return new EmailMessageDTO(to, template.getSubject(), template.formatBody(buffer, args), template,
+                template.formatHtml(args), digestItem(template, args));
+    }
+
+    private static String digestItem(EmailTemplate template, Object... args) {
+        return template.isDigestible() ? template.formatDigestItem(args) : null;
+    }
+}
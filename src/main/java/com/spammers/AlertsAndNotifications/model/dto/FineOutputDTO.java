@@ -1,6 +1,5 @@
 package com.spammers.AlertsAndNotifications.model.dto;
 
-import com.spammers.AlertsAndNotifications.model.FineModel;
 import com.spammers.AlertsAndNotifications.model.enums.FineStatus;
 import com.spammers.AlertsAndNotifications.model.enums.FineType;
 import lombok.AllArgsConstructor;
@@ -8,9 +7,9 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDate;
-import java.util.List;
 
 @AllArgsConstructor
 @RequiredArgsConstructor
@@ -28,41 +27,27 @@ public class FineOutputDTO {
     private String guardianEmail;
 
     /**
-     * Converts a FineModel object into a FineOutputDTO.
+     * Encapsulates a page of fines already projected into DTOs into a PaginatedResponseDTO.
      *
-     * @param fineModel The FineModel entity containing all the fine's information.
-     * @return A FineOutputDTO object that encapsulates the relevant fine details.
+     * @param page The page of FineOutputDTO objects.
+     * @return A PaginatedResponseDTO containing the fines and pagination details.
      */
-    private static FineOutputDTO fineModelToOutputDTO(FineModel fineModel) {
-        return new FineOutputDTO(
-                fineModel.getFineId(),
-                fineModel.getDescription(),
-                fineModel.getAmount(),
-                fineModel.getFineStatus(),
-                fineModel.getFineType(),
-                fineModel.getExpiredDate(),
-                fineModel.getLoan().getBookName(),
-                fineModel.getStudentName(),
-                fineModel.getGuardianEmail()
+    public static PaginatedResponseDTO<FineOutputDTO> encapsulateFineOutputPage(Page<FineOutputDTO> page) {
+        return new PaginatedResponseDTO<>(
+                page.getContent(),
+                page.getNumber(),
+                page.getTotalPages(),
+                page.getTotalElements()
         );
     }
 
     /**
-     * Encapsulates the data from a page of FineModel objects into a PaginatedResponseDTO.
+     * Encapsulates a slice of fines already projected into DTOs into a SliceResponseDTO.
      *
-     * @param page The page of FineModel objects to be converted.
-     * @return A PaginatedResponseDTO containing the list of FineOutputDTOs and pagination details.
+     * @param slice The slice of FineOutputDTO objects.
+     * @return A SliceResponseDTO containing the fines and whether there is a next page.
      */
-    public static PaginatedResponseDTO<FineOutputDTO> encapsulateFineModelOnDTO(Page<FineModel> page) {
-        List<FineOutputDTO> fineOutputDTOList = page.getContent().stream()
-                .map(FineOutputDTO::fineModelToOutputDTO)
-                .toList();
-
-        return new PaginatedResponseDTO<>(
-                fineOutputDTOList,
-                page.getNumber(),
-                page.getTotalPages(),
-                page.getTotalElements()
-        );
+    public static SliceResponseDTO<FineOutputDTO> encapsulateFineOutputSlice(Slice<FineOutputDTO> slice) {
+        return new SliceResponseDTO<>(slice.getContent(), slice.getNumber(), slice.hasNext());
     }
 }
@@ -0,0 +1,16 @@
+package com.spammers.AlertsAndNotifications.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@RequiredArgsConstructor
+@Getter
+@Setter
+public class MarkSeenRequestDTO {
+    private List<String> notificationIds;
+}
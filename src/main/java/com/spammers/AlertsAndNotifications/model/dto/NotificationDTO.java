@@ -1,6 +1,5 @@
 package com.spammers.AlertsAndNotifications.model.dto;
 
-import com.spammers.AlertsAndNotifications.model.NotificationModel;
 import com.spammers.AlertsAndNotifications.model.enums.NotificationType;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -9,7 +8,6 @@ import lombok.Setter;
 import org.springframework.data.domain.Page;
 
 import java.time.LocalDate;
-import java.util.List;
 
 @Getter
 @Setter
@@ -23,34 +21,14 @@ public class NotificationDTO {
     private boolean hasBeenSeen;
 
     /**
-     * Converts a FineModel object into a FineOutputDTO.
+     * Encapsulates a page of notifications already projected into DTOs into a PaginatedResponseDTO.
      *
-     * @param notificationModel The notification model entity containing all the notification's information.
-     * @return A NotificationDTO object that encapsulates the relevant fine details.
+     * @param page The page of NotificationDTO objects.
+     * @return A PaginatedResponseDTO containing the notifications and pagination details.
      */
-    private static NotificationDTO notificationModelToNotificationDTO(NotificationModel notificationModel) {
-        return new NotificationDTO(
-                notificationModel.getIdNotification(),
-                notificationModel.getSentDate(),
-                notificationModel.getNotificationType(),
-                notificationModel.getBookName(),
-                notificationModel.isHasBeenSeen()
-        );
-    }
-
-    /**
-     * Encapsulates the data from a page of FineModel objects into a PaginatedResponseDTO.
-     *
-     * @param page The page of FineModel objects to be converted.
-     * @return A PaginatedResponseDTO containing the list of FineOutputDTOs and pagination details.
-     */
-    public static PaginatedResponseDTO<NotificationDTO> encapsulateFineModelOnDTO(Page<NotificationModel> page) {
-        List<NotificationDTO> fineOutputDTOList = page.getContent().stream()
-                .map(NotificationDTO::notificationModelToNotificationDTO)
-                .toList();
-
+    public static PaginatedResponseDTO<NotificationDTO> encapsulateNotificationDTOPage(Page<NotificationDTO> page) {
         return new PaginatedResponseDTO<>(
-                fineOutputDTOList,
+                page.getContent(),
                 page.getNumber(),
                 page.getTotalPages(),
                 page.getTotalElements()
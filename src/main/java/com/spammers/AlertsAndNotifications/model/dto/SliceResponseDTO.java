@@ -0,0 +1,21 @@
+package com.spammers.AlertsAndNotifications.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Page of results without totals, so it is served without a count query.
+ * @since 17-10-2026
+ * @version 1.0
+ */
+@AllArgsConstructor
+@Getter
+@Setter
+public class SliceResponseDTO<T> {
+    private List<T> data;
+    private int currentPage;
+    private boolean hasNext;
+}
@@ -0,0 +1,11 @@
+package com.spammers.AlertsAndNotifications.model.dto;
+
+/**
+ * The claims read from the payload of a request token.
+ * @param subject the subject of the token, may be null.
+ * @param role the role of the user, may be null.
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public record TokenClaims(String subject, String role) {
+}
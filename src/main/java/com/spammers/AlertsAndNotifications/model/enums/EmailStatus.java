@@ -0,0 +1,16 @@
+package com.spammers.AlertsAndNotifications.model.enums;
+
+public enum EmailStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    DEAD_LETTER,
+    /**
+     * Waiting for the digest window of its recipient to close.
+     */
+    HELD,
+    /**
+     * Sent as part of a digest email.
+     */
+    MERGED
+}
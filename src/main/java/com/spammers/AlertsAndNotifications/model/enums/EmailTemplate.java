@@ -1,11 +1,18 @@
 package com.spammers.AlertsAndNotifications.model.enums;
 
+import com.spammers.AlertsAndNotifications.model.CompiledTemplate;
+import com.spammers.AlertsAndNotifications.model.HtmlLayout;
+import lombok.AccessLevel;
 import lombok.Getter;
 
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
 @Getter
 public enum EmailTemplate {
     /**
-     * This Notification Alert Template Gets 1 argument and refers to the notification type might be loan return, or loan created.
+     * This Notification Alert Template Gets 1 argument, the message, and refers to the notification type might be loan return, or loan created.
      */
     NOTIFICATION_ALERT(
             "Nueva Notificación - BibloSoft.",
@@ -13,7 +20,7 @@ public enum EmailTemplate {
             Hola!,
                    
             Tienes una nueva notificación:
-            %s
+            {message}
                    
             Para más detalles, ingresa a tu cuenta.
                    
@@ -21,21 +28,22 @@ public enum EmailTemplate {
             El equipo de BibloSoft.
            
             Este es un mensaje automático. No responder a este mensaje.
-            """
+            """,
+            "message"
     ),
 
     /**
-     * This Fine alert template receives 4 args, according to the creation/closure amount, date and description of the fine.
+     * This Fine alert template receives 4 args, header, amount, date and description, according to the creation/closure amount, date and description of the fine.
      */
     FINE_ALERT(
             "Alerta de Multa - BibloSoft.",
             """
            Hola!,
                    
-           %s
-           Monto: %s
-           Fecha: %s
-           Descripción: %s
+           {header}
+           Monto: {amount}
+           Fecha: {date}
+           Descripción: {description}
                    
            Por favor, revisa los detalles en tu cuenta.
                    
@@ -43,34 +51,191 @@ public enum EmailTemplate {
            El equipo de BibloSoft.
            
            Este es un mensaje automático. No responder a este mensaje.
-           """
+           """,
+            "header", "amount", "date", "description"
     ),
   
     BOOK_RETURN(
             "Devolución de un libro - BibloSoft",
             """
-            Buen día, %s:
+            Buen día, {guardianName}:
             
-            Le informamos que el estudiante %s ha realizado la devolución del libro %s que tomó prestado el día %s.
-            %s%s
+            Le informamos que el estudiante {studentName} ha realizado la devolución del libro {bookName} que tomó prestado el día {loanDate}.
+            {delayMessage}{conditionMessage}
     
             Gracias,
             Cordial saludo.
             
             Este es el gestor de notificaciones de BibloSoft.
             No responder a este mensaje ya que es enviado por un motor de notificaciones automáticas.
+            """,
+            "guardianName", "studentName", "bookName", "loanDate", "delayMessage", "conditionMessage"
+    ),
+
+    /**
+     * Notification alert of a new loan.
+     */
+    LOAN_CREATED(NOTIFICATION_ALERT, Map.of("message", """
+            {guardianName}, Te informamos de un nuevo préstamo, que fue realizado a: {studentName}
+            Artículo: {bookName}
+            Fecha de devolucion: {returnDate}"""),
+            "guardianName", "studentName", "bookName", "returnDate"
+    ),
+
+    /**
+     * Notification alert of a loan that expires in three days.
+     */
+    LOAN_EXPIRING(NOTIFICATION_ALERT, Map.of("message", """
+            {guardianName}, te informamos que el estudiante: {studentName} tiene 3 dias para devolver el libro \
+            {bookName} de lo contrario se generará una multa."""),
+            "guardianName", "studentName", "bookName"
+    ),
+
+    LOAN_EXPIRED(
+            "Expiración préstamo libro",
             """
+            Buen día, {guardianName}
+            Nos permitimos informar que su representado, {studentName}, tomó prestado el libro  {bookName}, \
+            el día {loanDate} y, a la fecha, este aún no ha sido devuelto. Agradecemos que gestione su entrega \
+            a la mayor brevedad posible.
+            Quedamos atentos a su pronta respuesta.
+            Gracias por su atención.
+            Cordial saludo.
+            Este es el gestor de notificaciones de BibloSoft.
+            No responder a esta cuenta de correo ya que es enviada por un motor de notificaciones automáticas.""",
+            "guardianName", "studentName", "bookName", "loanDate"
+    ),
+
+    /**
+     * Fine alert of a new fine.
+     */
+    FINE_OPENED(FINE_ALERT, Map.of(
+            "header", "{guardianName}\nTe informamos que se ha registrado una nueva multa: ",
+            "description", "{description}\nAl estudiante {studentName} por el libro {bookName}."),
+            "guardianName", "amount", "date", "description", "studentName", "bookName"
+    ),
+
+    /**
+     * Fine alert of a paid fine.
+     */
+    FINE_CLOSED(FINE_ALERT, Map.of(
+            "header", "Se ha cerrado una multa: ",
+            "description", "{description}\nAl estudiante {studentName}"),
+            "amount", "date", "description", "studentName"
+    ),
+
+    /**
+     * Several notifications of a guardian in one email, one line each.
+     */
+    DIGEST(
+            "Resumen de notificaciones - BibloSoft.",
+            """
+            Hola!,
+
+            Tienes {count} notificaciones nuevas:
+            {items}
+
+            Para más detalles, ingresa a tu cuenta.
+
+            Saludos,
+            El equipo de BibloSoft.
+
+            Este es un mensaje automático. No responder a este mensaje.
+            """,
+            "count", "items"
     );
 
+    /**
+     * The line of each template in a digest, rendered with the values of the template.
+     * The templates without a line are always sent on their own.
+     */
+    private static final Map<EmailTemplate, CompiledTemplate> DIGEST_ITEMS = new EnumMap<>(EmailTemplate.class);
+
+    static {
+        digestItem(LOAN_EXPIRED, "{studentName} no ha devuelto el libro {bookName}, prestado el día {loanDate}.");
+        digestItem(LOAN_EXPIRING, "{studentName} tiene 3 dias para devolver el libro {bookName}.");
+        digestItem(FINE_OPENED, "Nueva multa al estudiante {studentName} por el libro {bookName}: {description}. " +
+                "Monto: {amount}, fecha: {date}.");
+    }
+
     private final String subject;
     private final String template;
+    @Getter(AccessLevel.NONE)
+    private final CompiledTemplate compiled;
+    @Getter(AccessLevel.NONE)
+    private final byte[] htmlHead;
 
-    EmailTemplate(String subject, String template) {
+    EmailTemplate(String subject, String template, String... parameters) {
         this.subject = subject;
         this.template = template;
+        this.compiled = CompiledTemplate.compile(template, List.of(parameters));
+        this.htmlHead = HtmlLayout.head(subject);
     }
 
+    /**
+     * Builds a template on the text of another one, with some of its placeholders replaced
+     * by fragments of text that have placeholders of their own.
+     */
+    EmailTemplate(EmailTemplate frame, Map<String, String> fragments, String... parameters) {
+        String text = frame.template;
+        for (Map.Entry<String, String> fragment : fragments.entrySet()) {
+            text = text.replace("{" + fragment.getKey() + "}", fragment.getValue());
+        }
+        this.subject = frame.subject;
+        this.template = text;
+        this.compiled = CompiledTemplate.compile(text, List.of(parameters));
+        this.htmlHead = frame.htmlHead;
+    }
+
+    private static void digestItem(EmailTemplate template, String text) {
+        DIGEST_ITEMS.put(template, CompiledTemplate.compile(text, template.getParameters()));
+    }
+
+    /**
+     * The names of the values the template takes, in the order they are given.
+     */
+    public List<String> getParameters() {
+        return compiled.parameters();
+    }
+
+    /**
+     * Renders the body with the values of the parameters, in order.
+     */
     public String formatBody(Object... args) {
-        return String.format(template, args);
+        return compiled.render(args);
+    }
+
+    /**
+     * Renders the body reusing the given buffer, which is cleared first.
+     */
+    public String formatBody(StringBuilder buffer, Object... args) {
+        buffer.setLength(0);
+        return compiled.renderTo(buffer, args).toString();
+    }
+
+    /**
+     * Renders the body as an HTML page in the BibloSoft layout, encoded in UTF-8.
+     */
+    public byte[] formatHtml(Object... args) {
+        return compiled.renderHtml(htmlHead, HtmlLayout.FOOTER, args);
+    }
+
+    /**
+     * Whether the emails of the template can be grouped in a digest.
+     */
+    public boolean isDigestible() {
+        return DIGEST_ITEMS.containsKey(this);
+    }
+
+    /**
+     * Renders the line of the email in a digest.
+     * @throws IllegalStateException If the template cannot be grouped in a digest.
+     */
+    public String formatDigestItem(Object... args) {
+        CompiledTemplate item = DIGEST_ITEMS.get(this);
+        if (item == null) {
+            throw new IllegalStateException(name() + " is not sent in digests");
+        }
+        return item.render(args);
     }
 }
@@ -0,0 +1,163 @@
+package com.spammers.AlertsAndNotifications.repository;
+
+import com.spammers.AlertsAndNotifications.model.EmailOutboxModel;
+import com.spammers.AlertsAndNotifications.model.enums.EmailStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Transactional
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxModel, String> {
+
+    /**
+     * Claims the due emails for a worker in a single statement, leasing them until the given time
+     * and counting the attempt. For emails being sent, the next attempt is the end of the lease of
+     * the worker that claimed them, so the emails of a worker that stopped are claimed again. The
+     * emails another instance is claiming at the same time are skipped.
+     *
+     * @param now         The current time.
+     * @param leaseUntil  The time when another worker may claim the emails again.
+     * @param maxAttempts The attempts after which an email is no longer claimed.
+     * @param limit       The maximum number of emails to claim.
+     * @return the claimed emails.
+     */
+    @Query(nativeQuery = true, value = """
+            UPDATE email_outbox SET status = 'SENDING', next_attempt_at = :leaseUntil, attempts = attempts + 1
+            WHERE email_id IN (
+                SELECT email_id FROM email_outbox
+                WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now AND attempts < :maxAttempts
+                ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED)
+            RETURNING *""")
+    List<EmailOutboxModel> claimDue(@Param("now") LocalDateTime now,
+                                    @Param("leaseUntil") LocalDateTime leaseUntil,
+                                    @Param("maxAttempts") int maxAttempts,
+                                    @Param("limit") int limit);
+
+    /**
+     * Moves the due emails that spent every attempt to the given state, such as the emails
+     * whose last attempt ended with its worker.
+     *
+     * @param givenStatuses The states of the emails.
+     * @param newStatus     The state of the emails that spent every attempt.
+     * @param now           The current time.
+     * @param maxAttempts   The maximum number of attempts.
+     * @param lastError     The error recorded on the emails.
+     * @return the number of emails moved.
+     */
+    @Modifying
+    @Query("UPDATE EmailOutboxModel e SET e.status = :newStatus, e.lastError = :lastError " +
+            "WHERE e.status IN :givenStatuses AND e.nextAttemptAt <= :now AND e.attempts >= :maxAttempts")
+    int abandonExhausted(@Param("givenStatuses") List<EmailStatus> givenStatuses,
+                         @Param("newStatus") EmailStatus newStatus,
+                         @Param("now") LocalDateTime now,
+                         @Param("maxAttempts") int maxAttempts,
+                         @Param("lastError") String lastError);
+
+    /**
+     * Records the sent emails of a worker. Only the emails the worker still holds are updated.
+     *
+     * @param emailIds    The ids of the emails.
+     * @param givenStatus The state of the emails being sent.
+     * @param newStatus   The state of the sent emails.
+     * @param leaseUntil  The end of the lease of the worker.
+     * @param sentAt      The time the emails were sent.
+     * @return the number of emails updated.
+     */
+    @Modifying
+    @Query("UPDATE EmailOutboxModel e SET e.status = :newStatus, e.sentAt = :sentAt, e.lastError = NULL " +
+            "WHERE e.emailId IN :emailIds AND e.status = :givenStatus AND e.nextAttemptAt = :leaseUntil")
+    int markSent(@Param("emailIds") Collection<String> emailIds,
+                 @Param("givenStatus") EmailStatus givenStatus,
+                 @Param("newStatus") EmailStatus newStatus,
+                 @Param("leaseUntil") LocalDateTime leaseUntil,
+                 @Param("sentAt") LocalDateTime sentAt);
+
+    /**
+     * Records the emails of a worker that failed with the same error. Only the emails the worker
+     * still holds are updated.
+     *
+     * @param emailIds      The ids of the emails.
+     * @param givenStatus   The state of the emails being sent.
+     * @param newStatus     The state of the failed emails.
+     * @param leaseUntil    The end of the lease of the worker.
+     * @param nextAttemptAt The time of the next attempt.
+     * @param lastError     The error of the attempt.
+     * @return the number of emails updated.
+     */
+    @Modifying
+    @Query("UPDATE EmailOutboxModel e SET e.status = :newStatus, e.nextAttemptAt = :nextAttemptAt, " +
+            "e.lastError = :lastError " +
+            "WHERE e.emailId IN :emailIds AND e.status = :givenStatus AND e.nextAttemptAt = :leaseUntil")
+    int markFailed(@Param("emailIds") Collection<String> emailIds,
+                   @Param("givenStatus") EmailStatus givenStatus,
+                   @Param("newStatus") EmailStatus newStatus,
+                   @Param("leaseUntil") LocalDateTime leaseUntil,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("lastError") String lastError);
+
+    /**
+     * Gives back the emails a worker did not attempt, returning the attempt counted when they
+     * were claimed. Only the emails the worker still holds are updated.
+     *
+     * @param emailIds      The ids of the emails.
+     * @param givenStatus   The state of the emails being sent.
+     * @param newStatus     The state of the emails waiting to be sent.
+     * @param leaseUntil    The end of the lease of the worker.
+     * @param nextAttemptAt The time of the next attempt.
+     * @return the number of emails updated.
+     */
+    @Modifying
+    @Query("UPDATE EmailOutboxModel e SET e.status = :newStatus, e.nextAttemptAt = :nextAttemptAt, " +
+            "e.attempts = e.attempts - 1 " +
+            "WHERE e.emailId IN :emailIds AND e.status = :givenStatus AND e.nextAttemptAt = :leaseUntil")
+    int defer(@Param("emailIds") Collection<String> emailIds,
+              @Param("givenStatus") EmailStatus givenStatus,
+              @Param("newStatus") EmailStatus newStatus,
+              @Param("leaseUntil") LocalDateTime leaseUntil,
+              @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    /**
+     * Finds the recipients with emails in the given state whose next attempt has arrived.
+     * For held emails, the next attempt is the end of the digest window.
+     *
+     * @param givenStatus The state of the emails.
+     * @param now         The current time.
+     * @param pageable    The maximum number of recipients to return.
+     * @return the recipients.
+     */
+    @Query("SELECT DISTINCT e.recipient FROM EmailOutboxModel e WHERE e.status = :givenStatus AND e.nextAttemptAt <= :now")
+    List<String> findDueRecipients(@Param("givenStatus") EmailStatus givenStatus,
+                                   @Param("now") LocalDateTime now,
+                                   Pageable pageable);
+
+    /**
+     * Locks the emails of a recipient in the given state, oldest first. The emails locked
+     * by another instance are skipped, so two instances never put the same email in a digest.
+     *
+     * @param recipient   The recipient of the emails.
+     * @param givenStatus The state of the emails.
+     * @param pageable    The maximum number of emails to return.
+     * @return the emails.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    // -2 is Hibernate's lock timeout for SKIP LOCKED
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM EmailOutboxModel e WHERE e.recipient = :recipient AND e.status = :givenStatus " +
+            "ORDER BY e.createdAt")
+    List<EmailOutboxModel> lockByRecipient(@Param("recipient") String recipient,
+                                           @Param("givenStatus") EmailStatus givenStatus,
+                                           Pageable pageable);
+}
@@ -1,11 +1,14 @@
 package com.spammers.AlertsAndNotifications.repository;
 
 import com.spammers.AlertsAndNotifications.model.FineModel;
+import com.spammers.AlertsAndNotifications.model.dto.FineOutputDTO;
 import com.spammers.AlertsAndNotifications.model.enums.FineStatus;
 import com.spammers.AlertsAndNotifications.model.enums.FineType;
 import jakarta.transaction.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -23,6 +26,13 @@ import java.util.Optional;
  * Extends JpaRepository to provide basic CRUD operations.
  */
 public interface FinesRepository extends JpaRepository<FineModel, String> {
+    /**
+     * Select clause of the fine pages: only the columns of {@link FineOutputDTO}, with the
+     * book name taken from an inner join, so no fine or loan entity is loaded.
+     */
+    String FINE_OUTPUT = "SELECT new com.spammers.AlertsAndNotifications.model.dto.FineOutputDTO(" +
+            "f.fineId, f.description, f.amount, f.fineStatus, f.fineType, f.expiredDate, l.bookName, " +
+            "f.studentName, f.guardianEmail) FROM FineModel f JOIN f.loan l ";
 
     /**
      * Finds all fines that have an expiration date matching the provided current date.
@@ -45,6 +55,17 @@ public interface FinesRepository extends JpaRepository<FineModel, String> {
      */
     Optional<FineModel> findById(String id);
 
+    /**
+     * Finds a fine by its unique identifier together with its loan, in a single select.
+     *
+     * @param fineId The unique identifier of the fine to search for.
+     * @return An {@link Optional<FineModel>} containing the fine and its loan if found, or
+     *         {@link Optional#empty()} if no fine with the given identifier is found.
+     */
+    @EntityGraph(attributePaths = "loan")
+    @Query("SELECT f FROM FineModel f WHERE f.fineId = :fineId")
+    Optional<FineModel> findWithLoanByFineId(@Param("fineId") String fineId);
+
     /**
      * Updates the status of a fine in the database.
      *
@@ -60,32 +81,70 @@ public interface FinesRepository extends JpaRepository<FineModel, String> {
     @Query("UPDATE FineModel f  SET f.fineStatus = :newStatus WHERE f.fineId = :fineId")
     void updateFineStatus(@Param("fineId") String fineId, @Param("newStatus") FineStatus newStatus);
 
+    /**
+     * Updates the status of a fine only if it is still in the given status, so of two
+     * concurrent updates only one changes the fine.
+     *
+     * @param fineId      The unique identifier of the fine to be updated.
+     * @param givenStatus The status the fine must have.
+     * @param newStatus   The new status to be assigned to the fine.
+     * @return 1 if the fine was updated, 0 if it was not in the given status.
+     */
+    @Modifying
+    @Query("UPDATE FineModel f SET f.fineStatus = :newStatus WHERE f.fineId = :fineId AND f.fineStatus = :givenStatus")
+    int updateFineStatus(@Param("fineId") String fineId, @Param("givenStatus") FineStatus givenStatus,
+                         @Param("newStatus") FineStatus newStatus);
+
     @Query("SELECT l FROM FineModel l WHERE l.fineType = :givenFineType")
     List<FineModel> findByFineType(@Param("givenFineType") FineType givenFineType);
 
     @Query("SELECT f FROM FineModel f WHERE f.loan.loanId = :givenLoanId")
     List<FineModel> findByLoanId(@Param("givenLoanId") String givenLoanId);
 
-    @Query("SELECT f FROM FineModel f WHERE f.fineStatus = :givenFineStatus")
-    Page<FineModel> findByStatus(@Param("givenFineStatus") FineStatus givenFineStatus, Pageable pageable);
+    @Query(value = FINE_OUTPUT + "WHERE f.fineStatus = :givenFineStatus",
+            countQuery = "SELECT COUNT(f) FROM FineModel f WHERE f.fineStatus = :givenFineStatus")
+    Page<FineOutputDTO> findByStatus(@Param("givenFineStatus") FineStatus givenFineStatus, Pageable pageable);
+
 
+    /**
+     * Finds the fines with the given status that expire in the given date range, newest first.
+     * The range is half-open, so a month is [first day of the month, first day of the next month).
+     *
+     * @param givenFineStatus The status of the fines.
+     * @param from            The first expiration date of the range, inclusive.
+     * @param to              The last expiration date of the range, exclusive.
+     * @param pageable        The page to retrieve.
+     * @return A page of the fines.
+     */
+    @Query(value = FINE_OUTPUT + "WHERE f.fineStatus = :givenFineStatus " +
+            "AND f.expiredDate >= :from AND f.expiredDate < :to ORDER BY f.expiredDate DESC",
+            countQuery = "SELECT COUNT(f) FROM FineModel f WHERE f.fineStatus = :givenFineStatus " +
+            "AND f.expiredDate >= :from AND f.expiredDate < :to")
+    Page<FineOutputDTO> findByStatusAndDate(@Param("givenFineStatus") FineStatus givenFineStatus,
+                                        @Param("from") LocalDate from,
+                                        @Param("to") LocalDate to,
+                                        Pageable pageable);
 
-    @Query(value = """
-       SELECT * 
-       FROM fines f 
-       WHERE EXTRACT(YEAR FROM f.expired_date) = EXTRACT(YEAR FROM CAST(:givenDate AS DATE))
-         AND EXTRACT(MONTH FROM f.expired_date) = EXTRACT(MONTH FROM CAST(:givenDate AS DATE))
-         AND f.fine_status = :givenFineStatus
-       ORDER BY f.expired_date DESC
-       """,
-            nativeQuery = true)
-    Page<FineModel> findByStatusAndDate(
-            @Param("givenFineStatus") FineStatus givenFineStatus,
-            @Param("givenDate") LocalDate givenDate,
-            Pageable pageable);
+    /**
+     * Same as {@link #findByStatusAndDate} without the count query: the slice only tells
+     * whether there is a next page.
+     *
+     * @param givenFineStatus The status of the fines.
+     * @param from            The first expiration date of the range, inclusive.
+     * @param to              The last expiration date of the range, exclusive.
+     * @param pageable        The page to retrieve.
+     * @return A slice of the fines.
+     */
+    @Query(FINE_OUTPUT + "WHERE f.fineStatus = :givenFineStatus " +
+            "AND f.expiredDate >= :from AND f.expiredDate < :to ORDER BY f.expiredDate DESC")
+    Slice<FineOutputDTO> findSliceByStatusAndDate(@Param("givenFineStatus") FineStatus givenFineStatus,
+                                              @Param("from") LocalDate from,
+                                              @Param("to") LocalDate to,
+                                              Pageable pageable);
 
-    @Query("SELECT f FROM FineModel f WHERE f.loan.userId = :givenUserId")
-    Page<FineModel> findByUserId(@Param("givenUserId") String givenUserId, Pageable pageable);
+    @Query(value = FINE_OUTPUT + "WHERE l.userId = :givenUserId",
+            countQuery = "SELECT COUNT(f) FROM FineModel f JOIN f.loan l WHERE l.userId = :givenUserId")
+    Page<FineOutputDTO> findByUserId(@Param("givenUserId") String givenUserId, Pageable pageable);
 
     @Query("SELECT COUNT(f) FROM FineModel f WHERE f.loan.userId = :userId AND f.fineStatus = :givenFineStatus")
     Long getNumberActiveFinesByUser(@Param("userId") String userId, @Param("givenFineStatus") FineStatus givenFineStatus);
@@ -95,4 +154,51 @@ public interface FinesRepository extends JpaRepository<FineModel, String> {
     List<FineModel> pendingFinesAfter(@Param("givenDate" )LocalDate givenDate,
                                       @Param("givenStatus") FineStatus givenStatus,
                                       Pageable pageable);
+
+    /**
+     * Finds the keys of the pending fines that still have to be charged today, after the given keyset position.
+     *
+     * @param givenDate   The oldest expiration date that still accrues.
+     * @param givenStatus The status of the fines to increase.
+     * @param today       The accrual date; fines already accrued on this date are skipped.
+     * @param lastDate    The expiration date of the last processed fine.
+     * @param lastFineId  The id of the last processed fine.
+     * @param pageable    The size of the batch.
+     * @return the keys of the next batch of fines, ordered by expiration date and id.
+     */
+    @Query("SELECT f.fineId AS fineId, f.expiredDate AS expiredDate FROM FineModel f " +
+            "WHERE f.expiredDate >= :givenDate AND f.fineStatus = :givenStatus " +
+            "AND (f.lastAccrualDate IS NULL OR f.lastAccrualDate < :today) " +
+            "AND (f.expiredDate > :lastDate OR (f.expiredDate = :lastDate AND f.fineId > :lastFineId)) " +
+            "ORDER BY f.expiredDate, f.fineId")
+    List<FineKey> findFinesToAccrue(@Param("givenDate") LocalDate givenDate,
+                                    @Param("givenStatus") FineStatus givenStatus,
+                                    @Param("today") LocalDate today,
+                                    @Param("lastDate") LocalDate lastDate,
+                                    @Param("lastFineId") String lastFineId,
+                                    Pageable pageable);
+
+    /**
+     * Applies the daily rate to the given fines in a single set-based statement, stamping the
+     * accrual date so a fine is never charged twice on the same day.
+     *
+     * @param fineIds The ids of the fines to increase.
+     * @param rate    The amount to add to each fine.
+     * @param today   The accrual date; fines already accrued on this date are skipped.
+     * @return the number of fines updated.
+     */
+    @Modifying
+    @Query("UPDATE FineModel f SET f.amount = f.amount + :rate, f.lastAccrualDate = :today " +
+            "WHERE f.fineId IN :fineIds AND (f.lastAccrualDate IS NULL OR f.lastAccrualDate < :today)")
+    int accrueFines(@Param("fineIds") List<String> fineIds,
+                    @Param("rate") float rate,
+                    @Param("today") LocalDate today);
+
+    /**
+     * Keyset of a fine, used to page through the fines without offsets.
+     */
+    interface FineKey {
+        String getFineId();
+        LocalDate getExpiredDate();
+    }
 }
@@ -0,0 +1,101 @@
+package com.spammers.AlertsAndNotifications.repository;
+
+import com.spammers.AlertsAndNotifications.model.JobCursorModel;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Transactional
+@Repository
+public interface JobCursorRepository extends JpaRepository<JobCursorModel, String> {
+
+    /**
+     * Creates the partitions of the job's run on the given date, restarting the ones of an
+     * earlier run. The partitions of the run already created are left as they are, so every
+     * instance may prepare the run at once.
+     *
+     * @param job        The name of the job.
+     * @param partitions The number of partitions of the run.
+     * @param runDate    The date of the run.
+     * @return the number of partitions created or restarted.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO job_cursors (job_name, job, partition_index, partitions, run_date, completed) " +
+            "SELECT :job || '-' || p || '-of-' || :partitions, :job, p, :partitions, :runDate, FALSE " +
+            "FROM generate_series(0, :partitions - 1) p " +
+            "ON CONFLICT (job_name) DO UPDATE SET run_date = EXCLUDED.run_date, last_key_date = NULL, " +
+            "last_key_id = NULL, completed = FALSE, lease_owner = NULL, lease_until = NULL " +
+            "WHERE job_cursors.run_date < EXCLUDED.run_date", nativeQuery = true)
+    int prepareRun(@Param("job") String job,
+                   @Param("partitions") int partitions,
+                   @Param("runDate") LocalDate runDate);
+
+    /**
+     * Finds and locks the pending partitions of the job's run that no instance holds, skipping
+     * the ones another instance is claiming at the same time.
+     *
+     * @param job        The name of the job.
+     * @param partitions The number of partitions of the run.
+     * @param runDate    The date of the run.
+     * @param now        The current time; the leases that ended before it are free.
+     * @param pageable   The maximum number of partitions to return.
+     * @return the free partitions, locked until the end of the transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    // -2 is Hibernate's lock timeout for SKIP LOCKED
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT c FROM JobCursorModel c WHERE c.job = :job AND c.partitions = :partitions " +
+            "AND c.runDate = :runDate AND c.completed = false AND (c.leaseUntil IS NULL OR c.leaseUntil < :now) " +
+            "ORDER BY c.partitionIndex")
+    List<JobCursorModel> findClaimable(@Param("job") String job,
+                                       @Param("partitions") int partitions,
+                                       @Param("runDate") LocalDate runDate,
+                                       @Param("now") LocalDateTime now,
+                                       Pageable pageable);
+
+    /**
+     * Moves the cursor of a partition and renews the lease, if the claim still holds it.
+     *
+     * @return 1 if the cursor moved, 0 if the lease passed to another claim.
+     */
+    @Modifying
+    @Query("UPDATE JobCursorModel c SET c.lastKeyDate = :keyDate, c.lastKeyId = :keyId, c.leaseUntil = :leaseUntil " +
+            "WHERE c.jobName = :jobName AND c.leaseOwner = :leaseToken")
+    int advance(@Param("jobName") String jobName,
+                @Param("leaseToken") String leaseToken,
+                @Param("keyDate") LocalDate keyDate,
+                @Param("keyId") String keyId,
+                @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Marks a partition as finished and releases its lease, if the claim still holds it.
+     *
+     * @return 1 if the partition was completed, 0 if the lease passed to another claim.
+     */
+    @Modifying
+    @Query("UPDATE JobCursorModel c SET c.completed = true, c.leaseOwner = NULL, c.leaseUntil = NULL " +
+            "WHERE c.jobName = :jobName AND c.leaseOwner = :leaseToken")
+    int complete(@Param("jobName") String jobName, @Param("leaseToken") String leaseToken);
+
+    /**
+     * Releases the lease of a partition, so any instance may resume it.
+     *
+     * @return 1 if the lease was released, 0 if the claim no longer held it.
+     */
+    @Modifying
+    @Query("UPDATE JobCursorModel c SET c.leaseOwner = NULL, c.leaseUntil = NULL " +
+            "WHERE c.jobName = :jobName AND c.leaseOwner = :leaseToken")
+    int release(@Param("jobName") String jobName, @Param("leaseToken") String leaseToken);
+}
@@ -4,6 +4,7 @@ import com.spammers.AlertsAndNotifications.model.LoanModel;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,29 +17,48 @@ import java.util.Optional;
 public interface LoanRepository extends JpaRepository<LoanModel, String> {
 
     /**
-     * Finds all loans that have expired before the given current date.
+     * Finds the loans of one partition that have expired before the given current date, after the
+     * given keyset position.
      *
-     * This method retrieves a list of loans whose expiration date is earlier than the specified current date.
-     * The result is pageable, allowing for pagination of the loans that meet the criteria.
+     * The loans are split among the partitions by the hash of their id, so several workers can run
+     * through the expired loans at once, each one with its own keyset position. Every batch reads the
+     * loans ordered by expiration date and loan id, starting right after the last processed loan.
      *
      * @param currentDate The current date to compare against the loan expiration dates.
-     * @param pageable    The pagination details, such as page number and size.
-     * @return A list of LoanModel objects that have expired before the given current date.
+     * @param lastExpired The expiration date of the last processed loan of the partition.
+     * @param lastLoanId  The id of the last processed loan of the partition.
+     * @param partitions  The number of partitions.
+     * @param partition   The partition to read, from 0 to partitions - 1.
+     * @param pageable    The size of the batch.
+     * @return A list of LoanModel objects of the partition that have expired before the given current date.
      */
-    @Query("SELECT l FROM LoanModel l WHERE l.loanExpired < :currentDate AND l.bookReturned = false AND l.status = true")
-    List<LoanModel> findExpiredLoans(@Param("currentDate") LocalDate currentDate, Pageable pageable);
+    @Query(value = "SELECT * FROM loans l WHERE l.loan_expired < :currentDate AND l.book_returned = false AND l.status = true " +
+            "AND (l.loan_expired > :lastExpired OR (l.loan_expired = :lastExpired AND l.loan_id > :lastLoanId)) " +
+            "AND (hashtext(l.loan_id) & 2147483647) % :partitions = :partition " +
+            "ORDER BY l.loan_expired, l.loan_id", nativeQuery = true)
+    List<LoanModel> findExpiredLoans(@Param("currentDate") LocalDate currentDate,
+                                     @Param("lastExpired") LocalDate lastExpired,
+                                     @Param("lastLoanId") String lastLoanId,
+                                     @Param("partitions") int partitions,
+                                     @Param("partition") int partition,
+                                     Pageable pageable);
 
     /**
-     * Finds all loans that are expiring exactly on the specified date.
-     *
-     * This method retrieves a list of loans that expire on a specific date.
-     * It uses the `FUNCTION` keyword to extract only the date part of the loan's expiration date for comparison.
+     * Finds the loans that are expiring exactly on the specified date, after the given keyset position.
      *
      * @param dateInThreeDays The date to compare against the loan expiration dates.
+     * @param lastExpired     The expiration date of the last processed loan.
+     * @param lastLoanId      The id of the last processed loan.
+     * @param pageable        The size of the batch.
      * @return A list of LoanModel objects that are expiring on the specified date.
      */
-    @Query("SELECT l FROM LoanModel l WHERE FUNCTION('DATE', l.loanExpired) = :dateInThreeDays AND l.bookReturned = false")
-    List<LoanModel> findLoansExpiringInExactlyNDays(@Param("dateInThreeDays") LocalDate dateInThreeDays,Pageable pageable);
+    @Query("SELECT l FROM LoanModel l WHERE l.loanExpired = :dateInThreeDays AND l.bookReturned = false " +
+            "AND (l.loanExpired > :lastExpired OR (l.loanExpired = :lastExpired AND l.loanId > :lastLoanId)) " +
+            "ORDER BY l.loanExpired, l.loanId")
+    List<LoanModel> findLoansExpiringInExactlyNDays(@Param("dateInThreeDays") LocalDate dateInThreeDays,
+                                                    @Param("lastExpired") LocalDate lastExpired,
+                                                    @Param("lastLoanId") String lastLoanId,
+                                                    Pageable pageable);
 
     /**
      * Finds a loan by its loan ID.
@@ -62,4 +82,15 @@ public interface LoanRepository extends JpaRepository<LoanModel, String> {
 
     @Query("SELECT l FROM LoanModel l  WHERE l.userId = :givenUserId AND l.bookId = :givenBookId ORDER BY l.loanDate DESC LIMIT 1")
     Optional<LoanModel> findLastLoan(@Param("givenBookId") String givenBookId, @Param("givenUserId") String givenUserId);
+
+    /**
+     * Updates the status of the given loans in a single statement.
+     *
+     * @param loanIds The ids of the loans to update.
+     * @param status  The new status of the loans.
+     * @return the number of loans updated.
+     */
+    @Modifying
+    @Query("UPDATE LoanModel l SET l.status = :status WHERE l.loanId IN :loanIds")
+    int updateLoansStatus(@Param("loanIds") List<String> loanIds, @Param("status") boolean status);
 }
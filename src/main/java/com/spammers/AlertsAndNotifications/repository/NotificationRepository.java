@@ -1,6 +1,7 @@
 package com.spammers.AlertsAndNotifications.repository;
 
 import com.spammers.AlertsAndNotifications.model.NotificationModel;
+import com.spammers.AlertsAndNotifications.model.dto.NotificationDTO;
 import jakarta.transaction.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -10,6 +11,11 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Transactional
 @Repository
 public interface NotificationRepository extends JpaRepository<NotificationModel, String> {
@@ -17,12 +23,19 @@ public interface NotificationRepository extends JpaRepository<NotificationModel,
     /**
      * Retrieves a paginated list of notifications associated with a specific user.
      *
+     * Only the base columns are selected into the DTO, so the page is read from the
+     * notifications table without joining the subclass tables or loading the loans
+     * and fines the subclasses reference.
+     *
      * @param userId the ID of the user whose notifications are to be retrieved.
      * @param pageable a Pageable object specifying pagination and sorting information.
-     * @return a Page of NotificationModel objects associated with the given user ID.
+     * @return a Page of NotificationDTO objects associated with the given user ID.
      */
-    @Query("SELECT n FROM NotificationModel n WHERE n.studentId = :userId")
-    Page<NotificationModel> findByUserId(@Param("userId") String userId, Pageable pageable);
+    @Query(value = "SELECT new com.spammers.AlertsAndNotifications.model.dto.NotificationDTO(" +
+            "n.idNotification, n.sentDate, n.notificationType, n.bookName, n.hasBeenSeen) " +
+            "FROM NotificationModel n WHERE n.studentId = :userId",
+            countQuery = "SELECT COUNT(n) FROM NotificationModel n WHERE n.studentId = :userId")
+    Page<NotificationDTO> findByUserId(@Param("userId") String userId, Pageable pageable);
 
     /**
      * Counts the number of notifications that have not been seen by a specific user.
@@ -34,17 +47,93 @@ public interface NotificationRepository extends JpaRepository<NotificationModel,
     @Query("SELECT COUNT(n) FROM NotificationModel n WHERE n.studentId = :userId AND n.hasBeenSeen = :hasBeenSeen")
     long getNumberNotificationsNotSeenByUser(@Param("userId") String userId, @Param("hasBeenSeen") boolean hasBeenSeen);
 
+    /**
+     * Returns the student of a notification without loading it.
+     *
+     * @param notificationId the ID of the notification.
+     * @return the ID of the student, or empty if the notification does not exist.
+     */
+    @Query("SELECT n.studentId FROM NotificationModel n WHERE n.idNotification = :notificationId")
+    Optional<String> findStudentIdById(@Param("notificationId") String notificationId);
+
     /**
      * Updates the `hasBeenSeen` status to true for a specific notification identified by its ID.
      *
-     * This method executes a bulk update operation on the notification with the given ID.
-     * The number of records updated (should be 1 if the ID exists) is returned as an integer.
+     * Only a notification that has not been seen yet is updated, so the returned count
+     * tells whether this call is the one that marked it (1) or not (0). The mark-seen
+     * updates are native because Hibernate renders a bulk update of the JOINED
+     * hierarchy as a CTE that joins every subclass table.
      *
      * @param notificationId the ID of the notification to be marked as seen.
-     * @return the number of notifications updated in the database (typically 1 or 0).
+     * @return the number of notifications updated in the database (1 or 0).
      */
     @Modifying
-    @Query("UPDATE NotificationModel n SET n.hasBeenSeen = true WHERE n.idNotification = :notificationId")
+    @Query(nativeQuery = true, value = "UPDATE notifications SET has_been_seen = TRUE " +
+            "WHERE id_notification = :notificationId AND has_been_seen = FALSE")
     int markNotificationAsSeen(@Param("notificationId") String notificationId);
 
+    /**
+     * Marks as seen every unseen notification of a user in a single update.
+     *
+     * @param userId the ID of the user whose notifications are marked.
+     * @return the number of notifications updated.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE notifications SET has_been_seen = TRUE " +
+            "WHERE student_id = :userId AND has_been_seen = FALSE")
+    int markAllNotificationsAsSeen(@Param("userId") String userId);
+
+    /**
+     * Marks as seen the unseen notifications of a user sent before the given date.
+     *
+     * @param userId the ID of the user whose notifications are marked.
+     * @param before the notifications sent on this date or later are not marked.
+     * @return the number of notifications updated.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE notifications SET has_been_seen = TRUE " +
+            "WHERE student_id = :userId AND has_been_seen = FALSE AND sent_date < :before")
+    int markNotificationsAsSeenBefore(@Param("userId") String userId, @Param("before") LocalDate before);
+
+    /**
+     * Marks as seen the given notifications of a user. The ids that are not unseen
+     * notifications of the user are ignored.
+     *
+     * @param userId the ID of the user whose notifications are marked.
+     * @param notificationIds the IDs of the notifications.
+     * @return the number of notifications updated.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE notifications SET has_been_seen = TRUE " +
+            "WHERE student_id = :userId AND has_been_seen = FALSE AND id_notification IN (:notificationIds)")
+    int markNotificationsAsSeen(@Param("userId") String userId, @Param("notificationIds") Collection<String> notificationIds);
+
+
+    /**
+     * Records in the ledger the notifications of the given type sent to the loans on the given
+     * date, in a single statement. Only existing loans are recorded. The loans already recorded are left out, also when another
+     * transaction records them at the same time.
+     *
+     * @param loanIds the IDs of the loans to notify.
+     * @param type the ordinal of the notification type.
+     * @param notifyDate the date of the notifications.
+     * @return the IDs of the loans recorded now, which are the ones to notify.
+     */
+    @Query(nativeQuery = true, value = """
+            INSERT INTO notification_ledger (notify_date, type, loan_id)
+            SELECT :notifyDate, :type, l.loan_id FROM loans l WHERE l.loan_id IN (:loanIds)
+            ON CONFLICT DO NOTHING
+            RETURNING loan_id""")
+    List<String> recordInLedger(@Param("loanIds") Collection<String> loanIds, @Param("type") int type,
+                                @Param("notifyDate") LocalDate notifyDate);
+
+    /**
+     * Removes the ledger entries of the days before the given date.
+     *
+     * @param date the first date to keep.
+     * @return the number of entries removed.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM notification_ledger WHERE notify_date < :date")
+    int purgeLedgerBefore(@Param("date") LocalDate date);
 }
@@ -0,0 +1,62 @@
+package com.spammers.AlertsAndNotifications.repository;
+
+import com.spammers.AlertsAndNotifications.model.UserNotificationCounterModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional
+@Repository
+public interface UserNotificationCounterRepository extends JpaRepository<UserNotificationCounterModel, String> {
+
+    /**
+     * Adds the given deltas to the counters of a user in a single statement, creating
+     * the row when the user has none. The counters never go below zero.
+     *
+     * @param userId the ID of the user.
+     * @param unseenDelta the change of the unseen notifications.
+     * @param finesDelta the change of the pending fines.
+     * @return the number of rows written (1).
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO user_notification_counters (user_id, unseen_notifications, active_fines, updated_at)
+            VALUES (:userId, GREATEST(:unseenDelta, 0), GREATEST(:finesDelta, 0), now())
+            ON CONFLICT (user_id) DO UPDATE SET
+                unseen_notifications = GREATEST(user_notification_counters.unseen_notifications + :unseenDelta, 0),
+                active_fines = GREATEST(user_notification_counters.active_fines + :finesDelta, 0),
+                updated_at = now()""")
+    int addToCounters(@Param("userId") String userId, @Param("unseenDelta") long unseenDelta,
+                      @Param("finesDelta") long finesDelta);
+
+    /**
+     * Recomputes the counters from the notifications and fines tables and writes only
+     * the ones that drifted, including the users that have no counters row yet.
+     *
+     * @param pendingStatus the ordinal of the pending fine status.
+     * @return the number of counters repaired.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO user_notification_counters (user_id, unseen_notifications, active_fines, updated_at)
+            SELECT users.user_id, coalesce(unseen.total, 0), coalesce(fines.total, 0), now()
+            FROM (SELECT student_id AS user_id FROM notifications WHERE has_been_seen = FALSE
+                  UNION
+                  SELECT l.user_id FROM fines f JOIN loans l ON l.loan_id = f.loan_id WHERE f.fine_status = :pendingStatus
+                  UNION
+                  SELECT user_id FROM user_notification_counters) users
+            LEFT JOIN (SELECT student_id, count(*) AS total FROM notifications
+                       WHERE has_been_seen = FALSE GROUP BY student_id) unseen ON unseen.student_id = users.user_id
+            LEFT JOIN (SELECT l.user_id, count(*) AS total FROM fines f JOIN loans l ON l.loan_id = f.loan_id
+                       WHERE f.fine_status = :pendingStatus GROUP BY l.user_id) fines ON fines.user_id = users.user_id
+            ON CONFLICT (user_id) DO UPDATE SET
+                unseen_notifications = EXCLUDED.unseen_notifications,
+                active_fines = EXCLUDED.active_fines,
+                updated_at = now()
+            WHERE user_notification_counters.unseen_notifications <> EXCLUDED.unseen_notifications
+               OR user_notification_counters.active_fines <> EXCLUDED.active_fines""")
+    int reconcile(@Param("pendingStatus") int pendingStatus);
+}
@@ -14,8 +14,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -36,6 +37,7 @@ public class AdminServiceImpl implements AdminService {
     private final EmailService emailService;
     private final NotificationRepository notificationRepository;
     private final ApiClient apiClient;
+    private final UserNotificationCounters userNotificationCounters;
 
     /**
      * This method returns a book loan by providing the book id a boolean to indicate
@@ -45,6 +47,7 @@ public class AdminServiceImpl implements AdminService {
      *                               false otherwise.
      */
     @Override
+    @Transactional
     public void returnBook(String bookId, boolean returnedInBadCondition) {
         Optional<LoanModel> loanModel = loanRepository.findFirstLoanByBookIdAndBookReturned(bookId, false);
         if(loanModel.isEmpty()){
@@ -53,9 +56,11 @@ public class AdminServiceImpl implements AdminService {
         //if(loanModel.get().getFines().stream().anyMatch(fineModel -> fineModel.getFineStatus().equals(FineStatus.PENDING))) throw new SpammersPrivateExceptions("THE LOAN HAS PENDING FINES, IT CAN'T BE RETORNED",404);
         UserInfo userInfo = apiClient.getUserInfoById(loanModel.get().getUserId());
         int days = daysDifference(loanModel.get().getLoanDate());
-        String emailBody = buildEmailBody(loanModel.get().getLoanDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")),
-                userInfo.getGuardianName(), userInfo.getName(), loanModel.get().getBookName(), loanModel.get().getStatus(), returnedInBadCondition, days);
-        emailService.sendEmailCustomised(userInfo.getGuardianEmail(), "Devolución de un libro", emailBody);
+        String delayMessage = !loanModel.get().getStatus() ? "Sin embargo, tuvo un retraso de " + days + " días.\n" : "";
+        String conditionMessage = returnedInBadCondition ? "Además, el libro se devolvió en malas condiciones.\n" : "";
+        emailService.sendEmailTemplate(userInfo.getGuardianEmail(), EmailTemplate.BOOK_RETURN, userInfo.getGuardianName(),
+                userInfo.getName(), loanModel.get().getBookName(),
+                loanModel.get().getLoanDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")), delayMessage, conditionMessage);
         loanModel.get().setBookReturned(true);
         loanRepository.save(loanModel.get());
     }
@@ -71,6 +76,7 @@ public class AdminServiceImpl implements AdminService {
      * @param fineInputDTO A DTO of the fine.
      */
     @Override
+    @Transactional
     public void openFine(FineInputDTO fineInputDTO) throws SpammersPrivateExceptions {
         Optional<LoanModel> lastLoan = loanRepository.findLastLoan(fineInputDTO.getBookId(), fineInputDTO.getUserId());
         if (lastLoan.isPresent()) {
@@ -87,7 +93,9 @@ public class AdminServiceImpl implements AdminService {
             finesRepository.save(fineModel);
             NotificationModel notification = new FineNotification(loan.getUserId(), email, currentDate, NotificationType.FINE, fineModel, false, fineModel.getLoan().getBookName());
             notificationRepository.save(notification);
-            emailService.sendEmailTemplate(email, EmailTemplate.FINE_ALERT,     userInfo.getGuardianName() + "\nTe informamos que " + "se ha registrado una nueva multa: ", fineInputDTO.getAmount(), currentDate, description + "\nAl estudiante " + userInfo.getName() + " por el libro " + lastLoan.get().getBookName() + ".");
+            userNotificationCounters.adjust(loan.getUserId(), 1, 1);
+            emailService.sendEmailTemplate(email, EmailTemplate.FINE_OPENED, userInfo.getGuardianName(), fineInputDTO.getAmount(),
+                    currentDate, description, userInfo.getName(), loan.getBookName());
         }
         else {
             throw new SpammersPrivateExceptions(SpammersPrivateExceptions.LOAN_NOT_FOUND, 404);
@@ -105,17 +113,24 @@ public class AdminServiceImpl implements AdminService {
      *               The parameter should be of type {@link String}.
      */
     @Override
+    @Transactional
     public void closeFine(String fineId) throws SpammersPrivateExceptions {
-        Optional<FineModel> fineOptional = finesRepository.findById(fineId);
+        Optional<FineModel> fineOptional = finesRepository.findWithLoanByFineId(fineId);
         if (fineOptional.isPresent()) {
-            finesRepository.updateFineStatus(fineId, FineStatus.PAID);
+            // Only the close that moves the fine out of PENDING takes it off the active fines
+            boolean closedPending = finesRepository.updateFineStatus(fineId, FineStatus.PENDING, FineStatus.PAID) == 1;
+            if (!closedPending) {
+                finesRepository.updateFineStatus(fineId, FineStatus.PAID);
+            }
             FineModel fineModel = fineOptional.get();
             LocalDate currentDate = LocalDate.now();
             UserInfo userInfo = apiClient.getUserInfoById(fineModel.getLoan().getUserId());
             String email = userInfo.getGuardianEmail();
             NotificationModel notification = new NotificationModel(fineModel.getLoan().getUserId(), email, currentDate, NotificationType.FINE_PAID, false, fineModel.getLoan().getBookName());
             notificationRepository.save(notification);
-            emailService.sendEmailTemplate(email, EmailTemplate.FINE_ALERT, "Se ha cerrado una multa: ", fineModel.getAmount(), currentDate, fineModel.getDescription() + "\nAl estudiante " + fineModel.getStudentName());
+            userNotificationCounters.adjust(fineModel.getLoan().getUserId(), 1, closedPending ? -1 : 0);
+            emailService.sendEmailTemplate(email, EmailTemplate.FINE_CLOSED, fineModel.getAmount(), currentDate,
+                    fineModel.getDescription(), fineModel.getStudentName());
         } else{
             throw new SpammersPrivateExceptions(SpammersPrivateExceptions.FINE_NOT_FOUND, 404);
         }
@@ -131,8 +146,8 @@ public class AdminServiceImpl implements AdminService {
     @Override
     public PaginatedResponseDTO<FineOutputDTO> returnAllActiveFines(int pageNumber, int pageSize) {
         Pageable pageable = PageRequest.of(pageNumber, pageSize);
-        Page<FineModel> page = finesRepository.findByStatus(FineStatus.PENDING, pageable);
-        return FineOutputDTO.encapsulateFineModelOnDTO(page);
+        Page<FineOutputDTO> page = finesRepository.findByStatus(FineStatus.PENDING, pageable);
+        return FineOutputDTO.encapsulateFineOutputPage(page);
     }
     /**
      * This method creates a Notification of the Loan. Saves it into Loans Table where we have just active loans.
@@ -140,6 +155,7 @@ public class AdminServiceImpl implements AdminService {
      * @throws SpammersPrivateExceptions
      */
     @Override
+    @Transactional
     public void notifyLoan(LoanDTO loanDTO) throws SpammersPrivateExceptions {
         String email = loanDTO.getEmailGuardian();
         LocalDate returnDate = loanDTO.getLoanReturn();
@@ -148,8 +164,9 @@ public class AdminServiceImpl implements AdminService {
         loanRepository.save(loanM);
         NotificationModel notification = new LoanNotification(loanDTO.getUserId(), email, returnDate, NotificationType.BOOK_LOAN,loanM, false, loanM.getBookName());
         notificationRepository.save(notification);
-        emailService.sendEmailTemplate(email,EmailTemplate.NOTIFICATION_ALERT,userInfo.getGuardianName() + ", Te informamos de un nuevo préstamo, que fue realizado a: "+userInfo.getName()+"\nArtículo: " +loanDTO.getBookName()+
-                "\nFecha de devolucion: "+returnDate.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
+        userNotificationCounters.adjust(loanDTO.getUserId(), 1, 0);
+        emailService.sendEmailTemplate(email, EmailTemplate.LOAN_CREATED, userInfo.getGuardianName(), userInfo.getName(),
+                loanDTO.getBookName(), returnDate.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
     }
 
     /**
@@ -164,8 +181,26 @@ public class AdminServiceImpl implements AdminService {
     @Override
     public PaginatedResponseDTO<FineOutputDTO> returnAllActiveFinesBetweenDate(LocalDate date, int pageSize, int pageNumber){
         Pageable pageable = PageRequest.of(pageNumber, pageSize);
-        Page<FineModel> page = finesRepository.findByStatusAndDate(FineStatus.PENDING, date, pageable);
-        return FineOutputDTO.encapsulateFineModelOnDTO(page);
+        LocalDate monthStart = date.withDayOfMonth(1);
+        Page<FineOutputDTO> page = finesRepository.findByStatusAndDate(FineStatus.PENDING, monthStart, monthStart.plusMonths(1), pageable);
+        return FineOutputDTO.encapsulateFineOutputPage(page);
+    }
+
+    /**
+     * Retrieves the active fines (with status PENDING) of the month of the given date
+     * without counting them, so the cost does not grow with the fines history.
+     *
+     * @param date The date to filter fines, according to the year and month of the date.
+     * @param pageSize The number of records per page.
+     * @param pageNumber The page number to retrieve.
+     * @return A SliceResponseDTO containing the list of active fines and whether there is a next page.
+     */
+    @Override
+    public SliceResponseDTO<FineOutputDTO> returnActiveFinesSliceBetweenDate(LocalDate date, int pageSize, int pageNumber){
+        Pageable pageable = PageRequest.of(pageNumber, pageSize);
+        LocalDate monthStart = date.withDayOfMonth(1);
+        Slice<FineOutputDTO> slice = finesRepository.findSliceByStatusAndDate(FineStatus.PENDING, monthStart, monthStart.plusMonths(1), pageable);
+        return FineOutputDTO.encapsulateFineOutputSlice(slice);
     }
 
     /**
@@ -186,24 +221,27 @@ public class AdminServiceImpl implements AdminService {
         return fineDailyIncrease.getFineRate();
     }
 
-    private int daysDifference(LocalDate deadline){
-        return LocalDate.now().isAfter(deadline) ? (int) ChronoUnit.DAYS.between(deadline, LocalDate.now()): 0;
+    /**
+     * This method removes a user from the user information cache, so the
+     * next operation reads the user from the gateway again.
+     * @param userId the id of the user.
+     */
+    @Override
+    public void evictUserInfo(String userId) {
+        apiClient.evictUserInfo(userId);
     }
 
-    private  String buildEmailBody(String loanDate, String guardianName, String studentName, String bookName, boolean statusLoan, boolean badCondition, int delay) {
-
-        String delayMessage = !statusLoan ? "Sin embargo, tuvo un retraso de " + delay + " días.\n" : "";
-        String conditionMessage = badCondition ? "Además, el libro se devolvió en malas condiciones.\n" : "";
-        return String.format(
-                EmailTemplate.BOOK_RETURN.getTemplate(),
-                guardianName,
-                studentName,
-                bookName,
-                loanDate,
-                delayMessage,
-                conditionMessage
-        );
+    /**
+     * This method returns the statistics of the user information cache.
+     * @return the size, hits, misses and evictions of the cache.
+     */
+    @Override
+    public CacheStatsDTO getUserInfoCacheStats() {
+        return apiClient.getUserInfoCacheStats();
     }
 
+    private int daysDifference(LocalDate deadline){
+        return LocalDate.now().isAfter(deadline) ? (int) ChronoUnit.DAYS.between(deadline, LocalDate.now()): 0;
+    }
 
 }
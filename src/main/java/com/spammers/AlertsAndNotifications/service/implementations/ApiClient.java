@@ -1,20 +1,30 @@
 package com.spammers.AlertsAndNotifications.service.implementations;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.spammers.AlertsAndNotifications.exceptions.SpammersPrivateExceptions;
+import com.spammers.AlertsAndNotifications.model.dto.CacheStatsDTO;
 import com.spammers.AlertsAndNotifications.model.dto.UserInfo;
+import io.github.resilience4j.ratelimiter.RateLimiter;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.configurationprocessor.json.JSONException;
-import org.springframework.boot.configurationprocessor.json.JSONObject;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestClient;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Component
 @RequiredArgsConstructor
@@ -30,33 +40,104 @@ public class ApiClient {
     @Value("${API_PASSWORD}")
     private String PASSWORD;
     private final TokenHolder tokenHolder;
+    private final UserInfoCache userInfoCache;
+    @Qualifier("userLookupExecutor")
+    private final ThreadPoolTaskExecutor userLookupExecutor;
+    @Qualifier("gatewayRateLimiter")
+    private final RateLimiter gatewayRateLimiter;
+    @Qualifier("gatewayRequestRateLimiter")
+    private final RateLimiter gatewayRequestRateLimiter;
+    private final Logger logger = LoggerFactory.getLogger(ApiClient.class);
 
 
+    /**
+     * Returns the information of the user, from the cache when it was resolved recently.
+     * The lookup serves a request, so it does not wait for the rate limit.
+     * @param userId the id of the user.
+     * @return the information of the user.
+     * @throws SpammersPrivateExceptions If the user does not exist, the gateway fails or it is busy.
+     */
     public UserInfo getUserInfoById(String userId){
+        return userInfoCache.get(userId, id -> fetchUserInfo(id, gatewayRequestRateLimiter));
+    }
+
+    /**
+     * Returns the information of several users at once. The ids are de-duplicated,
+     * the cached users are served from the cache and the rest are fetched
+     * concurrently, bounded by the size of the lookup pool.
+     * @param userIds the ids of the users.
+     * @return the information of the users that exist, by user id. The users that
+     *         do not exist or could not be fetched are left out.
+     */
+    public Map<String, UserInfo> getUserInfoByIds(Collection<String> userIds){
+        return userInfoCache.getAll(new LinkedHashSet<>(userIds), this::fetchUsersInfo);
+    }
+
+    /**
+     * Removes the user from the cache, so the next lookup goes to the gateway.
+     * @param userId the id of the user.
+     */
+    public void evictUserInfo(String userId){
+        userInfoCache.evict(userId);
+    }
+
+    /**
+     * Returns the statistics of the user information cache.
+     * @return the size, hits, misses and evictions of the cache.
+     */
+    public CacheStatsDTO getUserInfoCacheStats(){
+        CacheStats stats = userInfoCache.stats();
+        return new CacheStatsDTO(userInfoCache.size(), stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate());
+    }
+
+    private Map<String, Optional<UserInfo>> fetchUsersInfo(Set<? extends String> userIds){
+        Map<String, CompletableFuture<Optional<UserInfo>>> lookups = new HashMap<>();
+        for (String userId : userIds) {
+            lookups.put(userId, CompletableFuture.supplyAsync(() -> fetchIfExists(userId), userLookupExecutor));
+        }
+        Map<String, Optional<UserInfo>> users = new HashMap<>();
+        lookups.forEach((userId, lookup) -> {
+            try {
+                users.put(userId, lookup.join());
+            } catch (CompletionException e) {
+                logger.error("The user {} could not be fetched: {}", userId, e.getCause().getMessage());
+            }
+        });
+        return users;
+    }
+
+    private Optional<UserInfo> fetchIfExists(String userId){
+        try {
+            return Optional.of(fetchUserInfo(userId, gatewayRateLimiter));
+        } catch (SpammersPrivateExceptions e) {
+            if (e.code == 404) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    private UserInfo fetchUserInfo(String userId, RateLimiter rateLimiter){
+        if (!rateLimiter.acquirePermission()) {
+            throw new SpammersPrivateExceptions(SpammersPrivateExceptions.USER_SERVICE_BUSY, 429);
+        }
         String token = tokenHolder.getToken();
-        ResponseEntity<String> userInfo = restClient.get()
+        byte[] body = restClient.get()
                 .uri(APIGATEWAY_URL + "/find/student/{id}", userId)
                 //.header("AUTHORIZATION","Bearer " + token)
                 .accept(MediaType.APPLICATION_JSON)
                 .retrieve()
-                .toEntity(String.class);
-        if(userInfo.getStatusCode().is4xxClientError()){
-            throw new SpammersPrivateExceptions(SpammersPrivateExceptions.USER_NOT_FOUND,404);
-        } else if (userInfo.getStatusCode().is5xxServerError()) {
+                .onStatus(status -> status.value() == 404, (request, response) -> {
+                    throw new SpammersPrivateExceptions(SpammersPrivateExceptions.USER_NOT_FOUND, 404);
+                })
+                .onStatus(HttpStatusCode::isError, (request, response) -> {
+                    throw new SpammersPrivateExceptions("User Service error", 500);
+                })
+                .body(byte[].class);
+        if (body == null) {
             throw new SpammersPrivateExceptions("User Service error", 500);
         }
-        String name = userInfo.getBody().split("\"studentName\":\"")[1].split("\"")[0];
-        String guardianName = userInfo.getBody().split("\"responsibleName\":\"")[1].split("\"")[0];
-        String guardianEmail = userInfo.getBody().split("\"responsibleEmail\":\"")[1].split("\"")[0];
-        System.out.println("guardianEmail = " + guardianEmail);
-        System.out.println("guardianName = " + guardianName);
-        System.out.println("name = " + name);
-        UserInfo userInfoEst = new UserInfo();
-        userInfoEst.setName(name);
-        userInfoEst.setGuardianName(guardianName);
-        userInfoEst.setGuardianEmail(guardianEmail);
-        return userInfoEst;
-
+        return JsonResponseParser.parseUserInfo(body);
     }
     public boolean validateToken(String token){
         ResponseEntity<?> validateClient = restClient.get()
@@ -75,19 +156,17 @@ public class ApiClient {
         Map<String, String> body = new HashMap<>();
         body.put("username", USERNAME);
         body.put("password", PASSWORD);
-        ResponseEntity<String> token = restClient.post()
+        ResponseEntity<byte[]> response = restClient.post()
                 .uri(APIAUTHURL + "/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(body)
                 .retrieve()
-                .toEntity(String.class);
-        if (token.getStatusCode().is2xxSuccessful()) {
-            System.out.println("token = " + token);
-            String[] parts = token.getBody().split("\"data\":\"");
-            return parts[1].split("\"")[0];
-        } else {
+                .toEntity(byte[].class);
+        String token = response.getStatusCode().is2xxSuccessful() && response.getBody() != null
+                ? JsonResponseParser.parseLoginToken(response.getBody()) : null;
+        if (token == null) {
             throw new SpammersPrivateExceptions("User not found", 404);
         }
-
+        return token;
     }
 }
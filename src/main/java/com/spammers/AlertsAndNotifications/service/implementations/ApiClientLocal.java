@@ -1,9 +1,13 @@
 package com.spammers.AlertsAndNotifications.service.implementations;
 
 import com.spammers.AlertsAndNotifications.model.dto.UserInfo;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 @Component
@@ -14,11 +18,20 @@ public class ApiClientLocal extends ApiClient {
             "jorge-123",new UserInfo("Jorge","Jorge Guardian", "jorge.gamboa-s@mail.escuelaing.edu.co"),
             "daniel-123", new UserInfo("Daniel", "daniel Guardian", "aldandaniel535@gmail.com") ));
 
-    public ApiClientLocal(RestClient restClient, TokenHolder tokenHolder) {
-        super(restClient, tokenHolder);
+    public ApiClientLocal(RestClient restClient, TokenHolder tokenHolder, UserInfoCache userInfoCache,
+                          @Qualifier("userLookupExecutor") ThreadPoolTaskExecutor userLookupExecutor,
+                          @Qualifier("gatewayRateLimiter") RateLimiter gatewayRateLimiter,
+                          @Qualifier("gatewayRequestRateLimiter") RateLimiter gatewayRequestRateLimiter) {
+        super(restClient, tokenHolder, userInfoCache, userLookupExecutor, gatewayRateLimiter, gatewayRequestRateLimiter);
     }
     @Override
     public UserInfo getUserInfoById(String userId){
         return users.get(userId);
     }
+    @Override
+    public Map<String, UserInfo> getUserInfoByIds(Collection<String> userIds){
+        Map<String, UserInfo> found = new HashMap<>();
+        userIds.stream().filter(users::containsKey).forEach(userId -> found.put(userId, users.get(userId)));
+        return found;
+    }
 }
\ No newline at end of file
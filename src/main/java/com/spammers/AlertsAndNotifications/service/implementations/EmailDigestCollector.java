@@ -0,0 +1,119 @@
+package com.spammers.AlertsAndNotifications.service.implementations;
+
+import com.spammers.AlertsAndNotifications.model.EmailOutboxModel;
+import com.spammers.AlertsAndNotifications.model.enums.EmailStatus;
+import com.spammers.AlertsAndNotifications.model.enums.EmailTemplate;
+import com.spammers.AlertsAndNotifications.repository.EmailOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class closes the digest windows. The digestible emails of a guardian are held
+ * in the outbox from the first one until the window ends; then this class queues them
+ * as one digest email, or the email as it is when it is the only one. The held emails
+ * stay in the outbox as merged, next to the digest that carried them.
+ * @since 18-10-2026
+ * @version 1.0
+ */
+@Component
+public class EmailDigestCollector {
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Logger logger = LoggerFactory.getLogger(EmailDigestCollector.class);
+
+    @Value("${notifications.digest.recipients-per-poll:100}")
+    private int recipientsPerPoll;
+    @Value("${notifications.digest.max-items:40}")
+    private int maxItems;
+
+    public EmailDigestCollector(EmailOutboxRepository emailOutboxRepository, TransactionTemplate transactionTemplate) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * This method queues the held emails of the guardians whose digest window has closed,
+     * each guardian in its own transaction.
+     * @return the number of emails queued.
+     */
+    @Scheduled(fixedDelayString = "${notifications.digest.poll-delay-ms:60000}")
+    public int collect() {
+        List<String> recipients = emailOutboxRepository.findDueRecipients(EmailStatus.HELD, LocalDateTime.now(),
+                PageRequest.ofSize(recipientsPerPoll));
+        int queued = 0;
+        int merged = 0;
+        for (String recipient : recipients) {
+            try {
+                Integer released = transactionTemplate.execute(status -> release(recipient));
+                if (released != null && released > 0) {
+                    queued++;
+                    merged += released;
+                }
+            } catch (RuntimeException e) {
+                logger.error("The held emails of {} could not be queued, retrying on the next poll: {}", recipient,
+                        e.getMessage());
+            }
+        }
+        if (queued > 0) {
+            logger.info("Digest window closed for {} guardians, {} held emails queued", queued, merged);
+        }
+        return queued;
+    }
+
+    /**
+     * Queues the held emails of a guardian, the oldest first and no more than fit in one digest:
+     * the ones that would take the digest past the body column stay held for the next one.
+     * The emails held by another instance at the same time are left to it.
+     * @param recipient The guardian.
+     * @return the number of held emails released.
+     */
+    int release(String recipient) {
+        List<EmailOutboxModel> held = emailOutboxRepository.lockByRecipient(recipient, EmailStatus.HELD,
+                PageRequest.ofSize(maxItems));
+        if (held.isEmpty()) {
+            return 0;
+        }
+        EmailTemplate template = EmailTemplate.DIGEST;
+        int available = EmailOutboxModel.BODY_LENGTH - template.formatBody(held.size(), "").length();
+        StringBuilder items = new StringBuilder();
+        List<EmailOutboxModel> released = new ArrayList<>(held.size());
+        for (EmailOutboxModel email : held) {
+            int length = (items.isEmpty() ? 0 : 1) + 2 + email.getDigestItem().length();
+            if (!released.isEmpty() && items.length() + length > available) {
+                break;
+            }
+            if (!items.isEmpty()) {
+                items.append('\n');
+            }
+            items.append("- ").append(email.getDigestItem());
+            released.add(email);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (released.size() == 1) {
+            EmailOutboxModel email = released.get(0);
+            email.setStatus(EmailStatus.PENDING);
+            email.setNextAttemptAt(now);
+            emailOutboxRepository.saveAll(released);
+            return 1;
+        }
+        for (EmailOutboxModel email : released) {
+            email.setStatus(EmailStatus.MERGED);
+            email.setNextAttemptAt(now);
+        }
+        Object[] args = {released.size(), items.toString()};
+        List<EmailOutboxModel> emails = new ArrayList<>(released);
+        emails.add(new EmailOutboxModel(recipient, template.getSubject(), template.formatBody(args),
+                template.formatHtml(args), template));
+        emailOutboxRepository.saveAll(emails);
+        return released.size();
+    }
+}
@@ -0,0 +1,274 @@
+package com.spammers.AlertsAndNotifications.service.implementations;
+
+import com.spammers.AlertsAndNotifications.model.EmailOutboxModel;
+import com.spammers.AlertsAndNotifications.model.enums.EmailStatus;
+import com.spammers.AlertsAndNotifications.repository.EmailOutboxRepository;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import jakarta.activation.DataHandler;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeBodyPart;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+import jakarta.mail.util.ByteArrayDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class drains the email outbox. It claims the due emails and sends them
+ * in batches on a bounded worker pool, each batch over a single connection to
+ * the mail server, no faster than the SMTP rate limit. The failed emails are
+ * retried with exponential backoff until they reach the maximum number of attempts.
+ * @since 17-10-2026
+ * @version 1.0
+ */
+@Component
+public class EmailOutboxDispatcher {
+    private static final List<EmailStatus> CLAIMABLE = List.of(EmailStatus.PENDING, EmailStatus.SENDING);
+    private static final int ERROR_LENGTH = 500;
+    private static final String ABANDONED_ERROR = "The worker of the last attempt stopped before recording it";
+    private static final String HTML_TYPE = "text/html; charset=UTF-8";
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender javaMailSender;
+    private final ThreadPoolTaskExecutor emailDispatchExecutor;
+    private final NotificationMetrics notificationMetrics;
+    private final RateLimiter smtpRateLimiter;
+    private final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    @Value("${CORREO}")
+    private String email;
+    @Value("${notifications.email.batch-size:50}")
+    private int batchSize;
+    @Value("${notifications.email.max-attempts:5}")
+    private int maxAttempts;
+    @Value("${notifications.email.backoff-seconds:30}")
+    private long backoffSeconds;
+    @Value("${notifications.email.lease-seconds:300}")
+    private long leaseSeconds;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository emailOutboxRepository, JavaMailSender javaMailSender,
+                                 @Qualifier("emailDispatchExecutor") ThreadPoolTaskExecutor emailDispatchExecutor,
+                                 NotificationMetrics notificationMetrics,
+                                 @Qualifier("smtpRateLimiter") RateLimiter smtpRateLimiter) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.javaMailSender = javaMailSender;
+        this.emailDispatchExecutor = emailDispatchExecutor;
+        this.notificationMetrics = notificationMetrics;
+        this.smtpRateLimiter = smtpRateLimiter;
+    }
+
+    /**
+     * This method polls the outbox and claims the due emails in a single statement,
+     * never taking more batches than the workers can accept, and hands them to the
+     * workers in batches. The emails that spent every attempt, also when their last
+     * worker stopped before recording it, are moved to the dead letter first.
+     */
+    @Scheduled(fixedDelayString = "${notifications.email.poll-delay-ms:2000}")
+    public void dispatch() {
+        int capacity = emailDispatchExecutor.getThreadPoolExecutor().getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        // The outcomes are recorded only while the lease is the same, so it keeps the precision of the column
+        LocalDateTime leaseUntil = now.plusSeconds(leaseSeconds).truncatedTo(ChronoUnit.MICROS);
+        int abandoned = emailOutboxRepository.abandonExhausted(CLAIMABLE, EmailStatus.DEAD_LETTER, now, maxAttempts,
+                ABANDONED_ERROR);
+        if (abandoned > 0) {
+            logger.error("{} emails moved to dead letter after {} attempts: {}", abandoned, maxAttempts, ABANDONED_ERROR);
+        }
+        List<EmailOutboxModel> claimed = emailOutboxRepository.claimDue(now, leaseUntil, maxAttempts, capacity * batchSize);
+        for (int from = 0; from < claimed.size(); from += batchSize) {
+            submit(List.copyOf(claimed.subList(from, Math.min(from + batchSize, claimed.size()))), leaseUntil);
+        }
+    }
+
+    private void submit(List<EmailOutboxModel> batch, LocalDateTime leaseUntil) {
+        emailDispatchExecutor.execute(() -> deliver(batch, leaseUntil));
+    }
+
+    /**
+     * This method sends a batch of claimed emails over one connection and
+     * records the outcome of every email. The attempt of every email was counted
+     * when it was claimed. The send time of the batch is split evenly among its
+     * emails in the metrics. An email that gets no permit of the rate limiter in
+     * time goes back to the outbox without spending an attempt.
+     * @param batch The emails to send.
+     * @param leaseUntil The end of the lease of the batch; the outcomes of the emails
+     *                   claimed again by another worker since then are not recorded.
+     */
+    public void deliver(List<EmailOutboxModel> batch, LocalDateTime leaseUntil) {
+        Map<MimeMessage, EmailOutboxModel> messages = new IdentityHashMap<>();
+        List<EmailOutboxModel> deferred = new ArrayList<>();
+        LocalDateTime started = LocalDateTime.now();
+        for (EmailOutboxModel outboxEmail : batch) {
+            if (!smtpRateLimiter.acquirePermission()) {
+                defer(outboxEmail, started);
+                deferred.add(outboxEmail);
+                continue;
+            }
+            try {
+                messages.put(buildMessage(outboxEmail), outboxEmail);
+            } catch (MessagingException e) {
+                registerFailure(outboxEmail, e, started);
+                notificationMetrics.recordEmailSend(outboxEmail.getTemplate(), 0, NotificationMetrics.ERROR);
+            }
+        }
+        long start = System.nanoTime();
+        Map<Object, Exception> failures = send(messages);
+        long share = messages.isEmpty() ? 0 : (System.nanoTime() - start) / messages.size();
+        LocalDateTime finished = LocalDateTime.now();
+        for (Map.Entry<MimeMessage, EmailOutboxModel> entry : messages.entrySet()) {
+            Exception failure = failures.get(entry.getKey());
+            if (failure == null) {
+                registerSuccess(entry.getValue(), finished);
+            } else {
+                registerFailure(entry.getValue(), failure, finished);
+            }
+            notificationMetrics.recordEmailSend(entry.getValue().getTemplate(), share,
+                    failure == null ? NotificationMetrics.SUCCESS : NotificationMetrics.ERROR);
+        }
+        record(batch, deferred, leaseUntil, finished);
+        logger.info("Email batch delivered: {} sent, {} failed, {} deferred", messages.size() - failures.size(),
+                batch.size() - deferred.size() - messages.size() + failures.size(), deferred.size());
+    }
+
+    /**
+     * Writes the outcomes of a batch with one update for the sent emails, one for the deferred
+     * ones and one for every kind of failure, instead of writing every email.
+     */
+    private void record(List<EmailOutboxModel> batch, List<EmailOutboxModel> deferred, LocalDateTime leaseUntil,
+                        LocalDateTime sentAt) {
+        List<String> sent = new ArrayList<>();
+        Map<Retry, List<String>> failed = new LinkedHashMap<>();
+        for (EmailOutboxModel outboxEmail : batch) {
+            if (outboxEmail.getStatus() == EmailStatus.SENT) {
+                sent.add(outboxEmail.getEmailId());
+            } else if (!deferred.contains(outboxEmail)) {
+                failed.computeIfAbsent(new Retry(outboxEmail.getStatus(), outboxEmail.getNextAttemptAt(),
+                        outboxEmail.getLastError()), retry -> new ArrayList<>()).add(outboxEmail.getEmailId());
+            }
+        }
+        int recorded = 0;
+        if (!sent.isEmpty()) {
+            recorded += emailOutboxRepository.markSent(sent, EmailStatus.SENDING, EmailStatus.SENT, leaseUntil, sentAt);
+        }
+        for (Map.Entry<Retry, List<String>> entry : failed.entrySet()) {
+            Retry retry = entry.getKey();
+            recorded += emailOutboxRepository.markFailed(entry.getValue(), EmailStatus.SENDING, retry.status(),
+                    leaseUntil, retry.nextAttemptAt(), retry.lastError());
+        }
+        if (!deferred.isEmpty()) {
+            recorded += emailOutboxRepository.defer(deferred.stream().map(EmailOutboxModel::getEmailId).toList(),
+                    EmailStatus.SENDING, EmailStatus.PENDING, leaseUntil, deferred.get(0).getNextAttemptAt());
+        }
+        if (recorded < batch.size()) {
+            logger.warn("The lease of {} emails of the batch ended before their outcome was recorded",
+                    batch.size() - recorded);
+        }
+    }
+
+    private Map<Object, Exception> send(Map<MimeMessage, EmailOutboxModel> messages) {
+        if (messages.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            javaMailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            return Map.of();
+        } catch (MailSendException e) {
+            return e.getFailedMessages().isEmpty() ? allFailed(messages, e) : e.getFailedMessages();
+        } catch (MailException e) {
+            return allFailed(messages, e);
+        }
+    }
+
+    private Map<Object, Exception> allFailed(Map<MimeMessage, EmailOutboxModel> messages, Exception e) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        messages.keySet().forEach(message -> failures.put(message, e));
+        return failures;
+    }
+
+    private MimeMessage buildMessage(EmailOutboxModel outboxEmail) throws MessagingException {
+        MimeMessage message = javaMailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+        helper.setFrom(email);
+        helper.setTo(outboxEmail.getRecipient());
+        helper.setSubject(outboxEmail.getSubject());
+        if (outboxEmail.getHtmlBody() == null) {
+            helper.setText(outboxEmail.getBody());
+        } else {
+            message.setContent(alternatives(outboxEmail));
+        }
+        return message;
+    }
+
+    /**
+     * The text and the HTML of the email as alternatives of each other. The HTML goes
+     * out as it was encoded when the email was queued.
+     */
+    private MimeMultipart alternatives(EmailOutboxModel outboxEmail) throws MessagingException {
+        MimeBodyPart text = new MimeBodyPart();
+        text.setText(outboxEmail.getBody(), StandardCharsets.UTF_8.name());
+        MimeBodyPart html = new MimeBodyPart();
+        html.setDataHandler(new DataHandler(new ByteArrayDataSource(outboxEmail.getHtmlBody(), HTML_TYPE)));
+        MimeMultipart alternatives = new MimeMultipart("alternative");
+        alternatives.addBodyPart(text);
+        alternatives.addBodyPart(html);
+        return alternatives;
+    }
+
+    private void registerSuccess(EmailOutboxModel outboxEmail, LocalDateTime sentAt) {
+        outboxEmail.setStatus(EmailStatus.SENT);
+        outboxEmail.setSentAt(sentAt);
+        outboxEmail.setLastError(null);
+    }
+
+    private void defer(EmailOutboxModel outboxEmail, LocalDateTime now) {
+        outboxEmail.setStatus(EmailStatus.PENDING);
+        outboxEmail.setNextAttemptAt(now);
+        outboxEmail.setAttempts(outboxEmail.getAttempts() - 1);
+    }
+
+    private void registerFailure(EmailOutboxModel outboxEmail, Exception e, LocalDateTime now) {
+        String error = String.valueOf(e.getMessage());
+        outboxEmail.setLastError(error.length() > ERROR_LENGTH ? error.substring(0, ERROR_LENGTH) : error);
+        if (outboxEmail.getAttempts() >= maxAttempts) {
+            outboxEmail.setStatus(EmailStatus.DEAD_LETTER);
+            logger.error("Email {} moved to dead letter after {} attempts: {}", outboxEmail.getEmailId(),
+                    outboxEmail.getAttempts(), error);
+        } else {
+            outboxEmail.setStatus(EmailStatus.PENDING);
+            outboxEmail.setNextAttemptAt(now.plusSeconds(backoff(outboxEmail.getAttempts())));
+            logger.warn("Email {} failed on attempt {}, retrying later: {}", outboxEmail.getEmailId(),
+                    outboxEmail.getAttempts(), error);
+        }
+    }
+
+    private long backoff(int attempts) {
+        return backoffSeconds << Math.min(attempts - 1, 20);
+    }
+
+    /**
+     * The outcome shared by the emails of a batch that failed in the same way.
+     */
+    private record Retry(EmailStatus status, LocalDateTime nextAttemptAt, String lastError) {
+    }
+}
@@ -1,20 +1,27 @@
 package com.spammers.AlertsAndNotifications.service.implementations;
 
 import com.spammers.AlertsAndNotifications.exceptions.SpammersPrivateExceptions;
+import com.spammers.AlertsAndNotifications.model.EmailOutboxModel;
+import com.spammers.AlertsAndNotifications.model.dto.EmailMessageDTO;
+import com.spammers.AlertsAndNotifications.model.enums.EmailStatus;
 import com.spammers.AlertsAndNotifications.model.enums.EmailTemplate;
+import com.spammers.AlertsAndNotifications.repository.EmailOutboxRepository;
 import com.spammers.AlertsAndNotifications.service.interfaces.EmailService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.MailException;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * This class implements the service Email Service. Providing the
- * features to send an email.
+ * features to send an email. The emails are stored in the outbox and
+ * delivered by the {@link EmailOutboxDispatcher} once the transaction
+ * that produced them is committed. In digest mode the digestible emails
+ * are held, and the {@link EmailDigestCollector} sends the ones of each
+ * guardian together once the digest window closes.
  * @since 20-11-2024
  * @version 1.0
  */
@@ -22,57 +29,95 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class EmailServiceImpl implements EmailService {
 
-    private final JavaMailSender javaMailSender;
+    private final EmailOutboxRepository emailOutboxRepository;
     private final Logger logger = LoggerFactory.getLogger(EmailServiceImpl.class);
 
-    @Value("${CORREO}")
-    private String email;
+    @Value("${notifications.digest.enabled:false}")
+    private boolean digestEnabled;
+    @Value("${notifications.digest.window-minutes:60}")
+    private long digestWindowMinutes;
 
     /**
-     * This method sends an email by the given receiver, the subject and the content.
+     * This method queues an email by the given receiver, the subject and the content.
      * @param to The receiver of the email.
      * @param subject The subject of the email.
      * @param body The content of the content.
-     * @throws SpammersPrivateExceptions If the email is not sent correctly.
+     * @throws SpammersPrivateExceptions If the email could not be queued.
      */
     @Override
     public void sendEmailCustomised(String to, String subject, String body) throws SpammersPrivateExceptions {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(email);
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(body);
-        try {
-            javaMailSender.send(message);
-            logger.info("Email sent correctly!");
-        } catch (MailException e) {
-            logger.error("There has been an error, the email was not correctly sent: "+e.getMessage());
-            throw new SpammersPrivateExceptions(SpammersPrivateExceptions.EMAIL_EXCEPTION, 500);
-        }
+        enqueue(new EmailOutboxModel(to, subject, body, null));
     }
 
     /**
-     * This method allows to send an email with the Email Template, by providing the template and the respective arguments.
+     * This method allows to queue an email with the Email Template, by providing the template and the respective arguments.
+     * The email is sent as text and as HTML.
      * @param to The receiver of the email.
      * @param template The template of the email.
      * @param args The arguments to customise the content.
-     * @throws SpammersPrivateExceptions If the email is not sent correctly.
+     * @throws SpammersPrivateExceptions If the email could not be queued.
      */
     @Override
     public void sendEmailTemplate(String to, EmailTemplate template, Object... args) throws SpammersPrivateExceptions {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(email);
-        message.setTo(to);
-        message.setSubject(template.getSubject());
-        message.setText(template.formatBody(args));
+        EmailOutboxModel email = new EmailOutboxModel(to, template.getSubject(), template.formatBody(args),
+                template.formatHtml(args), template);
+        if (digestEnabled && template.isDigestible()) {
+            holdForDigest(email, template.formatDigestItem(args));
+        }
+        enqueue(email);
+    }
+
+    /**
+     * This method queues several emails at once. The dispatcher delivers them in
+     * batches that share one connection to the mail server.
+     * @param messages The emails to send.
+     * @throws SpammersPrivateExceptions If the emails could not be queued.
+     */
+    @Override
+    public void sendBatch(List<EmailMessageDTO> messages) throws SpammersPrivateExceptions {
+        if (messages.isEmpty()) {
+            return;
+        }
+        List<EmailOutboxModel> emails = messages.stream()
+                .map(message -> {
+                    EmailOutboxModel email = new EmailOutboxModel(message.getTo(), message.getSubject(), message.getBody(),
+                            message.getHtmlBody(), message.getTemplate());
+                    holdForDigest(email, message.getDigestItem());
+                    return email;
+                })
+                .toList();
+        try {
+            emailOutboxRepository.saveAll(emails);
+            logger.info("{} emails queued for delivery", emails.size());
+        } catch (RuntimeException e) {
+            logger.error("There has been an error, the emails were not queued: {}", e.getMessage());
+            throw new SpammersPrivateExceptions(SpammersPrivateExceptions.EMAIL_EXCEPTION, 500);
+        }
+    }
+
+    /**
+     * Holds a digestible email until the digest window of its recipient closes. Without
+     * digest mode, or a line for the digest, the email is sent on its own. A line longer
+     * than its column, from a long fine description, is cut.
+     */
+    private void holdForDigest(EmailOutboxModel email, String digestItem) {
+        if (!digestEnabled || digestItem == null) {
+            return;
+        }
+        email.setStatus(EmailStatus.HELD);
+        email.setDigestItem(digestItem.length() > EmailOutboxModel.DIGEST_ITEM_LENGTH
+                ? digestItem.substring(0, EmailOutboxModel.DIGEST_ITEM_LENGTH - 1) + "…" : digestItem);
+        email.setNextAttemptAt(email.getCreatedAt().plusMinutes(digestWindowMinutes));
+    }
 
+    private void enqueue(EmailOutboxModel email) {
         try {
-            javaMailSender.send(message);
-            logger.info("Email sent correctly using template: {}", template.name());
-        } catch (MailException e) {
-            logger.error("There has been an error, the email was not correctly sent: {}", e.getMessage());
+            emailOutboxRepository.save(email);
+            logger.info("Email queued for delivery: {}", email.getEmailId());
+        } catch (RuntimeException e) {
+            logger.error("There has been an error, the email was not queued: {}", e.getMessage());
             throw new SpammersPrivateExceptions(SpammersPrivateExceptions.EMAIL_EXCEPTION, 500);
         }
     }
 
-}
\ No newline at end of file
+}
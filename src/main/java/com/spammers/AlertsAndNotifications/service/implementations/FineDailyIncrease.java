@@ -1,20 +1,23 @@
 package com.spammers.AlertsAndNotifications.service.implementations;
 
 import com.spammers.AlertsAndNotifications.exceptions.SpammersPrivateExceptions;
-import com.spammers.AlertsAndNotifications.model.FineModel;
+import com.spammers.AlertsAndNotifications.model.JobCursorModel;
 import com.spammers.AlertsAndNotifications.model.enums.FineStatus;
 import com.spammers.AlertsAndNotifications.repository.FinesRepository;
+import com.spammers.AlertsAndNotifications.repository.FinesRepository.FineKey;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 /**
  * This class represents the Daily fine increase component to provide the
  * features to run a concurrent process to update the fines amount.
@@ -24,10 +27,14 @@ import java.util.List;
 @Component
 @RequiredArgsConstructor
 public class FineDailyIncrease {
+    public static final String JOB_NAME = "fine-daily-increase";
     private final FinesRepository finesRepository;
+    private final JobCursorManager jobCursorManager;
+    private final NotificationMetrics notificationMetrics;
+    private final Logger logger = LoggerFactory.getLogger(FineDailyIncrease.class);
     private final int limitDaysIncrement=20;
-    private final int EXECUTIONS = 15;
-    private int page = 0;
+    @Value("${fines.accrual.batch-size:1000}")
+    private int batchSize;
     @Getter
     private float fineRate = 800f; // 800 COP per day
 
@@ -44,32 +51,49 @@ public class FineDailyIncrease {
      * This method checks every 5 minutes the pending fines
      * to increase the amount per day by a fine rate that
      * can be modified by admin.
-     * This task is executed every day since 12:00 AM to 4:00 AM.
+     * This task is executed every day since 12:00 AM to 4:00 AM. The first
+     * execution of the day charges every pending fine, the following ones
+     * resume an interrupted run or do nothing once it is completed.
      */
     @Scheduled(cron="0 */5 0-4 * * MON-SUN")
     private void increaseFinesAmount(){
         processFines();
-        page++;
-        LocalTime comparisonTime = LocalTime.of(23,50);
-        LocalTime now = LocalTime.now();
-        if(now.isAfter(comparisonTime) || now.equals(comparisonTime)){
-            page = 0;
-        }
-
     }
 
-    private void processFines() {
-        List<FineModel> fines = fetchFines();
-        for (FineModel fine : fines) {
-            fine.setAmount(fine.getAmount() + fineRate);
-            finesRepository.save(fine);
+    /**
+     * Applies the fine rate to the pending fines in keyset batches, one update per batch.
+     * The fines already charged today are skipped and the run resumes from the last
+     * charged batch after a restart. The run is claimed through its cursor, so only
+     * one of the replicas of the service charges the fines while the others skip it.
+     * @return the number of fines charged.
+     */
+    public int processFines() {
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        jobCursorManager.prepare(JOB_NAME, 1);
+        Optional<JobCursorModel> claimed = jobCursorManager.claim(JOB_NAME, 1);
+        if (claimed.isEmpty()) {
+            return 0;
         }
-    }
-
-    private List<FineModel> fetchFines() {
-        Pageable pageable = PageRequest.of(page, EXECUTIONS, Sort.by("expiredDate").descending());
-        return finesRepository.pendingFinesAfter(LocalDate.now().minusDays(limitDaysIncrement),
-                FineStatus.PENDING, pageable);
+        JobCursorModel cursor = claimed.get();
+        int updated = 0;
+        while (!cursor.isCompleted()) {
+            long batchStart = System.nanoTime();
+            List<FineKey> keys = finesRepository.findFinesToAccrue(today.minusDays(limitDaysIncrement),
+                    FineStatus.PENDING, today, cursor.keyDate(), cursor.keyId(), PageRequest.ofSize(batchSize));
+            if (keys.isEmpty()) {
+                jobCursorManager.complete(cursor);
+                break;
+            }
+            updated += finesRepository.accrueFines(keys.stream().map(FineKey::getFineId).toList(), fineRate, today);
+            FineKey last = keys.get(keys.size() - 1);
+            jobCursorManager.advance(cursor, last.getExpiredDate(), last.getFineId());
+            notificationMetrics.recordJobItems(JOB_NAME, keys.size(), 0, 0);
+            notificationMetrics.recordJobBatch(JOB_NAME, System.nanoTime() - batchStart, NotificationMetrics.SUCCESS);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Daily fine accrual charged {} fines in {} ms", updated, elapsed);
+        return updated;
     }
 
 }
@@ -0,0 +1,113 @@
+package com.spammers.AlertsAndNotifications.service.implementations;
+
+import com.spammers.AlertsAndNotifications.model.JobCursorModel;
+import com.spammers.AlertsAndNotifications.repository.JobCursorRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * This class keeps the cursors of the scheduled jobs in the database, so a run
+ * resumes after the last processed row when the application restarts and
+ * starts over every day. Every run is split in partitions that the instances
+ * claim and lease, so the replicas share a run and no partition is processed
+ * by two of them at once.
+ * @since 17-10-2026
+ * @version 1.0
+ */
+@Component
+public class JobCursorManager {
+    private final JobCursorRepository jobCursorRepository;
+    private final String owner;
+    private final long leaseSeconds;
+
+    public JobCursorManager(JobCursorRepository jobCursorRepository,
+                            @Value("${notifications.jobs.instance-id:${random.uuid}}") String owner,
+                            @Value("${notifications.jobs.lease-seconds:300}") long leaseSeconds) {
+        this.jobCursorRepository = jobCursorRepository;
+        this.owner = owner;
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    /**
+     * Creates the partitions of today's run of the given job, or restarts them when
+     * the last run was on another day.
+     * @param job the name of the job.
+     * @param partitions the number of partitions of the run.
+     */
+    public void prepare(String job, int partitions) {
+        jobCursorRepository.prepareRun(job, partitions, LocalDate.now());
+    }
+
+    /**
+     * Claims a pending partition of today's run of the job that no other instance holds
+     * and leases it to this claim. Every claim gets its own lease token, so a worker whose
+     * lease ended cannot move the partition once another worker of this instance claimed it.
+     * @param job the name of the job.
+     * @param partitions the number of partitions of the run.
+     * @return the cursor of the claimed partition, empty when there is none left.
+     */
+    @Transactional
+    public Optional<JobCursorModel> claim(String job, int partitions) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<JobCursorModel> claimed = jobCursorRepository
+                .findClaimable(job, partitions, LocalDate.now(), now, PageRequest.ofSize(1))
+                .stream().findFirst();
+        claimed.ifPresent(cursor -> {
+            cursor.setLeaseOwner(owner + "/" + UUID.randomUUID());
+            cursor.setLeaseUntil(now.plusSeconds(leaseSeconds));
+        });
+        return claimed;
+    }
+
+    /**
+     * Moves the cursor after the given key and renews the lease of the partition.
+     * @param cursor the cursor to move.
+     * @param keyDate the date of the last processed row.
+     * @param keyId the id of the last processed row.
+     * @throws IllegalStateException If the lease ended and the partition was claimed again.
+     */
+    public void advance(JobCursorModel cursor, LocalDate keyDate, String keyId) {
+        LocalDateTime leaseUntil = LocalDateTime.now().plusSeconds(leaseSeconds);
+        if (jobCursorRepository.advance(cursor.getJobName(), cursor.getLeaseOwner(), keyDate, keyId, leaseUntil) == 0) {
+            throw leaseLost(cursor);
+        }
+        cursor.setLastKeyDate(keyDate);
+        cursor.setLastKeyId(keyId);
+        cursor.setLeaseUntil(leaseUntil);
+    }
+
+    /**
+     * Marks the partition of today's run as finished.
+     * @param cursor the cursor of the partition.
+     * @throws IllegalStateException If the lease ended and the partition was claimed again.
+     */
+    public void complete(JobCursorModel cursor) {
+        if (jobCursorRepository.complete(cursor.getJobName(), cursor.getLeaseOwner()) == 0) {
+            throw leaseLost(cursor);
+        }
+        cursor.setCompleted(true);
+        cursor.setLeaseOwner(null);
+        cursor.setLeaseUntil(null);
+    }
+
+    /**
+     * Releases the partition before its lease ends, so any instance may resume it.
+     * @param cursor the cursor of the partition.
+     */
+    public void release(JobCursorModel cursor) {
+        jobCursorRepository.release(cursor.getJobName(), cursor.getLeaseOwner());
+        cursor.setLeaseOwner(null);
+        cursor.setLeaseUntil(null);
+    }
+
+    private IllegalStateException leaseLost(JobCursorModel cursor) {
+        return new IllegalStateException("The lease of " + cursor.getJobName() + " passed to another claim");
+    }
+}
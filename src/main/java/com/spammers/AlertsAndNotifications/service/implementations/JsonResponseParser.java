@@ -0,0 +1,121 @@
+package com.spammers.AlertsAndNotifications.service.implementations;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.spammers.AlertsAndNotifications.exceptions.SpammersPrivateExceptions;
+import com.spammers.AlertsAndNotifications.model.dto.TokenClaims;
+import com.spammers.AlertsAndNotifications.model.dto.UserInfo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * This class reads the few fields the service needs from the responses of the
+ * gateway and the auth service, and from the payload of the tokens. The documents
+ * are streamed once, field by field, without building a tree or copying the body.
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public final class JsonResponseParser {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private JsonResponseParser() {
+    }
+
+    /**
+     * Reads the student name and the guardian of a student from the gateway response.
+     * @param body the body of the response.
+     * @return the information of the user.
+     * @throws SpammersPrivateExceptions If the body is not valid or a field is missing.
+     */
+    public static UserInfo parseUserInfo(byte[] body) {
+        UserInfo userInfo = new UserInfo();
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.FIELD_NAME) continue;
+                String field = parser.currentName();
+                if (parser.nextToken() != JsonToken.VALUE_STRING) continue;
+                switch (field) {
+                    case "studentName" -> userInfo.setName(parser.getText());
+                    case "responsibleName" -> userInfo.setGuardianName(parser.getText());
+                    case "responsibleEmail" -> userInfo.setGuardianEmail(parser.getText());
+                    default -> { }
+                }
+            }
+        } catch (IOException e) {
+            throw new SpammersPrivateExceptions("User Service error", 500);
+        }
+        if (userInfo.getName() == null || userInfo.getGuardianName() == null || userInfo.getGuardianEmail() == null) {
+            throw new SpammersPrivateExceptions("User Service error", 500);
+        }
+        return userInfo;
+    }
+
+    /**
+     * Reads the token from the login response of the auth service.
+     * @param body the body of the response.
+     * @return the token, or null if the response has no token.
+     */
+    public static String parseLoginToken(byte[] body) {
+        return findString(body, "data");
+    }
+
+    /**
+     * Reads the claims from the payload of a token. The signature is not checked.
+     * @param token the token, with its three dot separated parts.
+     * @return the claims of the token.
+     * @throws SpammersPrivateExceptions If the token or its payload is not valid.
+     */
+    public static TokenClaims parseClaims(String token) {
+        int start = token.indexOf('.');
+        int end = token.indexOf('.', start + 1);
+        if (start < 0 || end < 0) {
+            throw new SpammersPrivateExceptions(SpammersPrivateExceptions.ROLE_NOT_FOUND, 401);
+        }
+        byte[] payload;
+        try {
+            payload = Base64.getUrlDecoder().decode(token.substring(start + 1, end).getBytes(StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new SpammersPrivateExceptions(SpammersPrivateExceptions.ROLE_NOT_FOUND, 401);
+        }
+        String subject = null;
+        String role = null;
+        try (JsonParser parser = JSON_FACTORY.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new SpammersPrivateExceptions(SpammersPrivateExceptions.ROLE_NOT_FOUND, 401);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_STRING && field.equals("sub")) {
+                    subject = parser.getText();
+                } else if (value == JsonToken.VALUE_STRING && field.equals("role")) {
+                    role = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new SpammersPrivateExceptions(SpammersPrivateExceptions.ROLE_NOT_FOUND, 401);
+        }
+        return new TokenClaims(subject, role);
+    }
+
+    private static String findString(byte[] body, String name) {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME && name.equals(parser.currentName())
+                        && parser.nextToken() == JsonToken.VALUE_STRING) {
+                    return parser.getText();
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -1,106 +1,211 @@
 package com.spammers.AlertsAndNotifications.service.implementations;
 
+import com.spammers.AlertsAndNotifications.model.JobCursorModel;
 import com.spammers.AlertsAndNotifications.model.LoanModel;
 import com.spammers.AlertsAndNotifications.model.LoanNotification;
 import com.spammers.AlertsAndNotifications.model.NotificationModel;
+import com.spammers.AlertsAndNotifications.model.dto.EmailMessageDTO;
 import com.spammers.AlertsAndNotifications.model.dto.UserInfo;
+import com.spammers.AlertsAndNotifications.model.enums.EmailTemplate;
 import com.spammers.AlertsAndNotifications.model.enums.NotificationType;
 import com.spammers.AlertsAndNotifications.repository.LoanRepository;
 import com.spammers.AlertsAndNotifications.repository.NotificationRepository;
 import com.spammers.AlertsAndNotifications.service.interfaces.EmailService;
-import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.configurationprocessor.json.JSONException;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.IntStream;
 
 /**
- * This class provides the daily check of expired loans.
+ * This class provides the daily check of expired loans. The expired loans are split
+ * in partitions by the hash of their id and the partitions are run concurrently on
+ * the job pool, each one in keyset batches with its own cursor, until all of them
+ * are done. The partitions are claimed through the cursors, so the replicas of the
+ * service share a run and every partition is run by one of them.
  * @since 21-11-2024
  * @version 1.0
  */
 @Component
-@RequiredArgsConstructor
 public class LoanExpiredNotification {
+    public static final String JOB_NAME = "loan-expired";
     private final LoanRepository loanRepository;
     private final NotificationRepository notificationRepository;
     private final EmailService emailService;
     private final ApiClient apiClient;
     private final Logger logger = LoggerFactory.getLogger(LoanExpiredNotification.class);
-    private final int EXECUTIONS = 15;
     private final TokenHolder tokenHolder;
-    private int page = 0;
-    
+    private final JobCursorManager jobCursorManager;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationMetrics notificationMetrics;
+    private final UserNotificationCounters userNotificationCounters;
+    private final Executor loanJobExecutor;
+    private final int partitions;
+    private final int batchSize;
+
+    public LoanExpiredNotification(LoanRepository loanRepository, NotificationRepository notificationRepository,
+                                   EmailService emailService, ApiClient apiClient, TokenHolder tokenHolder,
+                                   JobCursorManager jobCursorManager, TransactionTemplate transactionTemplate,
+                                   NotificationMetrics notificationMetrics, UserNotificationCounters userNotificationCounters,
+                                   @Qualifier("loanJobExecutor") Executor loanJobExecutor,
+                                   @Value("${notifications.jobs.loan-expired.partitions:8}") int partitions,
+                                   @Value("${notifications.jobs.loan-expired.batch-size:50}") int batchSize) {
+        this.loanRepository = loanRepository;
+        this.notificationRepository = notificationRepository;
+        this.emailService = emailService;
+        this.apiClient = apiClient;
+        this.tokenHolder = tokenHolder;
+        this.jobCursorManager = jobCursorManager;
+        this.transactionTemplate = transactionTemplate;
+        this.notificationMetrics = notificationMetrics;
+        this.userNotificationCounters = userNotificationCounters;
+        this.loanJobExecutor = loanJobExecutor;
+        this.partitions = partitions;
+        this.batchSize = batchSize;
+    }
+
     /**
-     * This method sendEmails every 10 in range [8-10] A.M. Monday - Friday
-     * With Pagination from the Database for better performance.
+     * This method runs the expired loans every 10 minutes in range [8-10] A.M. Monday - Friday.
+     * The first run of the day goes through all of them, the later ones resume the partitions
+     * that did not finish.
      */
     @Scheduled(cron = "0 */10 8-10 * * MON-FRI")
     private void sendEmails() {
-        processEmails();
-        page++;
+        processAll();
         //Current time
         LocalTime now = LocalTime.now();
         // Define the time 10:50am
         LocalTime comparisonTime = LocalTime.of(10, 50);
         if (now.isAfter(comparisonTime) || now.equals(comparisonTime)) {
-            page = 0;
             tokenHolder.setToken(null);
         }
     }
 
-    private void processEmails() {
-        List<LoanModel> loans = fetchEmailsToSend();
-        if(loans.isEmpty()){
-            return;
+    /**
+     * Runs the partitions of today's expired loans that no other instance holds to the end,
+     * at most as many at once as the job pool allows. A partition that fails stops at its
+     * last committed batch and is resumed, by this or another instance, once its lease ends;
+     * the others go on.
+     * @return the number of loans processed.
+     */
+    public int processAll() {
+        long start = System.nanoTime();
+        if(tokenHolder.getToken() == null){
+            tokenHolder.setToken(apiClient.getToken());
         }
-        for (LoanModel loan : loans) {
-            sendEmail(loan);
+        jobCursorManager.prepare(JOB_NAME, partitions);
+        List<CompletableFuture<Integer>> runs = IntStream.range(0, partitions)
+                .mapToObj(worker -> CompletableFuture.supplyAsync(this::processClaimedPartitions, loanJobExecutor))
+                .toList();
+        int processed = runs.stream().mapToInt(CompletableFuture::join).sum();
+        long elapsed = System.nanoTime() - start;
+        notificationMetrics.recordJobRun(JOB_NAME, elapsed);
+        if (processed > 0) {
+            double seconds = elapsed / 1e9;
+            logger.info("Expired loans run: {} loans in {} partitions, {} s, {} loans/s", processed, partitions,
+                    String.format("%.1f", seconds), String.format("%.1f", processed / seconds));
         }
+        return processed;
     }
 
-    private List<LoanModel> fetchEmailsToSend() {
-        Pageable pageable = PageRequest.of(page, EXECUTIONS, Sort.by("loanExpired").ascending());
-        if(page == 0){
-            tokenHolder.setToken(apiClient.getToken());
+    private int processClaimedPartitions() {
+        int processed = 0;
+        Optional<JobCursorModel> claimed;
+        while ((claimed = jobCursorManager.claim(JOB_NAME, partitions)).isPresent()) {
+            processed += processPartition(claimed.get());
         }
-        return loanRepository.findExpiredLoans(LocalDate.now(), pageable);
+        return processed;
     }
 
-    private void sendEmail(LoanModel loan) {
+    private int processPartition(JobCursorModel cursor) {
+        int processed = 0;
         try {
-            UserInfo userInfo = apiClient.getUserInfoById(loan.getUserId());
-            String emailBody = String.format("""
-                            Buen día, %s         
-                            Nos permitimos informar que su representado, %s, tomó prestado el libro  %s, el día %s y, a la fecha, este aún no ha sido devuelto. Agradecemos que gestione su entrega a la mayor brevedad posible.                        
-                            Quedamos atentos a su pronta respuesta.                     
-                            Gracias por su atención.
-                            Cordial saludo.
-                            Este es el gestor de notificaciones de BibloSoft.
-                            No responder a esta cuenta de correo ya que es enviada por un motor de notificaciones automáticas."""
-                    ,userInfo.getGuardianName(), userInfo.getName(),loan.getBookName(), loan.getLoanDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
-            emailService.sendEmailCustomised(userInfo.getGuardianEmail(), "Expiración préstamo libro", emailBody);
-            NotificationModel notification = new LoanNotification(loan.getUserId(), userInfo.getGuardianEmail()
-                    , LocalDate.now(), NotificationType.BOOK_LOAN_EXPIRED, loan, false, loan.getBookName());
-            notificationRepository.save(notification);
-            changeLoanEmailExpiredSent(loan);
-        }catch (Exception ex){
-            logger.error("Exception sending an automated email {}", ex.getMessage());
+            int batch;
+            while ((batch = processEmails(cursor)) > 0) {
+                processed += batch;
+            }
+        } catch (RuntimeException e) {
+            logger.error("The partition {} of the expired loans stopped after {} loans: {}", cursor.getPartitionIndex(),
+                    processed, e.getMessage());
         }
+        return processed;
     }
 
-    private void changeLoanEmailExpiredSent(LoanModel loanModel){
-        loanModel.setStatus(false);
-        loanRepository.save(loanModel);
+    /**
+     * Processes the next batch of expired loans of a claimed partition in today's run: queues the emails
+     * to the guardians, records the notifications and moves the cursor of the partition after the batch.
+     * The batch is rolled back when the lease of the partition passed to another instance.
+     * @param cursor the cursor of the partition, leased to this instance.
+     * @return the number of loans of the batch, 0 when the partition is done.
+     */
+    public int processEmails(JobCursorModel cursor) {
+        if(cursor.isCompleted()){
+            return 0;
+        }
+        long start = System.nanoTime();
+        List<LoanModel> loans = loanRepository.findExpiredLoans(LocalDate.now(), cursor.keyDate(), cursor.keyId(),
+                cursor.getPartitions(), cursor.getPartitionIndex(), PageRequest.ofSize(batchSize));
+        if(loans.isEmpty()){
+            jobCursorManager.complete(cursor);
+            return 0;
+        }
+        List<EmailMessageDTO> messages = new ArrayList<>(loans.size());
+        List<NotificationModel> notifications = new ArrayList<>(loans.size());
+        List<String> notifiedLoans = new ArrayList<>(loans.size());
+        Map<String, UserInfo> users = apiClient.getUserInfoByIds(loans.stream().map(LoanModel::getUserId).toList());
+        StringBuilder body = new StringBuilder(512);
+        for (LoanModel loan : loans) {
+            prepareEmail(loan, users.get(loan.getUserId()), body, messages, notifications, notifiedLoans);
+        }
+        LoanModel last = loans.get(loans.size() - 1);
+        String outcome = NotificationMetrics.ERROR;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                emailService.sendBatch(messages);
+                notificationRepository.saveAll(notifications);
+                userNotificationCounters.notificationsSaved(notifications);
+                if(!notifiedLoans.isEmpty()){
+                    loanRepository.updateLoansStatus(notifiedLoans, false);
+                }
+                jobCursorManager.advance(cursor, last.getLoanExpired(), last.getLoanId());
+            });
+            outcome = NotificationMetrics.SUCCESS;
+            notificationMetrics.recordJobItems(JOB_NAME, loans.size(), messages.size(), loans.size() - messages.size());
+        } finally {
+            notificationMetrics.recordJobBatch(JOB_NAME, System.nanoTime() - start, outcome);
+        }
+        return loans.size();
+    }
+
+    private void prepareEmail(LoanModel loan, UserInfo userInfo, StringBuilder body, List<EmailMessageDTO> messages,
+                              List<NotificationModel> notifications, List<String> notifiedLoans) {
+        if(userInfo == null){
+            logger.error("The user {} of the loan {} was not found", loan.getUserId(), loan.getLoanId());
+            return;
+        }
+        try {
+            messages.add(EmailMessageDTO.fromTemplate(userInfo.getGuardianEmail(), EmailTemplate.LOAN_EXPIRED, body,
+                    userInfo.getGuardianName(), userInfo.getName(), loan.getBookName(),
+                    loan.getLoanDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))));
+            notifications.add(new LoanNotification(loan.getUserId(), userInfo.getGuardianEmail()
+                    , LocalDate.now(), NotificationType.BOOK_LOAN_EXPIRED, loan, false, loan.getBookName()));
+            notifiedLoans.add(loan.getLoanId());
+        }catch (Exception ex){
+            logger.error("Exception sending an automated email {}", ex.getMessage());
+        }
     }
 }
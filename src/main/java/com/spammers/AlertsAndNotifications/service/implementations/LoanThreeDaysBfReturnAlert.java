@@ -1,8 +1,9 @@
 package com.spammers.AlertsAndNotifications.service.implementations;
 
-import com.spammers.AlertsAndNotifications.exceptions.SpammersPrivateExceptions;
+import com.spammers.AlertsAndNotifications.model.JobCursorModel;
 import com.spammers.AlertsAndNotifications.model.LoanModel;
 import com.spammers.AlertsAndNotifications.model.NotificationModel;
+import com.spammers.AlertsAndNotifications.model.dto.EmailMessageDTO;
 import com.spammers.AlertsAndNotifications.model.dto.UserInfo;
 import com.spammers.AlertsAndNotifications.model.enums.EmailTemplate;
 import com.spammers.AlertsAndNotifications.model.enums.NotificationType;
@@ -13,13 +14,18 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 /**
  * This class provides the daily check of expired loans.
  * @since 12-12-2024
@@ -28,15 +34,20 @@ import java.util.List;
 @Component
 @RequiredArgsConstructor
 public class LoanThreeDaysBfReturnAlert {
+    public static final String JOB_NAME = "loan-three-days-alert";
 
     private final LoanRepository loanRepository;
     private final NotificationRepository notificationRepository;
     private final EmailService emailService;
     private final ApiClient apiClient;
     private final TokenHolder tokenHolder;
+    private final JobCursorManager jobCursorManager;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationMetrics notificationMetrics;
+    private final UserNotificationCounters userNotificationCounters;
     private final Logger logger = LoggerFactory.getLogger(LoanThreeDaysBfReturnAlert.class);
-    private int page = 0;
     private final int EXECUTIONS = 15;
+    private final int LEDGER_DAYS = 7;
 
     /**
      * This method checks the
@@ -44,42 +55,107 @@ public class LoanThreeDaysBfReturnAlert {
     @Scheduled(cron = "0 */10 11-13 * * *")
     private void checkLoans(){
         processEmails();
-        page++;
         //Current time
         LocalTime now = LocalTime.now();
         // Define the time 10:50am
         LocalTime comparisonTime = LocalTime.of(13, 50);
         if (now.isAfter(comparisonTime) || now.equals(comparisonTime)) {
-            page = 0;
             tokenHolder.setToken(null);
         }
     }
 
+    /**
+     * Processes the next batch of loans that expire in three days. The run is claimed
+     * through its cursor and released after the batch, so each batch is sent by one of
+     * the replicas of the service and any of them may send the next one.
+     */
     private void processEmails() {
-        List<LoanModel> loans = fetchEmailsToSend();
+        jobCursorManager.prepare(JOB_NAME, 1);
+        Optional<JobCursorModel> claimed = jobCursorManager.claim(JOB_NAME, 1);
+        if(claimed.isEmpty()){
+            return;
+        }
+        JobCursorModel cursor = claimed.get();
+        try {
+            processBatch(cursor);
+        } finally {
+            if(!cursor.isCompleted()){
+                jobCursorManager.release(cursor);
+            }
+        }
+    }
+
+    /**
+     * Sends the alerts of the next batch. The loans of the batch are recorded in the notification
+     * ledger in the transaction that queues the emails, and only the ones recorded by it are sent,
+     * so a retried or overlapping batch skips the loans already alerted today.
+     */
+    private void processBatch(JobCursorModel cursor) {
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        List<LoanModel> loans = fetchEmailsToSend(cursor);
         if(loans.isEmpty()){
+            jobCursorManager.complete(cursor);
+            notificationRepository.purgeLedgerBefore(today.minusDays(LEDGER_DAYS));
             return;
         }
+        List<EmailMessageDTO> messages = new ArrayList<>(loans.size());
+        List<NotificationModel> notifications = new ArrayList<>(loans.size());
+        List<String> alertedLoans = new ArrayList<>(loans.size());
+        Map<String, UserInfo> users = apiClient.getUserInfoByIds(loans.stream().map(LoanModel::getUserId).toList());
+        StringBuilder body = new StringBuilder(512);
         for (LoanModel loan : loans) {
-            sendEmail(loan);
+            prepareEmail(loan, users.get(loan.getUserId()), body, messages, notifications, alertedLoans);
+        }
+        LoanModel last = loans.get(loans.size() - 1);
+        String outcome = NotificationMetrics.ERROR;
+        try {
+            Integer sent = transactionTemplate.execute(status -> {
+                Set<String> recorded = alertedLoans.isEmpty() ? Set.of()
+                        : new HashSet<>(notificationRepository.recordInLedger(alertedLoans, NotificationType.ALERT.ordinal(), today));
+                List<EmailMessageDTO> newMessages = new ArrayList<>(recorded.size());
+                List<NotificationModel> newNotifications = new ArrayList<>(recorded.size());
+                for (int i = 0; i < alertedLoans.size(); i++) {
+                    if (recorded.contains(alertedLoans.get(i))) {
+                        newMessages.add(messages.get(i));
+                        newNotifications.add(notifications.get(i));
+                    }
+                }
+                emailService.sendBatch(newMessages);
+                notificationRepository.saveAll(newNotifications);
+                userNotificationCounters.notificationsSaved(newNotifications);
+                jobCursorManager.advance(cursor, last.getLoanExpired(), last.getLoanId());
+                return newMessages.size();
+            });
+            outcome = NotificationMetrics.SUCCESS;
+            notificationMetrics.recordJobItems(JOB_NAME, loans.size(), sent, loans.size() - sent);
+        } finally {
+            notificationMetrics.recordJobBatch(JOB_NAME, System.nanoTime() - start, outcome);
         }
     }
-    private List<LoanModel> fetchEmailsToSend() {
-        Pageable pageable = PageRequest.of(page, EXECUTIONS);
-        if(page == 0){
+
+    private List<LoanModel> fetchEmailsToSend(JobCursorModel cursor) {
+        if(tokenHolder.getToken() == null){
             tokenHolder.setToken(apiClient.getToken());
         }
-        return loanRepository.findLoansExpiringInExactlyNDays(LocalDate.now().plusDays(3), pageable);
+        return loanRepository.findLoansExpiringInExactlyNDays(LocalDate.now().plusDays(3), cursor.keyDate(),
+                cursor.keyId(), PageRequest.ofSize(EXECUTIONS));
     }
 
-    private void sendEmail(LoanModel loan) {
+    private void prepareEmail(LoanModel loan, UserInfo userInfo, StringBuilder body, List<EmailMessageDTO> messages,
+                              List<NotificationModel> notifications, List<String> alertedLoans) {
+        if(userInfo == null){
+            logger.error("The user {} of the loan {} was not found", loan.getUserId(), loan.getLoanId());
+            return;
+        }
         try {
-            UserInfo userInfo = apiClient.getUserInfoById(loan.getUserId());
-            emailService.sendEmailTemplate(userInfo.getGuardianEmail(), EmailTemplate.NOTIFICATION_ALERT
-                    ,userInfo.getGuardianName() + "te informamos que el " + "estudiante: " + userInfo.getName() + " tiene 3 dias para devolver el libro " + loan.getBookName() + " de lo contrario se generará una multa.");
-            NotificationModel notificationModel = new NotificationModel(loan.getUserId(),userInfo.getGuardianEmail()
-                    , LocalDate.now() , NotificationType.ALERT, false, loan.getBookName());
-            notificationRepository.save(notificationModel);
+            EmailMessageDTO message = EmailMessageDTO.fromTemplate(userInfo.getGuardianEmail(), EmailTemplate.LOAN_EXPIRING,
+                    body, userInfo.getGuardianName(), userInfo.getName(), loan.getBookName());
+            // The three lists stay aligned, the ledger decides by loan which message is sent
+            messages.add(message);
+            notifications.add(new NotificationModel(loan.getUserId(),userInfo.getGuardianEmail()
+                    , LocalDate.now() , NotificationType.ALERT, false, loan.getBookName()));
+            alertedLoans.add(loan.getLoanId());
         }catch (Exception ex){
             logger.error("Exception sending an automated email {}", ex.getMessage());
         }
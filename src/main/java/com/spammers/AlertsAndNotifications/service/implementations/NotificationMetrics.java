@@ -0,0 +1,91 @@
+package com.spammers.AlertsAndNotifications.service.implementations;
+
+import com.spammers.AlertsAndNotifications.model.enums.EmailTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class records the metrics of the scheduled jobs and of the email delivery.
+ * The outbound HTTP calls and the repository queries are timed by the Spring Boot
+ * instrumentation as http.client.requests and spring.data.repository.invocations.
+ * @since 17-10-2026
+ * @version 1.0
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationMetrics {
+    public static final String SUCCESS = "success";
+    public static final String ERROR = "error";
+    private static final String CUSTOM_TEMPLATE = "CUSTOM";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Records the latency of one batch of a scheduled job.
+     * @param job the name of the job.
+     * @param elapsedNanos the duration of the batch.
+     * @param outcome {@link #SUCCESS} or {@link #ERROR}.
+     */
+    public void recordJobBatch(String job, long elapsedNanos, String outcome) {
+        Timer.builder("notifications.job.batch")
+                .description("Duration of a batch of a scheduled job")
+                .tag("job", job)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the duration of a run of a scheduled job that goes through all its rows.
+     * @param job the name of the job.
+     * @param elapsedNanos the duration of the run.
+     */
+    public void recordJobRun(String job, long elapsedNanos) {
+        Timer.builder("notifications.job.run")
+                .description("Duration of a complete run of a scheduled job")
+                .tag("job", job)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts the rows scanned by a batch of a scheduled job and the emails it produced.
+     * @param job the name of the job.
+     * @param scanned the number of rows read.
+     * @param queued the number of emails queued.
+     * @param failed the number of rows whose email could not be prepared.
+     */
+    public void recordJobItems(String job, int scanned, int queued, int failed) {
+        counter("notifications.job.scanned", "Rows read by a scheduled job", job, null).increment(scanned);
+        counter("notifications.job.emails", "Emails produced by a scheduled job", job, "queued").increment(queued);
+        counter("notifications.job.emails", "Emails produced by a scheduled job", job, "failed").increment(failed);
+    }
+
+    /**
+     * Records the delivery of an email to the mail server.
+     * @param template the template of the email, null for custom emails.
+     * @param elapsedNanos the share of the batch send time of the email.
+     * @param outcome {@link #SUCCESS} or {@link #ERROR}.
+     */
+    public void recordEmailSend(EmailTemplate template, long elapsedNanos, String outcome) {
+        Timer.builder("notifications.email.send")
+                .description("SMTP send time of an email")
+                .tag("template", template == null ? CUSTOM_TEMPLATE : template.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Counter counter(String name, String description, String job, String outcome) {
+        Counter.Builder builder = Counter.builder(name).description(description).tag("job", job);
+        if (outcome != null) {
+            builder.tag("outcome", outcome);
+        }
+        return builder.register(meterRegistry);
+    }
+}
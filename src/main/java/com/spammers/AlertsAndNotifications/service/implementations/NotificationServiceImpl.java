@@ -1,5 +1,6 @@
 package com.spammers.AlertsAndNotifications.service.implementations;
 
+import com.spammers.AlertsAndNotifications.exceptions.SpammersPrivateExceptions;
 import com.spammers.AlertsAndNotifications.model.dto.*;
 import com.spammers.AlertsAndNotifications.model.NotificationModel;
 import com.spammers.AlertsAndNotifications.model.*;
@@ -12,6 +13,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 
 /**
@@ -24,8 +33,10 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 @Service
 public class NotificationServiceImpl implements NotificationService {
+    private static final int MAX_MARK_SEEN_IDS = 500;
     private final FinesRepository finesRepository;
     private final NotificationRepository notificationRepository;
+    private final UserNotificationCounters userNotificationCounters;
 
 
     /**
@@ -39,8 +50,8 @@ public class NotificationServiceImpl implements NotificationService {
     @Override
     public PaginatedResponseDTO<FineOutputDTO> getFinesByUserId(String userId, int pageNumber, int pageSize){
         Pageable pageable = PageRequest.of(pageNumber, pageSize);
-        Page<FineModel> page = finesRepository.findByUserId(userId, pageable);
-        return FineOutputDTO.encapsulateFineModelOnDTO(page);
+        Page<FineOutputDTO> page = finesRepository.findByUserId(userId, pageable);
+        return FineOutputDTO.encapsulateFineOutputPage(page);
     }
 
     /**
@@ -53,40 +64,90 @@ public class NotificationServiceImpl implements NotificationService {
     @Override
     public PaginatedResponseDTO<NotificationDTO> getNotifications(String userId, int pageNumber, int pageSize) {
         Pageable pageable = PageRequest.of(pageNumber, pageSize);
-        Page<NotificationModel> page = notificationRepository.findByUserId(userId, pageable);
-        return NotificationDTO.encapsulateFineModelOnDTO(page);
+        Page<NotificationDTO> page = notificationRepository.findByUserId(userId, pageable);
+        return NotificationDTO.encapsulateNotificationDTOPage(page);
     }
 
 
     /**
      * Retrieves the number of notifications that have not been seen by a specific user.
      * <p>
-     * This method interacts with the repository layer to count notifications that
-     * are associated with the given user ID and have not been marked as seen.
+     * The counts are read from the counters of the user, which are kept up to date
+     * as notifications are saved and seen and as fines are opened and closed.
      * <p>
      * @param userId the ID of the user whose unseen notifications are to be counted.
-     * @return the count of unseen notifications for the specified user.
+     * @return the count of unseen notifications and pending fines for the specified user.
      */
     @Override
     public UserNotificationsInformationDTO getNumberNotificationsNotSeenByUser(String userId) {
-        return new UserNotificationsInformationDTO(
-                notificationRepository.getNumberNotificationsNotSeenByUser(userId, false),
-                finesRepository.getNumberActiveFinesByUser(userId, FineStatus.PENDING)
-        );
+        return userNotificationCounters.get(userId);
     }
 
     /**
      * Marks a specific notification as seen by updating its `hasBeenSeen` status to true.
      * <p>
      * This method interacts with the repository layer to update the state of a notification
-     * identified by its unique ID. The method returns the number of records updated in the database.
+     * identified by its unique ID. The unseen counter of the student is decreased only when
+     * the notification had not been seen before.
      * <p>
      * @param notificationId the unique identifier of the notification to be marked as seen.
      * @return the number of notifications updated (1 if successful, 0 if no matching notification was found).
      */
     @Override
+    @Transactional
     public int markNotificationAsSeen(String notificationId) {
-        return notificationRepository.markNotificationAsSeen(notificationId);
+        Optional<String> studentId = notificationRepository.findStudentIdById(notificationId);
+        if (studentId.isEmpty()) {
+            return 0;
+        }
+        if (notificationRepository.markNotificationAsSeen(notificationId) == 1) {
+            userNotificationCounters.adjust(studentId.get(), -1, 0);
+        }
+        return 1;
+    }
+
+    /**
+     * Marks as seen, in a single update, the unseen notifications of a user, or only the
+     * ones sent before the given date. The unseen counter of the user is decreased in
+     * the same transaction.
+     * @param userId the ID of the user whose notifications are marked.
+     * @param before the notifications sent on this date or later are kept unseen; null marks all of them.
+     * @return the number of notifications updated.
+     */
+    @Override
+    @Transactional
+    public int markAllNotificationsAsSeen(String userId, LocalDate before) {
+        int updated = before == null
+                ? notificationRepository.markAllNotificationsAsSeen(userId)
+                : notificationRepository.markNotificationsAsSeenBefore(userId, before);
+        userNotificationCounters.adjust(userId, -updated, 0);
+        return updated;
+    }
+
+    /**
+     * Marks as seen, in a single update, the given notifications of a user. The ids that
+     * are null, do not belong to the user or were already seen are ignored.
+     * @param userId the ID of the user whose notifications are marked.
+     * @param notificationIds the IDs of the notifications, at most 500.
+     * @return the number of notifications updated.
+     * @throws SpammersPrivateExceptions If more than 500 ids are given.
+     */
+    @Override
+    @Transactional
+    public int markNotificationsAsSeen(String userId, List<String> notificationIds) {
+        if (notificationIds == null || notificationIds.isEmpty()) {
+            return 0;
+        }
+        if (notificationIds.size() > MAX_MARK_SEEN_IDS) {
+            throw new SpammersPrivateExceptions(SpammersPrivateExceptions.TOO_MANY_NOTIFICATIONS, 400);
+        }
+        Set<String> ids = notificationIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int updated = notificationRepository.markNotificationsAsSeen(userId, ids);
+        userNotificationCounters.adjust(userId, -updated, 0);
+        return updated;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,195 @@
+package com.spammers.AlertsAndNotifications.service.implementations;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.factories.DefaultJWSVerifierFactory;
+import com.nimbusds.jose.jwk.AsymmetricJWK;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.SecretJWK;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * This class validates the tokens of the incoming requests. The signature and
+ * expiry are checked locally against the key set published by the auth service,
+ * which is refreshed on a schedule. Only the tokens signed with a key that is not
+ * in the key set are validated remotely. The validated tokens are remembered by
+ * hash for a short time.
+ * @since 17-10-2026
+ * @version 1.0
+ */
+@Component
+public class TokenVerifier {
+    private enum Verification { VALID, INVALID, UNKNOWN_KEY }
+
+    private final ApiClient apiClient;
+    private final RestClient restClient;
+    private final Cache<String, Instant> validatedTokens;
+    private final Logger logger = LoggerFactory.getLogger(TokenVerifier.class);
+    private volatile JWKSet keys = new JWKSet();
+
+    @Value("${auth.jwks.url:${API_AUTH_URL}/auth/jwks}")
+    private String jwksUrl;
+    @Value("${auth.jwks.clock-skew-seconds:30}")
+    private long clockSkewSeconds;
+
+    public TokenVerifier(ApiClient apiClient, RestClient restClient,
+                         @Value("${auth.tokens.cache.ttl-seconds:60}") long ttlSeconds,
+                         @Value("${auth.tokens.cache.max-size:10000}") long maxSize) {
+        this.apiClient = apiClient;
+        this.restClient = restClient;
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.validatedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Instant>() {
+                    @Override
+                    public long expireAfterCreate(String hash, Instant expiration, long currentTime) {
+                        // Compared as durations: a token without exp, or one far away, overflows the nanos
+                        Duration untilExpiration = Duration.between(Instant.now(), expiration);
+                        if (untilExpiration.compareTo(ttl) >= 0) {
+                            return ttl.toNanos();
+                        }
+                        return Math.max(0, untilExpiration.toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String hash, Instant expiration, long currentTime, long currentDuration) {
+                        return expireAfterCreate(hash, expiration, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String hash, Instant expiration, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * This method downloads the key set of the auth service. It runs at startup
+     * and then on a schedule; when the download fails the previous keys are kept.
+     */
+    @Scheduled(fixedDelayString = "${auth.jwks.refresh-ms:300000}")
+    public void refreshKeys() {
+        try {
+            String body = restClient.get().uri(jwksUrl).retrieve().body(String.class);
+            keys = JWKSet.parse(body);
+        } catch (RestClientException | ParseException e) {
+            logger.warn("The key set could not be refreshed from {}: {}", jwksUrl, e.getMessage());
+        }
+    }
+
+    /**
+     * This method checks if the token is valid.
+     * @param token the token of the request.
+     * @return true if the token is valid, false otherwise.
+     */
+    public boolean isValid(String token) {
+        String hash = hash(token);
+        if (validatedTokens.getIfPresent(hash) != null) {
+            return true;
+        }
+        SignedJWT jwt;
+        JWTClaimsSet claims;
+        try {
+            jwt = SignedJWT.parse(token);
+            claims = jwt.getJWTClaimsSet();
+        } catch (ParseException e) {
+            return false;
+        }
+        Verification verification = verifyLocally(jwt, claims);
+        if (verification == Verification.UNKNOWN_KEY) {
+            verification = verifyRemotely(token);
+        }
+        if (verification != Verification.VALID) {
+            return false;
+        }
+        Date expiration = claims.getExpirationTime();
+        validatedTokens.put(hash, expiration == null ? Instant.MAX : expiration.toInstant());
+        return true;
+    }
+
+    private Verification verifyLocally(SignedJWT jwt, JWTClaimsSet claims) {
+        JWSHeader header = jwt.getHeader();
+        List<JWK> candidates = new JWKSelector(JWKMatcher.forJWSHeader(header)).select(keys);
+        if (candidates.isEmpty()) {
+            return Verification.UNKNOWN_KEY;
+        }
+        if (!isCurrent(claims)) {
+            return Verification.INVALID;
+        }
+        DefaultJWSVerifierFactory verifierFactory = new DefaultJWSVerifierFactory();
+        for (JWK candidate : candidates) {
+            try {
+                JWSVerifier verifier = verifierFactory.createJWSVerifier(header, toKey(candidate));
+                if (jwt.verify(verifier)) {
+                    return Verification.VALID;
+                }
+            } catch (JOSEException e) {
+                logger.debug("The key {} could not verify the token: {}", candidate.getKeyID(), e.getMessage());
+            }
+        }
+        return Verification.INVALID;
+    }
+
+    private Verification verifyRemotely(String token) {
+        try {
+            return apiClient.validateToken(token) ? Verification.VALID : Verification.INVALID;
+        } catch (RestClientException e) {
+            return Verification.INVALID;
+        }
+    }
+
+    private boolean isCurrent(JWTClaimsSet claims) {
+        Instant now = Instant.now();
+        Date expiration = claims.getExpirationTime();
+        Date notBefore = claims.getNotBeforeTime();
+        boolean expired = expiration != null && expiration.toInstant().plusSeconds(clockSkewSeconds).isBefore(now);
+        boolean early = notBefore != null && notBefore.toInstant().minusSeconds(clockSkewSeconds).isAfter(now);
+        return !expired && !early;
+    }
+
+    private Key toKey(JWK jwk) throws JOSEException {
+        if (jwk instanceof AsymmetricJWK asymmetric) {
+            return asymmetric.toPublicKey();
+        }
+        if (jwk instanceof SecretJWK secret) {
+            return secret.toSecretKey();
+        }
+        throw new JOSEException("Unsupported key type " + jwk.getKeyType());
+    }
+
+    private String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
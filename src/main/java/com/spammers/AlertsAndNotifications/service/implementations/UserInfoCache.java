@@ -0,0 +1,125 @@
+package com.spammers.AlertsAndNotifications.service.implementations;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.spammers.AlertsAndNotifications.exceptions.SpammersPrivateExceptions;
+import com.spammers.AlertsAndNotifications.model.dto.UserInfo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * This class keeps the user information resolved from the gateway in a bounded
+ * in-process cache. Users that do not exist are cached too, for a shorter time,
+ * so a batch run asks the gateway at most once per student.
+ * @since 17-10-2026
+ * @version 1.0
+ */
+@Component
+public class UserInfoCache implements MeterBinder {
+    private final Cache<String, Optional<UserInfo>> cache;
+
+    public UserInfoCache(@Value("${notifications.users.cache.ttl-seconds:600}") long ttlSeconds,
+                         @Value("${notifications.users.cache.not-found-ttl-seconds:60}") long notFoundTtlSeconds,
+                         @Value("${notifications.users.cache.max-size:10000}") long maxSize) {
+        long ttl = Duration.ofSeconds(ttlSeconds).toNanos();
+        long notFoundTtl = Duration.ofSeconds(notFoundTtlSeconds).toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Optional<UserInfo>>() {
+                    @Override
+                    public long expireAfterCreate(String userId, Optional<UserInfo> userInfo, long currentTime) {
+                        return userInfo.isPresent() ? ttl : notFoundTtl;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String userId, Optional<UserInfo> userInfo, long currentTime, long currentDuration) {
+                        return expireAfterCreate(userId, userInfo, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String userId, Optional<UserInfo> userInfo, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached information of the user, loading it when it is missing.
+     * @param userId the id of the user.
+     * @param loader the function that fetches the user; it throws a 404
+     *               {@link SpammersPrivateExceptions} when the user does not exist.
+     * @return the information of the user.
+     * @throws SpammersPrivateExceptions If the user does not exist.
+     */
+    public UserInfo get(String userId, Function<String, UserInfo> loader) {
+        return cache.get(userId, id -> load(id, loader))
+                .orElseThrow(() -> new SpammersPrivateExceptions(SpammersPrivateExceptions.USER_NOT_FOUND, 404));
+    }
+
+    /**
+     * Returns the cached information of the given users, loading the missing ones
+     * with a single call to the bulk loader.
+     * @param userIds the ids of the users.
+     * @param loader the function that fetches the missing users; an empty value marks
+     *               a user that does not exist, and an absent key a user that could
+     *               not be fetched.
+     * @return the information of the users that exist, by user id.
+     */
+    public Map<String, UserInfo> getAll(Collection<String> userIds,
+                                        Function<Set<? extends String>, Map<String, Optional<UserInfo>>> loader) {
+        Map<String, UserInfo> users = new HashMap<>();
+        cache.getAll(userIds, loader).forEach((userId, userInfo) -> userInfo.ifPresent(info -> users.put(userId, info)));
+        return users;
+    }
+
+    private Optional<UserInfo> load(String userId, Function<String, UserInfo> loader) {
+        try {
+            return Optional.of(loader.apply(userId));
+        } catch (SpammersPrivateExceptions e) {
+            if (e.code == 404) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Removes the user from the cache, so the next lookup goes to the gateway.
+     * @param userId the id of the user.
+     */
+    public void evict(String userId) {
+        cache.invalidate(userId);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Publishes the size, hits, misses and evictions of the cache as the "users" cache.
+     * @param registry the registry of the application.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "users");
+    }
+}
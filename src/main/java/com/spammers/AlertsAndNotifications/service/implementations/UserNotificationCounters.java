@@ -0,0 +1,135 @@
+package com.spammers.AlertsAndNotifications.service.implementations;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spammers.AlertsAndNotifications.model.NotificationModel;
+import com.spammers.AlertsAndNotifications.model.dto.UserNotificationsInformationDTO;
+import com.spammers.AlertsAndNotifications.model.enums.FineStatus;
+import com.spammers.AlertsAndNotifications.repository.UserNotificationCounterRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * This class keeps the badge counters of the users: the unseen notifications and
+ * the pending fines. The operations that change them apply a delta to the counters
+ * row in their own transaction and the badge is read through a short-lived cache,
+ * so polling it does not count rows. A daily job recomputes the counters from the
+ * source tables and repairs any drift.
+ * @since 17-10-2026
+ * @version 1.0
+ */
+@Component
+public class UserNotificationCounters implements MeterBinder {
+    private final UserNotificationCounterRepository counterRepository;
+    private final Cache<String, UserNotificationsInformationDTO> cache;
+    private final Logger logger = LoggerFactory.getLogger(UserNotificationCounters.class);
+
+    public UserNotificationCounters(UserNotificationCounterRepository counterRepository,
+                                    @Value("${notifications.counters.cache.ttl-seconds:30}") long ttlSeconds,
+                                    @Value("${notifications.counters.cache.max-size:10000}") long maxSize) {
+        this.counterRepository = counterRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the counters of the user. A user without a counters row has none.
+     * @param userId the id of the user.
+     * @return the number of unseen notifications and pending fines of the user.
+     */
+    public UserNotificationsInformationDTO get(String userId) {
+        return cache.get(userId, id -> counterRepository.findById(id)
+                .map(counter -> new UserNotificationsInformationDTO(counter.getUnseenNotifications(), counter.getActiveFines()))
+                .orElseGet(() -> new UserNotificationsInformationDTO(0L, 0L)));
+    }
+
+    /**
+     * Adds the deltas to the counters of the user. When a transaction is active the
+     * change commits or rolls back with it and the cached counters are dropped after
+     * the commit, so a concurrent read cannot cache the previous values.
+     * @param userId the id of the user.
+     * @param unseenDelta the change of the unseen notifications.
+     * @param finesDelta the change of the pending fines.
+     */
+    public void adjust(String userId, long unseenDelta, long finesDelta) {
+        if (unseenDelta == 0 && finesDelta == 0) {
+            return;
+        }
+        counterRepository.addToCounters(userId, unseenDelta, finesDelta);
+        evictAfterCommit(userId);
+    }
+
+    /**
+     * Counts the unseen notifications among the saved ones, one delta per user. The
+     * counters are written in the order of the user ids, so concurrent batches that share
+     * users lock their rows in the same order and cannot deadlock.
+     * @param notifications the notifications saved in the current transaction.
+     */
+    public void notificationsSaved(Collection<? extends NotificationModel> notifications) {
+        Map<String, Long> unseenByUser = notifications.stream()
+                .filter(notification -> !notification.isHasBeenSeen())
+                .collect(Collectors.groupingBy(NotificationModel::getStudentId, TreeMap::new, Collectors.counting()));
+        unseenByUser.forEach((userId, unseen) -> adjust(userId, unseen, 0));
+    }
+
+    /**
+     * This method repairs the counters every day, once the fine accrual window is over.
+     */
+    @Scheduled(cron = "${notifications.counters.reconcile-cron:0 0 5 * * *}")
+    private void reconcileCounters() {
+        reconcile();
+    }
+
+    /**
+     * Recomputes the counters from the notifications and fines of the users and
+     * empties the cache.
+     * @return the number of counters that were repaired.
+     */
+    public int reconcile() {
+        int repaired = counterRepository.reconcile(FineStatus.PENDING.ordinal());
+        cache.invalidateAll();
+        if (repaired > 0) {
+            logger.warn("The notification counters of {} users had drifted and were repaired", repaired);
+        }
+        return repaired;
+    }
+
+    private void evictAfterCommit(String userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidate(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.invalidate(userId);
+            }
+        });
+    }
+
+    /**
+     * Publishes the size, hits, misses and evictions of the cache as the "user-counters" cache.
+     * @param registry the registry of the application.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "user-counters");
+    }
+}
@@ -1,9 +1,11 @@
 package com.spammers.AlertsAndNotifications.service.interfaces;
 
+import com.spammers.AlertsAndNotifications.model.dto.CacheStatsDTO;
 import com.spammers.AlertsAndNotifications.model.dto.FineInputDTO;
 import com.spammers.AlertsAndNotifications.model.dto.FineOutputDTO;
 import com.spammers.AlertsAndNotifications.model.dto.LoanDTO;
 import com.spammers.AlertsAndNotifications.model.dto.PaginatedResponseDTO;
+import com.spammers.AlertsAndNotifications.model.dto.SliceResponseDTO;
 
 import java.time.LocalDate;
 
@@ -14,6 +16,9 @@ public interface AdminService {
     void closeFine(String loanId);
     PaginatedResponseDTO<FineOutputDTO> returnAllActiveFines(int pageSize, int pageNumber);
     PaginatedResponseDTO<FineOutputDTO> returnAllActiveFinesBetweenDate(LocalDate date, int pageSize, int pageNumber);
+    SliceResponseDTO<FineOutputDTO> returnActiveFinesSliceBetweenDate(LocalDate date, int pageSize, int pageNumber);
     void setFinesRateDay(float rate);
     float getFinesDayRate();
+    void evictUserInfo(String userId);
+    CacheStatsDTO getUserInfoCacheStats();
 }
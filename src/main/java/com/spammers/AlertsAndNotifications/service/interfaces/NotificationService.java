@@ -2,6 +2,9 @@ package com.spammers.AlertsAndNotifications.service.interfaces;
 
 import com.spammers.AlertsAndNotifications.model.dto.*;
 
+import java.time.LocalDate;
+import java.util.List;
+
 public interface NotificationService {
 
     PaginatedResponseDTO<FineOutputDTO> getFinesByUserId(String userId, int page, int size);
@@ -9,4 +12,6 @@ public interface NotificationService {
 
     UserNotificationsInformationDTO getNumberNotificationsNotSeenByUser(String userId);
     int markNotificationAsSeen(String notificationId);
+    int markAllNotificationsAsSeen(String userId, LocalDate before);
+    int markNotificationsAsSeen(String userId, List<String> notificationIds);
 }
@@ -0,0 +1,4 @@
+-- EmailOutboxRepository.findDueRecipients and lockByRecipient: only the emails waiting for their digest.
+-- Built concurrently so the outbox stays writable while the migration runs.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_email_outbox_held
+    ON email_outbox (recipient, next_attempt_at) WHERE status = 'HELD';
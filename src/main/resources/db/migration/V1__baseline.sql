@@ -0,0 +1,71 @@
+-- Schema created until now by spring.jpa.hibernate.ddl-auto=update.
+-- Existing databases are baselined at V0 and run this script too: it only creates
+-- what they are missing.
+
+CREATE TABLE IF NOT EXISTS loans (
+    loan_id       VARCHAR(255) NOT NULL PRIMARY KEY,
+    user_id       VARCHAR(255) NOT NULL,
+    book_id       VARCHAR(255) NOT NULL,
+    book_name     VARCHAR(255) NOT NULL,
+    loan_date     DATE         NOT NULL,
+    loan_expired  DATE         NOT NULL,
+    status        BOOLEAN      NOT NULL,
+    book_returned BOOLEAN      NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS fines (
+    fine_id           VARCHAR(255) NOT NULL PRIMARY KEY,
+    loan_id           VARCHAR(255) NOT NULL REFERENCES loans,
+    description       VARCHAR(300) NOT NULL,
+    amount            FLOAT4       NOT NULL,
+    expired_date      DATE         NOT NULL,
+    student_name      VARCHAR(255) NOT NULL,
+    guardian_email    VARCHAR(255) NOT NULL,
+    fine_status       SMALLINT     NOT NULL CHECK (fine_status BETWEEN 0 AND 2),
+    fine_type         SMALLINT     NOT NULL CHECK (fine_type BETWEEN 0 AND 1)
+);
+
+-- The day the fine was last charged, so the daily increase runs once per day
+ALTER TABLE fines ADD COLUMN IF NOT EXISTS last_accrual_date DATE;
+
+CREATE TABLE IF NOT EXISTS notifications (
+    id_notification VARCHAR(255) NOT NULL PRIMARY KEY,
+    student_id      VARCHAR(255) NOT NULL,
+    email_guardian  VARCHAR(255) NOT NULL,
+    sent_date       DATE,
+    type            SMALLINT     NOT NULL CHECK (type BETWEEN 0 AND 5),
+    has_been_seen   BOOLEAN      NOT NULL DEFAULT FALSE,
+    book_name       VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS loan_notifications (
+    id_notification VARCHAR(255) NOT NULL PRIMARY KEY REFERENCES notifications,
+    loan_id         VARCHAR(255) NOT NULL REFERENCES loans
+);
+
+CREATE TABLE IF NOT EXISTS fine_notifications (
+    id_notification VARCHAR(255) NOT NULL PRIMARY KEY REFERENCES notifications,
+    fine_id         VARCHAR(255) REFERENCES fines ON DELETE SET NULL
+);
+
+CREATE TABLE IF NOT EXISTS job_cursors (
+    job_name      VARCHAR(255) NOT NULL PRIMARY KEY,
+    run_date      DATE         NOT NULL,
+    last_key_date DATE,
+    last_key_id   VARCHAR(255),
+    completed     BOOLEAN      NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    email_id        VARCHAR(255)   NOT NULL PRIMARY KEY,
+    recipient       VARCHAR(255)   NOT NULL,
+    subject         VARCHAR(255)   NOT NULL,
+    body            VARCHAR(10000) NOT NULL,
+    template        VARCHAR(255) CHECK (template IN ('NOTIFICATION_ALERT', 'FINE_ALERT', 'BOOK_RETURN')),
+    status          VARCHAR(255)   NOT NULL CHECK (status IN ('PENDING', 'SENDING', 'SENT', 'DEAD_LETTER')),
+    attempts        INTEGER        NOT NULL,
+    created_at      TIMESTAMP(6)   NOT NULL,
+    next_attempt_at TIMESTAMP(6)   NOT NULL,
+    sent_at         TIMESTAMP(6),
+    last_error      VARCHAR(500)
+);
@@ -0,0 +1,35 @@
+-- Indexes for the repository query patterns. They are built concurrently so
+-- the tables stay writable while the migration runs.
+
+-- NotificationRepository.findByUserId and getNumberNotificationsNotSeenByUser
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_student_seen
+    ON notifications (student_id, has_been_seen);
+
+-- LoanRepository.findExpiredLoans: only the loans still out and not yet notified, in keyset order
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loans_expired_pending
+    ON loans (loan_expired, loan_id) WHERE book_returned = FALSE AND status = TRUE;
+
+-- LoanRepository.findLoansExpiringInExactlyNDays: the loans still out, in keyset order
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loans_due_unreturned
+    ON loans (loan_expired, loan_id) WHERE book_returned = FALSE;
+
+-- LoanRepository.findByUserId, findLoanByUserAndBookId, findLastLoan, and the
+-- fines of a user (FinesRepository.findByUserId, getNumberActiveFinesByUser)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loans_user_book
+    ON loans (user_id, book_id, loan_date DESC);
+
+-- LoanRepository.findFirstLoanByBookIdAndBookReturned
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loans_book_returned
+    ON loans (book_id, book_returned);
+
+-- Foreign keys: the joins from a loan to its fines and notifications
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_fines_loan
+    ON fines (loan_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loan_notifications_loan
+    ON loan_notifications (loan_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_fine_notifications_fine
+    ON fine_notifications (fine_id);
+
+-- EmailOutboxRepository.findDue: only the emails that are still to be delivered
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_email_outbox_due
+    ON email_outbox (next_attempt_at) WHERE status IN ('PENDING', 'SENDING');
@@ -0,0 +1,4 @@
+-- FinesRepository.findByStatusAndDate and findSliceByStatusAndDate filter a month as a
+-- half-open expired_date range; the daily accrual and findByStatus share the prefix.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_fines_status_expired
+    ON fines (fine_status, expired_date);
@@ -0,0 +1,20 @@
+-- Badge counters read by /notifications/users/count/{userId}. The services apply the
+-- deltas in the transactions that save notifications or open and close fines, and the
+-- reconciliation job repairs any drift. The table starts from the current counts.
+CREATE TABLE IF NOT EXISTS user_notification_counters (
+    user_id              VARCHAR(255) NOT NULL PRIMARY KEY,
+    unseen_notifications BIGINT       NOT NULL,
+    active_fines         BIGINT       NOT NULL,
+    updated_at           TIMESTAMP(6) NOT NULL
+);
+
+INSERT INTO user_notification_counters (user_id, unseen_notifications, active_fines, updated_at)
+SELECT users.user_id, coalesce(unseen.total, 0), coalesce(fines.total, 0), now()
+FROM (SELECT student_id AS user_id FROM notifications WHERE has_been_seen = FALSE
+      UNION
+      SELECT l.user_id FROM fines f JOIN loans l ON l.loan_id = f.loan_id WHERE f.fine_status = 0) users
+LEFT JOIN (SELECT student_id, count(*) AS total FROM notifications
+           WHERE has_been_seen = FALSE GROUP BY student_id) unseen ON unseen.student_id = users.user_id
+LEFT JOIN (SELECT l.user_id, count(*) AS total FROM fines f JOIN loans l ON l.loan_id = f.loan_id
+           WHERE f.fine_status = 0 GROUP BY l.user_id) fines ON fines.user_id = users.user_id
+ON CONFLICT (user_id) DO NOTHING;
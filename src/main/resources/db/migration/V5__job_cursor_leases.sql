@@ -0,0 +1,20 @@
+-- The cursors become the work items of a run: one row per partition of a job, claimed with
+-- FOR UPDATE SKIP LOCKED and leased by the instance that runs it, so the replicas split a
+-- run between them and one that dies leaves its partitions to the others once the lease ends.
+ALTER TABLE job_cursors ADD COLUMN IF NOT EXISTS job VARCHAR(255);
+ALTER TABLE job_cursors ADD COLUMN IF NOT EXISTS partition_index INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE job_cursors ADD COLUMN IF NOT EXISTS partitions INTEGER NOT NULL DEFAULT 1;
+ALTER TABLE job_cursors ADD COLUMN IF NOT EXISTS lease_owner VARCHAR(255);
+ALTER TABLE job_cursors ADD COLUMN IF NOT EXISTS lease_until TIMESTAMP(6);
+
+-- The partitioned cursors of the expired loans are named <job>-<partition>-of-<partitions>
+UPDATE job_cursors
+SET job = substring(job_name FROM '^(.*)-[0-9]+-of-[0-9]+$'),
+    partition_index = substring(job_name FROM '-([0-9]+)-of-[0-9]+$')::INTEGER,
+    partitions = substring(job_name FROM '-of-([0-9]+)$')::INTEGER
+WHERE job IS NULL AND job_name ~ '-[0-9]+-of-[0-9]+$';
+
+-- The single cursors keep their progress as the only partition of their job
+UPDATE job_cursors SET job = job_name, job_name = job_name || '-0-of-1' WHERE job IS NULL;
+
+ALTER TABLE job_cursors ALTER COLUMN job SET NOT NULL;
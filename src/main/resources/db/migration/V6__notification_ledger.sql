@@ -0,0 +1,10 @@
+-- Ledger of the loan notifications sent per day. A batch records its keys with
+-- ON CONFLICT DO NOTHING in the transaction that queues the emails, so a retried or
+-- overlapping run sends only the loans it recorded. The key leads with the date so
+-- the old days are purged by range.
+CREATE TABLE IF NOT EXISTS notification_ledger (
+    notify_date DATE         NOT NULL,
+    type        SMALLINT     NOT NULL,
+    loan_id     VARCHAR(255) NOT NULL,
+    PRIMARY KEY (notify_date, type, loan_id)
+);
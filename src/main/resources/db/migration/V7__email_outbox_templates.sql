@@ -0,0 +1,5 @@
+-- The loan and fine emails have templates of their own
+ALTER TABLE email_outbox DROP CONSTRAINT IF EXISTS email_outbox_template_check;
+ALTER TABLE email_outbox ADD CONSTRAINT email_outbox_template_check CHECK (template IN (
+    'NOTIFICATION_ALERT', 'FINE_ALERT', 'BOOK_RETURN', 'LOAN_CREATED', 'LOAN_EXPIRING', 'LOAN_EXPIRED',
+    'FINE_OPENED', 'FINE_CLOSED'));
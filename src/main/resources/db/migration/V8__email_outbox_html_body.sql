@@ -0,0 +1,2 @@
+-- The templated emails are sent as text and HTML, the HTML part is stored encoded
+ALTER TABLE email_outbox ADD COLUMN html_body BYTEA;
@@ -0,0 +1,12 @@
+-- The digestible emails of a guardian are held until the digest window closes and then
+-- sent together; each keeps the line it takes in the digest
+ALTER TABLE email_outbox ADD COLUMN digest_item VARCHAR(1000);
+
+ALTER TABLE email_outbox DROP CONSTRAINT IF EXISTS email_outbox_status_check;
+ALTER TABLE email_outbox ADD CONSTRAINT email_outbox_status_check CHECK (status IN (
+    'PENDING', 'SENDING', 'SENT', 'DEAD_LETTER', 'HELD', 'MERGED'));
+
+ALTER TABLE email_outbox DROP CONSTRAINT IF EXISTS email_outbox_template_check;
+ALTER TABLE email_outbox ADD CONSTRAINT email_outbox_template_check CHECK (template IN (
+    'NOTIFICATION_ALERT', 'FINE_ALERT', 'BOOK_RETURN', 'LOAN_CREATED', 'LOAN_EXPIRING', 'LOAN_EXPIRED',
+    'FINE_OPENED', 'FINE_CLOSED', 'DIGEST'));
@@ -0,0 +1,173 @@
+package com.spammers.AlertsAndNotifications;
+
+import com.spammers.AlertsAndNotifications.model.JobCursorModel;
+import com.spammers.AlertsAndNotifications.service.implementations.FineDailyIncrease;
+import com.spammers.AlertsAndNotifications.service.implementations.JobCursorManager;
+import com.spammers.AlertsAndNotifications.service.implementations.LoanExpiredNotification;
+import com.spammers.AlertsAndNotifications.service.implementations.TokenHolder;
+import com.sun.net.httpserver.HttpServer;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the scheduled jobs on two instances of the service against one database, as
+ * two replicas do, and checks that they split the runs without repeating any work.
+ */
+class ReplicaJobLeasingTest {
+    private static final int LOANS = 120;
+    private static final int FINES = 300;
+    private static final String POLL_DELAY = "notifications.email.poll-delay-ms";
+
+    private static EmbeddedPostgres postgres;
+    private static HttpServer gateway;
+    private static ConfigurableApplicationContext first;
+    private static ConfigurableApplicationContext second;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void startReplicas() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        gateway = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        gateway.createContext("/find/student/", exchange -> {
+            String userId = exchange.getRequestURI().getPath().substring("/find/student/".length());
+            byte[] body = ("{\"studentName\":\"Student\",\"responsibleName\":\"Guardian\",\"responsibleEmail\":\""
+                    + userId + "@email.com\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        gateway.start();
+        // The outbox is not under test, the dispatcher only polls once at startup
+        System.setProperty(POLL_DELAY, "3600000");
+        first = startReplica();
+        second = startReplica();
+        jdbcTemplate = first.getBean(JdbcTemplate.class);
+    }
+
+    private static ConfigurableApplicationContext startReplica() {
+        String url = postgres.getJdbcUrl("postgres", "postgres");
+        String gatewayUrl = "http://localhost:" + gateway.getAddress().getPort();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class).properties(
+                "DATABASE_URL=" + url, "DATABASE_USERNAME=postgres", "DATABASE_PASSWORD=",
+                "API_GATEWAY_URL=" + gatewayUrl, "API_AUTH_URL=" + gatewayUrl, "API_USERNAME=user", "API_PASSWORD=password",
+                "CORREO=notifications@email.com", "CORREO_PASSWORD=password", "server.port=0").run();
+        context.getBean(TokenHolder.class).setToken("token");
+        return context;
+    }
+
+    @AfterAll
+    static void stopReplicas() throws IOException {
+        first.close();
+        second.close();
+        gateway.stop(0);
+        postgres.close();
+        System.clearProperty(POLL_DELAY);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE job_cursors, email_outbox, user_notification_counters, fine_notifications, " +
+                "loan_notifications, notifications, fines, loans CASCADE");
+        jdbcTemplate.update("""
+                INSERT INTO loans (loan_id, user_id, book_id, book_name, loan_date, loan_expired, status, book_returned)
+                SELECT 'loan-' || i, 'user-' || (i % 40), 'book-' || i, 'Book ' || i,
+                       current_date - 20 - (i % 5), current_date - 1 - (i % 5), TRUE, FALSE
+                FROM generate_series(0, ? - 1) i""", LOANS);
+    }
+
+    @Test
+    void testReplicasSplitTheExpiredLoansRun() {
+        runOnBoth(replica -> replica.getBean(LoanExpiredNotification.class).processAll());
+
+        assertEquals(LOANS, count("SELECT count(*) FROM loan_notifications"));
+        assertEquals(LOANS, count("SELECT count(DISTINCT loan_id) FROM loan_notifications"));
+        assertEquals(LOANS, count("SELECT count(*) FROM email_outbox"));
+        assertEquals(0, count("SELECT count(*) FROM loans WHERE status"));
+        assertEquals(0, count("SELECT count(*) FROM job_cursors WHERE job = 'loan-expired' AND NOT completed"));
+    }
+
+    @Test
+    void testOnlyOneReplicaChargesTheFines() {
+        jdbcTemplate.update("""
+                INSERT INTO fines (fine_id, loan_id, description, amount, expired_date, student_name, guardian_email,
+                                   fine_status, fine_type)
+                SELECT 'fine-' || i, 'loan-' || (i % ?), 'Fine ' || i, 800, current_date - (i % 10),
+                       'Student', 'guardian@email.com', 0, 0
+                FROM generate_series(0, ? - 1) i""", LOANS, FINES);
+
+        runOnBoth(replica -> replica.getBean(FineDailyIncrease.class).processFines());
+
+        assertEquals(FINES, count("SELECT count(*) FROM fines WHERE amount = 1600 AND last_accrual_date = current_date"));
+        assertEquals(1, count("SELECT count(*) FROM job_cursors WHERE job = 'fine-daily-increase' AND completed"));
+    }
+
+    @Test
+    void testPartitionOfAStoppedReplicaIsResumedWhenItsLeaseEnds() {
+        int partitions = first.getEnvironment().getProperty("notifications.jobs.loan-expired.partitions", Integer.class);
+        JobCursorManager stopped = first.getBean(JobCursorManager.class);
+        stopped.prepare(LoanExpiredNotification.JOB_NAME, partitions);
+        JobCursorModel held = stopped.claim(LoanExpiredNotification.JOB_NAME, partitions).orElseThrow();
+        LoanExpiredNotification running = second.getBean(LoanExpiredNotification.class);
+
+        int beforeLeaseEnds = running.processAll();
+        jdbcTemplate.update("UPDATE job_cursors SET lease_until = now() - INTERVAL '1 second' WHERE job_name = ?",
+                held.getJobName());
+        int afterLeaseEnds = running.processAll();
+
+        assertTrue(beforeLeaseEnds < LOANS);
+        assertEquals(LOANS, beforeLeaseEnds + afterLeaseEnds);
+        assertEquals(LOANS, count("SELECT count(DISTINCT loan_id) FROM loan_notifications"));
+        assertThrows(IllegalStateException.class,
+                () -> stopped.advance(held, LocalDate.now(), "loan-0"));
+    }
+
+    @Test
+    void testStaleClaimOfTheSameReplicaCannotMoveThePartition() {
+        int partitions = first.getEnvironment().getProperty("notifications.jobs.loan-expired.partitions", Integer.class);
+        JobCursorManager manager = first.getBean(JobCursorManager.class);
+        manager.prepare(LoanExpiredNotification.JOB_NAME, partitions);
+        JobCursorModel stale = manager.claim(LoanExpiredNotification.JOB_NAME, partitions).orElseThrow();
+        jdbcTemplate.update("UPDATE job_cursors SET lease_until = now() - INTERVAL '1 second' WHERE job_name = ?",
+                stale.getJobName());
+        JobCursorModel current = manager.claim(LoanExpiredNotification.JOB_NAME, partitions).orElseThrow();
+
+        manager.advance(current, LocalDate.now(), "loan-50");
+
+        assertEquals(stale.getJobName(), current.getJobName());
+        assertThrows(IllegalStateException.class, () -> manager.advance(stale, LocalDate.now(), "loan-10"));
+        assertThrows(IllegalStateException.class, () -> manager.complete(stale));
+        manager.release(stale);
+        assertEquals("loan-50", jdbcTemplate.queryForObject(
+                "SELECT last_key_id FROM job_cursors WHERE job_name = ?", String.class, current.getJobName()));
+        assertEquals(current.getLeaseOwner(), jdbcTemplate.queryForObject(
+                "SELECT lease_owner FROM job_cursors WHERE job_name = ?", String.class, current.getJobName()));
+    }
+
+    private void runOnBoth(Function<ConfigurableApplicationContext, Integer> job) {
+        List<CompletableFuture<Integer>> runs = List.of(
+                CompletableFuture.supplyAsync(() -> job.apply(first)),
+                CompletableFuture.supplyAsync(() -> job.apply(second)));
+        runs.forEach(CompletableFuture::join);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
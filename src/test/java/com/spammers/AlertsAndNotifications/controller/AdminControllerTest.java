@@ -1,10 +1,12 @@
 package com.spammers.AlertsAndNotifications.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spammers.AlertsAndNotifications.model.dto.CacheStatsDTO;
 import com.spammers.AlertsAndNotifications.model.dto.FineInputDTO;
 import com.spammers.AlertsAndNotifications.model.dto.FineOutputDTO;
 import com.spammers.AlertsAndNotifications.model.dto.LoanDTO;
 import com.spammers.AlertsAndNotifications.model.dto.PaginatedResponseDTO;
+import com.spammers.AlertsAndNotifications.model.dto.SliceResponseDTO;
 import com.spammers.AlertsAndNotifications.service.interfaces.AdminService;
 import com.spammers.AlertsAndNotifications.service.interfaces.NotificationService;
 import org.junit.jupiter.api.BeforeEach;
@@ -99,6 +101,23 @@ class AdminControllerTest {
         verify(adminService).returnAllActiveFinesBetweenDate(eq(testDate), eq(size), eq(page));
     }
 
+    @Test
+    void testGetPendingFinesSliceByDate_Success() throws Exception {
+        LocalDate testDate = LocalDate.of(2024, 1, 15);
+        FineOutputDTO fineDto = new FineOutputDTO();
+        fineDto.setFineId("fine1");
+        when(adminService.returnActiveFinesSliceBetweenDate(eq(testDate), eq(10), eq(0)))
+                .thenReturn(new SliceResponseDTO<>(List.of(fineDto), 0, true));
+
+        mockMvc.perform(get("/notifications/admin/fines/pending-by-date/slice")
+                        .param("date", testDate.toString())
+                        .param("page", "0")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].fineId").value("fine1"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
     @Test
     void testGetPendingFines_Success() throws Exception {
         int page = 0;
@@ -234,4 +253,23 @@ class AdminControllerTest {
                 .andExpect(content().string(String.valueOf(defaultRate)));
         verify(adminService).getFinesDayRate();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testEvictUserInfo_Success() throws Exception {
+        mockMvc.perform(delete("/notifications/admin/cache/users/{userId}", "user123"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("User Evicted"));
+        verify(adminService).evictUserInfo("user123");
+    }
+
+    @Test
+    void testGetUserInfoCacheStats_Success() throws Exception {
+        when(adminService.getUserInfoCacheStats()).thenReturn(new CacheStatsDTO(3, 8, 2, 1, 0.8));
+        mockMvc.perform(get("/notifications/admin/cache/users/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(3))
+                .andExpect(jsonPath("$.hitCount").value(8))
+                .andExpect(jsonPath("$.missCount").value(2))
+                .andExpect(jsonPath("$.evictionCount").value(1));
+    }
+}
@@ -137,5 +137,23 @@ class SpammersControllerTest {
                 .andExpect(jsonPath("$").value(changedNotifications));
     }
 
+    @Test
+    void test_markAllNotificationsAsSeen_BeforeDate() throws Exception {
+        LocalDate before = LocalDate.of(2026, 10, 1);
+        when(notificationService.markAllNotificationsAsSeen("user123", before)).thenReturn(4);
+        mockMvc.perform(put("/notifications/users/{userId}/mark-seen", "user123").param("before", "2026-10-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(4));
+    }
 
-}
\ No newline at end of file
+    @Test
+    void test_markNotificationsAsSeen_Batch() throws Exception {
+        MarkSeenRequestDTO request = new MarkSeenRequestDTO(List.of("notification1", "notification2"));
+        when(notificationService.markNotificationsAsSeen("user123", request.getNotificationIds())).thenReturn(2);
+        mockMvc.perform(put("/notifications/users/{userId}/mark-seen/batch", "user123")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(2));
+    }
+}
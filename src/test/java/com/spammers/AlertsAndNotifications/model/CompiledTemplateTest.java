@@ -0,0 +1,66 @@
+package com.spammers.AlertsAndNotifications.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledTemplateTest {
+
+    @Test
+    void testRenderFillsThePlaceholdersByName() {
+        CompiledTemplate template = CompiledTemplate.compile("{b} then {a}, {b} again", List.of("a", "b"));
+
+        assertEquals("2 then 1, 2 again", template.render(1, 2));
+    }
+
+    @Test
+    void testRenderKeepsBracesThatAreNotPlaceholders() {
+        CompiledTemplate template = CompiledTemplate.compile("{} {a b} {{a}} {a", List.of("a"));
+
+        assertEquals("{} {a b} {x} {a", template.render("x"));
+    }
+
+    @Test
+    void testRenderWritesValuesAsStringValueOf() {
+        CompiledTemplate template = CompiledTemplate.compile("{amount} {missing}", List.of("amount", "missing"));
+
+        assertEquals("800.0 null", template.render(800f, null));
+    }
+
+    @Test
+    void testRenderToAppendsToTheBuilder() {
+        CompiledTemplate template = CompiledTemplate.compile("Hola {name}.", List.of("name"));
+        StringBuilder builder = new StringBuilder("> ");
+
+        template.renderTo(builder, "Maria");
+
+        assertEquals("> Hola Maria.", builder.toString());
+    }
+
+    @Test
+    void testCompileRejectsUnknownPlaceholders() {
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile("Hola {nmae}", List.of("name")));
+    }
+
+    @Test
+    void testRenderHtmlEscapesTheTextAndTheValues() {
+        CompiledTemplate template = CompiledTemplate.compile("<Hola> {name} & co.\nAdiós", List.of("name"));
+        byte[] head = "<p>".getBytes(StandardCharsets.UTF_8);
+        byte[] foot = "</p>".getBytes(StandardCharsets.UTF_8);
+
+        byte[] html = template.renderHtml(head, foot, "Maria \"<b>\"\nPerez");
+
+        assertEquals("<p>&lt;Hola&gt; Maria &quot;&lt;b&gt;&quot;<br>\nPerez &amp; co.<br>\nAdiós</p>",
+                new String(html, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testRenderHtmlChecksTheNumberOfValues() {
+        CompiledTemplate template = CompiledTemplate.compile("{a}", List.of("a"));
+
+        assertThrows(IllegalArgumentException.class, () -> template.renderHtml(new byte[0], new byte[0]));
+    }
+}
@@ -0,0 +1,36 @@
+package com.spammers.AlertsAndNotifications.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    void testNextIsVersion7WithTheCurrentTime() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UUID.fromString(UuidV7Generator.next());
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertTrue(uuid.getMostSignificantBits() >>> 16 >= before);
+    }
+
+    @Test
+    void testNextSortsInCreationOrder() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            ids.add(UuidV7Generator.next());
+        }
+
+        List<String> sorted = new ArrayList<>(ids);
+        sorted.sort(null);
+        assertEquals(sorted, ids);
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+    }
+}
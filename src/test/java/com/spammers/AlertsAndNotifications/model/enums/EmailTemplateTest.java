@@ -3,6 +3,10 @@ package com.spammers.AlertsAndNotifications.model.enums;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 @ActiveProfiles("test")
 class EmailTemplateTest {
@@ -20,7 +24,7 @@ class EmailTemplateTest {
         Hola!,
                 
         Tienes una nueva notificación:
-        %s
+        {message}
                 
         Para más detalles, ingresa a tu cuenta.
                 
@@ -37,10 +41,10 @@ class EmailTemplateTest {
         String expectedTemplate = """
         Hola!,
                         
-        %s
-        Monto: %s
-        Fecha: %s
-        Descripción: %s
+        {header}
+        Monto: {amount}
+        Fecha: {date}
+        Descripción: {description}
                         
         Por favor, revisa los detalles en tu cuenta.
                         
@@ -54,10 +58,10 @@ class EmailTemplateTest {
     @Test
     void getTemplatedBookReturn(){
         String expectedTemplate= """
-            Buen día, %s:
+            Buen día, {guardianName}:
             
-            Le informamos que el estudiante %s ha realizado la devolución del libro %s que tomó prestado el día %s.
-            %s%s
+            Le informamos que el estudiante {studentName} ha realizado la devolución del libro {bookName} que tomó prestado el día {loanDate}.
+            {delayMessage}{conditionMessage}
     
             Gracias,
             Cordial saludo.
@@ -137,4 +141,84 @@ class EmailTemplateTest {
         assertEquals(expectedMessage, EmailTemplate.BOOK_RETURN.formatBody(guardianName,studentName,book,loanDate,delayMessage,conditionMessage));
     }
 
-}
\ No newline at end of file
+
+    @Test
+    void getFormatBodyFineOpened() {
+        String expectedMessage = """
+        Hola!,
+                
+        Maria Perez
+        Te informamos que se ha registrado una nueva multa:\s
+        Monto: 800.0
+        Fecha: 2024-11-21
+        Descripción: Material dañado
+        Al estudiante Juan Perez por el libro Cien años de soledad.
+                
+        Por favor, revisa los detalles en tu cuenta.
+                
+        Atentamente,
+        El equipo de BibloSoft.
+        
+        Este es un mensaje automático. No responder a este mensaje.
+        """;
+        assertEquals(expectedMessage, EmailTemplate.FINE_OPENED.formatBody("Maria Perez", 800f,
+                LocalDate.of(2024, 11, 21), "Material dañado", "Juan Perez", "Cien años de soledad"));
+        assertEquals(EmailTemplate.FINE_ALERT.getSubject(), EmailTemplate.FINE_OPENED.getSubject());
+    }
+
+    @Test
+    void getFormatBodyLoanExpired() {
+        String expectedMessage = "Buen día, Maria Perez\n" +
+                "Nos permitimos informar que su representado, Juan Perez, tomó prestado el libro  Cien años de soledad, " +
+                "el día 01/10/2026 y, a la fecha, este aún no ha sido devuelto. Agradecemos que gestione su entrega " +
+                "a la mayor brevedad posible.\n" +
+                "Quedamos atentos a su pronta respuesta.\n" +
+                "Gracias por su atención.\n" +
+                "Cordial saludo.\n" +
+                "Este es el gestor de notificaciones de BibloSoft.\n" +
+                "No responder a esta cuenta de correo ya que es enviada por un motor de notificaciones automáticas.";
+        assertEquals(expectedMessage, EmailTemplate.LOAN_EXPIRED.formatBody("Maria Perez", "Juan Perez",
+                "Cien años de soledad", "01/10/2026"));
+    }
+
+    @Test
+    void getFormatBodyReusesTheBuffer() {
+        StringBuilder buffer = new StringBuilder();
+        EmailTemplate.LOAN_EXPIRING.formatBody(buffer, "Maria Perez", "Juan Perez", "Cien años de soledad");
+
+        String body = EmailTemplate.LOAN_EXPIRING.formatBody(buffer, "Ana Gomez", "Luis Gomez", "Rayuela");
+
+        assertEquals(EmailTemplate.LOAN_EXPIRING.formatBody("Ana Gomez", "Luis Gomez", "Rayuela"), body);
+        assertTrue(body.contains("Ana Gomez, te informamos que el estudiante: Luis Gomez tiene 3 dias para devolver el libro Rayuela de"));
+        assertEquals(body, buffer.toString());
+    }
+
+    @Test
+    void getFormatBodyRejectsMissingArguments() {
+        assertEquals(List.of("guardianName", "studentName", "bookName", "returnDate"), EmailTemplate.LOAN_CREATED.getParameters());
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.LOAN_CREATED.formatBody("Maria Perez"));
+    }
+
+    @Test
+    void getFormatHtmlFramesTheBodyInTheLayout() {
+        String html = new String(EmailTemplate.LOAN_EXPIRING.formatHtml("Maria Perez", "Juan <Perez>", "Rayuela"),
+                StandardCharsets.UTF_8);
+
+        assertTrue(html.startsWith("<!DOCTYPE html>"));
+        assertTrue(html.contains("<title>Nueva Notificación - BibloSoft.</title>"));
+        assertTrue(html.contains("Maria Perez, te informamos que el estudiante: Juan &lt;Perez&gt; tiene 3 dias"));
+        assertTrue(html.contains("Tienes una nueva notificación:<br>"));
+        assertTrue(html.endsWith("</html>\n"));
+    }
+
+    @Test
+    void getFormatDigestItemOnlyForTheLoanAndFineNotices() {
+        assertEquals("Juan Perez tiene 3 dias para devolver el libro Rayuela.",
+                EmailTemplate.LOAN_EXPIRING.formatDigestItem("Maria Perez", "Juan Perez", "Rayuela"));
+        assertTrue(EmailTemplate.LOAN_EXPIRED.isDigestible());
+        assertTrue(EmailTemplate.FINE_OPENED.isDigestible());
+        assertFalse(EmailTemplate.LOAN_CREATED.isDigestible());
+        assertFalse(EmailTemplate.DIGEST.isDigestible());
+        assertThrows(IllegalStateException.class, () -> EmailTemplate.BOOK_RETURN.formatDigestItem());
+    }
+}
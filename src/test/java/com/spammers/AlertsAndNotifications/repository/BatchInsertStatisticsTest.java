@@ -0,0 +1,68 @@
+package com.spammers.AlertsAndNotifications.repository;
+
+import com.spammers.AlertsAndNotifications.model.LoanModel;
+import com.spammers.AlertsAndNotifications.model.LoanNotification;
+import com.spammers.AlertsAndNotifications.model.enums.NotificationType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the inserts of a flush are sent as JDBC batches, one per table,
+ * instead of one statement per row.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfiguration.class)
+class BatchInsertStatisticsTest {
+    private static final int LOANS = 15;
+
+    @Autowired
+    private LoanRepository loanRepository;
+    @Autowired
+    private NotificationRepository notificationRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testSaveAllBatchesTheInsertsOfEachTable() {
+        LocalDate today = LocalDate.now();
+        List<LoanModel> loans = new ArrayList<>();
+        List<LoanNotification> notifications = new ArrayList<>();
+        for (int i = 0; i < LOANS; i++) {
+            LoanModel loan = new LoanModel("user-" + i, "book-" + i, today.minusDays(20), "Book " + i, today.minusDays(1), true);
+            loans.add(loan);
+            notifications.add(new LoanNotification(loan.getUserId(), "guardian@email.com", today,
+                    NotificationType.BOOK_LOAN_EXPIRED, loan, false, loan.getBookName()));
+        }
+
+        loanRepository.saveAll(loans);
+        notificationRepository.saveAll(notifications);
+        entityManager.flush();
+
+        assertEquals(2 * LOANS, statistics.getEntityInsertCount());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,122 @@
+package com.spammers.AlertsAndNotifications.repository;
+
+import com.spammers.AlertsAndNotifications.model.EmailOutboxModel;
+import com.spammers.AlertsAndNotifications.model.enums.EmailStatus;
+import com.spammers.AlertsAndNotifications.model.enums.EmailTemplate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the due emails are claimed in one statement, with their attempt counted,
+ * and that the outcomes of a worker are recorded only while it holds the lease.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfiguration.class)
+class EmailOutboxClaimTest {
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    private final LocalDateTime leaseUntil = now.plusMinutes(5);
+
+    private EmailOutboxModel email(EmailStatus status, LocalDateTime nextAttemptAt, int attempts) {
+        EmailOutboxModel email = new EmailOutboxModel("guardian@email.com", "Subject", "Body", EmailTemplate.LOAN_EXPIRED);
+        email.setStatus(status);
+        email.setNextAttemptAt(nextAttemptAt);
+        email.setAttempts(attempts);
+        return entityManager.persist(email);
+    }
+
+    private EmailOutboxModel reload(EmailOutboxModel email) {
+        return entityManager.find(EmailOutboxModel.class, email.getEmailId());
+    }
+
+    @Test
+    void testClaimDueTakesThePendingAndTheAbandonedEmails() {
+        EmailOutboxModel pending = email(EmailStatus.PENDING, now.minusMinutes(1), 0);
+        EmailOutboxModel abandoned = email(EmailStatus.SENDING, now.minusMinutes(2), 1);
+        email(EmailStatus.PENDING, now.plusMinutes(1), 0);
+        email(EmailStatus.SENDING, now.plusMinutes(1), 1);
+        email(EmailStatus.SENDING, now.minusMinutes(1), MAX_ATTEMPTS);
+        email(EmailStatus.SENT, now.minusMinutes(1), 1);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<EmailOutboxModel> claimed = emailOutboxRepository.claimDue(now, leaseUntil, MAX_ATTEMPTS, 10);
+
+        assertEquals(Set.of(abandoned.getEmailId(), pending.getEmailId()),
+                claimed.stream().map(EmailOutboxModel::getEmailId).collect(Collectors.toSet()));
+        claimed.forEach(email -> {
+            assertEquals(EmailStatus.SENDING, email.getStatus());
+            assertEquals(leaseUntil, email.getNextAttemptAt());
+        });
+        entityManager.clear();
+        assertEquals(1, reload(pending).getAttempts());
+        assertEquals(2, reload(abandoned).getAttempts());
+    }
+
+    @Test
+    void testClaimDueTakesTheOldestFirstUpToTheLimit() {
+        EmailOutboxModel oldest = email(EmailStatus.PENDING, now.minusMinutes(3), 0);
+        email(EmailStatus.PENDING, now.minusMinutes(1), 0);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<EmailOutboxModel> claimed = emailOutboxRepository.claimDue(now, leaseUntil, MAX_ATTEMPTS, 1);
+
+        assertEquals(List.of(oldest.getEmailId()), claimed.stream().map(EmailOutboxModel::getEmailId).toList());
+    }
+
+    @Test
+    void testAbandonExhaustedMovesTheSpentEmailsToDeadLetter() {
+        EmailOutboxModel spent = email(EmailStatus.SENDING, now.minusMinutes(1), MAX_ATTEMPTS);
+        EmailOutboxModel leased = email(EmailStatus.SENDING, now.plusMinutes(1), MAX_ATTEMPTS);
+        entityManager.flush();
+
+        int abandoned = emailOutboxRepository.abandonExhausted(List.of(EmailStatus.PENDING, EmailStatus.SENDING),
+                EmailStatus.DEAD_LETTER, now, MAX_ATTEMPTS, "stopped");
+        entityManager.clear();
+
+        assertEquals(1, abandoned);
+        assertEquals(EmailStatus.DEAD_LETTER, reload(spent).getStatus());
+        assertEquals("stopped", reload(spent).getLastError());
+        assertEquals(EmailStatus.SENDING, reload(leased).getStatus());
+    }
+
+    @Test
+    void testOutcomesAreRecordedOnlyUnderTheSameLease() {
+        EmailOutboxModel held = email(EmailStatus.SENDING, leaseUntil, 1);
+        EmailOutboxModel claimedAgain = email(EmailStatus.SENDING, leaseUntil.plusMinutes(1), 2);
+        EmailOutboxModel deferred = email(EmailStatus.SENDING, leaseUntil, 1);
+        entityManager.flush();
+
+        int sent = emailOutboxRepository.markSent(List.of(held.getEmailId(), claimedAgain.getEmailId()),
+                EmailStatus.SENDING, EmailStatus.SENT, leaseUntil, now);
+        int given = emailOutboxRepository.defer(List.of(deferred.getEmailId()), EmailStatus.SENDING,
+                EmailStatus.PENDING, leaseUntil, now);
+        entityManager.clear();
+
+        assertEquals(1, sent);
+        assertEquals(1, given);
+        assertEquals(EmailStatus.SENT, reload(held).getStatus());
+        assertEquals(EmailStatus.SENDING, reload(claimedAgain).getStatus());
+        assertEquals(EmailStatus.PENDING, reload(deferred).getStatus());
+        assertEquals(0, reload(deferred).getAttempts());
+    }
+}
@@ -0,0 +1,68 @@
+package com.spammers.AlertsAndNotifications.repository;
+
+import com.spammers.AlertsAndNotifications.model.EmailOutboxModel;
+import com.spammers.AlertsAndNotifications.model.enums.EmailStatus;
+import com.spammers.AlertsAndNotifications.model.enums.EmailTemplate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the held emails are found by recipient once their digest window has
+ * closed, and that all the held emails of the recipient are then taken, oldest first.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfiguration.class)
+class EmailOutboxDigestTest {
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    private final LocalDateTime now = LocalDateTime.now();
+
+    private EmailOutboxModel email(String recipient, EmailStatus status, LocalDateTime createdAt, int windowMinutes) {
+        EmailOutboxModel email = new EmailOutboxModel(recipient, "Subject", "Body", EmailTemplate.LOAN_EXPIRED);
+        email.setStatus(status);
+        email.setDigestItem("Item " + recipient);
+        email.setCreatedAt(createdAt);
+        email.setNextAttemptAt(createdAt.plusMinutes(windowMinutes));
+        return entityManager.persist(email);
+    }
+
+    @Test
+    void testFindDueRecipientsOnceTheWindowCloses() {
+        email("due@email.com", EmailStatus.HELD, now.minusMinutes(70), 60);
+        email("due@email.com", EmailStatus.HELD, now.minusMinutes(65), 60);
+        email("open@email.com", EmailStatus.HELD, now.minusMinutes(10), 60);
+        email("pending@email.com", EmailStatus.PENDING, now.minusMinutes(70), 0);
+        entityManager.flush();
+
+        assertEquals(List.of("due@email.com"),
+                emailOutboxRepository.findDueRecipients(EmailStatus.HELD, now, PageRequest.ofSize(10)));
+    }
+
+    @Test
+    void testLockByRecipientTakesTheHeldEmailsOldestFirst() {
+        EmailOutboxModel first = email("due@email.com", EmailStatus.HELD, now.minusMinutes(70), 60);
+        EmailOutboxModel last = email("due@email.com", EmailStatus.HELD, now.minusMinutes(5), 60);
+        email("due@email.com", EmailStatus.MERGED, now.minusMinutes(200), 60);
+        email("other@email.com", EmailStatus.HELD, now.minusMinutes(70), 60);
+        entityManager.flush();
+
+        List<EmailOutboxModel> held = emailOutboxRepository.lockByRecipient("due@email.com", EmailStatus.HELD,
+                PageRequest.ofSize(10));
+
+        assertEquals(List.of(first.getEmailId(), last.getEmailId()), held.stream().map(EmailOutboxModel::getEmailId).toList());
+    }
+}
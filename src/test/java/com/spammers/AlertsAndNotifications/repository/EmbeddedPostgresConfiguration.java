@@ -0,0 +1,26 @@
+package com.spammers.AlertsAndNotifications.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+/**
+ * Data source of the repository tests: an embedded PostgreSQL that Flyway migrates
+ * like the production database, so the native and projection queries run for real.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+class EmbeddedPostgresConfiguration {
+
+    @Bean(destroyMethod = "close")
+    EmbeddedPostgres embeddedPostgres() throws IOException {
+        return EmbeddedPostgres.start();
+    }
+
+    @Bean
+    DataSource dataSource(EmbeddedPostgres embeddedPostgres) {
+        return embeddedPostgres.getPostgresDatabase();
+    }
+}
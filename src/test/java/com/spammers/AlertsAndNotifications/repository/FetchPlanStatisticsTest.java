@@ -0,0 +1,125 @@
+package com.spammers.AlertsAndNotifications.repository;
+
+import com.spammers.AlertsAndNotifications.model.FineModel;
+import com.spammers.AlertsAndNotifications.model.FineNotification;
+import com.spammers.AlertsAndNotifications.model.JobCursorModel;
+import com.spammers.AlertsAndNotifications.model.LoanModel;
+import com.spammers.AlertsAndNotifications.model.LoanNotification;
+import com.spammers.AlertsAndNotifications.model.NotificationModel;
+import com.spammers.AlertsAndNotifications.model.enums.FineStatus;
+import com.spammers.AlertsAndNotifications.model.enums.FineType;
+import com.spammers.AlertsAndNotifications.model.enums.NotificationType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the fetch plan of the entity queries against N+1 regressions. Every fine and
+ * notification references its own loan, so an eager or lazily touched association
+ * shows up as one extra statement per row.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfiguration.class)
+class FetchPlanStatisticsTest {
+    private static final int LOANS = 10;
+
+    @Autowired
+    private FinesRepository finesRepository;
+    @Autowired
+    private LoanRepository loanRepository;
+    @Autowired
+    private NotificationRepository notificationRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private final LocalDate today = LocalDate.now();
+    private String fineId;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < LOANS; i++) {
+            LoanModel loan = new LoanModel("user-" + i, "book-" + i, today.minusDays(20), "Book " + i, today.minusDays(5), true);
+            entityManager.persist(loan);
+            FineModel fine = FineModel.builder().loan(loan).description("Fine " + i).amount(800f)
+                    .expiredDate(today).studentName("Student").guardianEmail("guardian@email.com")
+                    .fineStatus(FineStatus.PENDING).fineType(FineType.RETARDMENT).build();
+            entityManager.persist(fine);
+            entityManager.persist(new LoanNotification(loan.getUserId(), "guardian@email.com", today,
+                    NotificationType.BOOK_LOAN, loan, false, loan.getBookName()));
+            entityManager.persist(new FineNotification(loan.getUserId(), "guardian@email.com", today,
+                    NotificationType.FINE, fine, false, loan.getBookName()));
+            fineId = fine.getFineId();
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testFindByIdDoesNotLoadTheLoan() {
+        FineModel fine = finesRepository.findById(fineId).orElseThrow();
+
+        assertFalse(Hibernate.isInitialized(fine.getLoan()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testFindWithLoanByFineIdFetchesTheLoanInTheSameSelect() {
+        FineModel fine = finesRepository.findWithLoanByFineId(fineId).orElseThrow();
+
+        assertTrue(Hibernate.isInitialized(fine.getLoan()));
+        assertEquals("Book 9", fine.getLoan().getBookName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    void testNotificationsDoNotLoadLoansOrFines() {
+        List<NotificationModel> notifications = notificationRepository.findAll();
+
+        assertEquals(2 * LOANS, notifications.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(2 * LOANS, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testExpiredLoansBatchIsOneStatement() {
+        List<LoanModel> loans = loanRepository.findExpiredLoans(today, JobCursorModel.START_DATE,
+                JobCursorModel.START_ID, 1, 0, PageRequest.ofSize(LOANS));
+
+        assertEquals(LOANS, loans.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    void testReturnBookReadsAndUpdatesOnlyTheLoan() {
+        LoanModel loan = loanRepository.findFirstLoanByBookIdAndBookReturned("book-3", false).orElseThrow();
+        loan.setBookReturned(true);
+        loanRepository.save(loan);
+        entityManager.flush();
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+}
@@ -0,0 +1,93 @@
+package com.spammers.AlertsAndNotifications.repository;
+
+import com.spammers.AlertsAndNotifications.model.FineModel;
+import com.spammers.AlertsAndNotifications.model.LoanModel;
+import com.spammers.AlertsAndNotifications.model.dto.FineOutputDTO;
+import com.spammers.AlertsAndNotifications.model.enums.FineStatus;
+import com.spammers.AlertsAndNotifications.model.enums.FineType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the statements of a page of fines. Every fine belongs to its own loan, so
+ * loading the entities would add a select per loan and per loan collection.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfiguration.class)
+class FineProjectionStatisticsTest {
+    private static final int FINES = 12;
+    private static final int PAGE_SIZE = 5;
+
+    @Autowired
+    private FinesRepository finesRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < FINES; i++) {
+            LoanModel loan = new LoanModel("user-1", "book-" + i, today.minusDays(20), "Book " + i, today.minusDays(5), false);
+            entityManager.persist(loan);
+            entityManager.persist(FineModel.builder().loan(loan).description("Fine " + i).amount(800f)
+                    .expiredDate(today).studentName("Student").guardianEmail("guardian@email.com")
+                    .fineStatus(FineStatus.PENDING).fineType(FineType.RETARDMENT).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testFindByUserIdRunsPageAndCountOnly() {
+        Page<FineOutputDTO> page = finesRepository.findByUserId("user-1", PageRequest.of(0, PAGE_SIZE));
+
+        assertEquals(PAGE_SIZE, page.getContent().size());
+        assertEquals(FINES, page.getTotalElements());
+        assertTrue(page.getContent().get(0).getBookTitle().startsWith("Book "));
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    void testFindByStatusRunsPageAndCountOnly() {
+        Page<FineOutputDTO> page = finesRepository.findByStatus(FineStatus.PENDING, PageRequest.of(1, PAGE_SIZE));
+
+        assertEquals(PAGE_SIZE, page.getContent().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testFindSliceByStatusAndDateRunsOneStatement() {
+        LocalDate monthStart = today.withDayOfMonth(1);
+        Slice<FineOutputDTO> slice = finesRepository.findSliceByStatusAndDate(FineStatus.PENDING, monthStart,
+                monthStart.plusMonths(1), PageRequest.of(0, PAGE_SIZE));
+
+        assertEquals(PAGE_SIZE, slice.getContent().size());
+        assertTrue(slice.hasNext());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
@@ -0,0 +1,61 @@
+package com.spammers.AlertsAndNotifications.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Migrates a database created by ddl-auto=update before the migrations existed, with the
+ * baseline settings of application.properties, and checks that it ends with the full schema.
+ */
+class LegacySchemaMigrationTest {
+
+    @Test
+    void testLegacyDatabaseIsCompletedByTheMigrations() throws IOException, SQLException {
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start();
+             Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE loans (loan_id VARCHAR(255) PRIMARY KEY, user_id VARCHAR(255) NOT NULL,
+                        book_id VARCHAR(255) NOT NULL, book_name VARCHAR(255) NOT NULL, loan_date DATE NOT NULL,
+                        loan_expired DATE NOT NULL, status BOOLEAN NOT NULL, book_returned BOOLEAN NOT NULL);
+                    CREATE TABLE fines (fine_id VARCHAR(255) PRIMARY KEY, loan_id VARCHAR(255) NOT NULL REFERENCES loans,
+                        description VARCHAR(300) NOT NULL, amount FLOAT4 NOT NULL, expired_date DATE NOT NULL,
+                        student_name VARCHAR(255) NOT NULL, guardian_email VARCHAR(255) NOT NULL,
+                        fine_status SMALLINT NOT NULL, fine_type SMALLINT NOT NULL);
+                    CREATE TABLE notifications (id_notification VARCHAR(255) PRIMARY KEY, student_id VARCHAR(255) NOT NULL,
+                        email_guardian VARCHAR(255) NOT NULL, sent_date DATE, type SMALLINT NOT NULL,
+                        has_been_seen BOOLEAN DEFAULT FALSE NOT NULL, book_name VARCHAR(255) NOT NULL);
+                    INSERT INTO loans VALUES ('loan-1', 'user-1', 'book-1', 'Book 1', current_date, current_date, TRUE, FALSE);
+                    INSERT INTO fines VALUES ('fine-1', 'loan-1', 'Fine', 800, current_date, 'Student', 'a@email.com', 0, 0)""");
+
+            Flyway.configure()
+                    .dataSource(postgres.getPostgresDatabase())
+                    .baselineOnMigrate(true)
+                    .baselineVersion("0")
+                    .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                    .load()
+                    .migrate();
+
+            assertEquals(1, count(statement, "SELECT count(*) FROM fines WHERE last_accrual_date IS NULL"));
+            assertEquals(0, count(statement, "SELECT count(*) FROM email_outbox WHERE digest_item IS NOT NULL"));
+            assertEquals(0, count(statement, "SELECT count(*) FROM job_cursors WHERE lease_owner IS NOT NULL"));
+        }
+    }
+
+    private long count(Statement statement, String sql) throws SQLException {
+        try (ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.spammers.AlertsAndNotifications.repository;
+
+import com.spammers.AlertsAndNotifications.model.LoanModel;
+import com.spammers.AlertsAndNotifications.model.enums.NotificationType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the notification ledger records a batch of loans in one statement and
+ * answers only the loans that were not notified yet with the same type on the same day.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfiguration.class)
+class NotificationLedgerTest {
+    private static final int ALERT = NotificationType.ALERT.ordinal();
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private final LocalDate today = LocalDate.now();
+    private final List<String> loans = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 15; i++) {
+            LoanModel loan = new LoanModel("user-" + i, "book-" + i, today.minusDays(20), "Book " + i, today.plusDays(3), true);
+            entityManager.persist(loan);
+            loans.add(loan.getLoanId());
+        }
+        entityManager.flush();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testRecordInLedgerAnswersTheNewLoansInOneStatement() {
+        List<String> recorded = notificationRepository.recordInLedger(loans, ALERT, today);
+
+        assertEquals(Set.copyOf(loans), Set.copyOf(recorded));
+        assertEquals(loans.size(), recorded.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testRecordInLedgerSkipsTheLoansAlreadyNotified() {
+        notificationRepository.recordInLedger(loans.subList(0, 2), ALERT, today);
+
+        List<String> recorded = notificationRepository.recordInLedger(loans.subList(0, 3), ALERT, today);
+
+        assertEquals(List.of(loans.get(2)), recorded);
+    }
+
+    @Test
+    void testRecordInLedgerKeysByTypeAndDate() {
+        notificationRepository.recordInLedger(List.of(loans.get(1)), ALERT, today);
+
+        assertEquals(List.of(loans.get(1)), notificationRepository.recordInLedger(List.of(loans.get(1)), ALERT, today.plusDays(1)));
+        assertEquals(List.of(loans.get(1)), notificationRepository.recordInLedger(List.of(loans.get(1)),
+                NotificationType.BOOK_LOAN_EXPIRED.ordinal(), today));
+    }
+
+    @Test
+    void testPurgeLedgerBeforeKeepsTheRecentDays() {
+        notificationRepository.recordInLedger(List.of(loans.get(1)), ALERT, today.minusDays(10));
+        notificationRepository.recordInLedger(List.of(loans.get(1)), ALERT, today);
+
+        assertEquals(1, notificationRepository.purgeLedgerBefore(today.minusDays(7)));
+        assertTrue(notificationRepository.recordInLedger(List.of(loans.get(1)), ALERT, today).isEmpty());
+    }
+}
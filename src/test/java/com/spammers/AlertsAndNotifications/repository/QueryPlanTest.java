@@ -0,0 +1,148 @@
+package com.spammers.AlertsAndNotifications.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the migrations on an embedded PostgreSQL, loads a realistic amount of rows
+ * and checks that the plans of the repository queries use the migration indexes.
+ * The statements are the SQL Hibernate renders for the repository queries.
+ */
+class QueryPlanTest {
+    private static EmbeddedPostgres postgres;
+
+    @BeforeAll
+    static void setUp() throws IOException, SQLException {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure()
+                .dataSource(postgres.getPostgresDatabase())
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load()
+                .migrate();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    INSERT INTO loans (loan_id, user_id, book_id, book_name, loan_date, loan_expired, status, book_returned)
+                    SELECT 'loan-' || i, 'user-' || (i % 5000), 'book-' || (i % 2000), 'Book ' || i,
+                           current_date - (i % 400) - 15, current_date - (i % 400), i % 20 <> 0, i % 10 <> 0
+                    FROM generate_series(1, 50000) i""");
+            statement.execute("""
+                    INSERT INTO fines (fine_id, loan_id, description, amount, expired_date, student_name, guardian_email,
+                                       fine_status, fine_type)
+                    SELECT 'fine-' || i, 'loan-' || (i * 2), 'Fine ' || i, 800, current_date - (i % 400),
+                           'Student ' || i, 'guardian' || i || '@email.com', i % 3, i % 2
+                    FROM generate_series(1, 20000) i""");
+            statement.execute("""
+                    INSERT INTO notifications (id_notification, student_id, email_guardian, sent_date, type,
+                                               has_been_seen, book_name)
+                    SELECT 'notification-' || i, 'user-' || (i % 5000), 'guardian@email.com', current_date - (i % 400),
+                           i % 6, i % 3 <> 0, 'Book ' || i
+                    FROM generate_series(1, 100000) i""");
+            statement.execute("""
+                    INSERT INTO email_outbox (email_id, recipient, subject, body, status, attempts, created_at, next_attempt_at)
+                    SELECT 'email-' || i, 'guardian@email.com', 'Subject', 'Body',
+                           CASE WHEN i % 100 = 0 THEN 'PENDING' ELSE 'SENT' END, 1, now(), now() - (i % 1000) * interval '1 minute'
+                    FROM generate_series(1, 50000) i""");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        postgres.close();
+    }
+
+    private String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    @Test
+    void testFindExpiredLoansOfPartitionUsesPartialIndex() throws SQLException {
+        String plan = explain("""
+                SELECT l.loan_id FROM loans l
+                WHERE l.loan_expired < current_date AND l.book_returned = false AND l.status = true
+                  AND (l.loan_expired > DATE '1970-01-01' OR (l.loan_expired = DATE '1970-01-01' AND l.loan_id > ''))
+                  AND (hashtext(l.loan_id) & 2147483647) % 8 = 3
+                ORDER BY l.loan_expired, l.loan_id FETCH FIRST 50 ROWS ONLY""");
+
+        assertTrue(plan.contains("idx_loans_expired_pending"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    void testFindLoansExpiringInExactlyNDaysUsesPartialIndex() throws SQLException {
+        String plan = explain("""
+                SELECT l.loan_id FROM loans l
+                WHERE l.loan_expired = current_date - 3 AND l.book_returned = false
+                  AND (l.loan_expired > DATE '1970-01-01' OR (l.loan_expired = DATE '1970-01-01' AND l.loan_id > ''))
+                ORDER BY l.loan_expired, l.loan_id FETCH FIRST 15 ROWS ONLY""");
+
+        assertTrue(plan.contains("idx_loans_due_unreturned"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    void testNotificationQueriesUseStudentIndex() throws SQLException {
+        String count = explain("""
+                SELECT count(n.id_notification) FROM notifications n
+                WHERE n.student_id = 'user-42' AND n.has_been_seen = false""");
+        String page = explain("""
+                SELECT n.id_notification FROM notifications n
+                WHERE n.student_id = 'user-42' OFFSET 0 ROWS FETCH FIRST 10 ROWS ONLY""");
+
+        assertTrue(count.contains("idx_notifications_student_seen"), count);
+        assertTrue(page.contains("idx_notifications_student_seen"), page);
+    }
+
+    @Test
+    void testFinesByUserJoinUsesLoanIndexes() throws SQLException {
+        String plan = explain("""
+                SELECT f.fine_id FROM fines f JOIN loans l ON l.loan_id = f.loan_id
+                WHERE l.user_id = 'user-42' OFFSET 0 ROWS FETCH FIRST 10 ROWS ONLY""");
+
+        assertTrue(plan.contains("idx_loans_user_book"), plan);
+        assertTrue(plan.contains("idx_fines_loan"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    void testFindByStatusAndDateUsesMonthRangeIndex() throws SQLException {
+        String plan = explain("""
+                SELECT f.fine_id FROM fines f
+                WHERE f.fine_status = 0 AND f.expired_date >= current_date - 30 AND f.expired_date < current_date
+                ORDER BY f.expired_date DESC OFFSET 0 ROWS FETCH FIRST 10 ROWS ONLY""");
+
+        assertTrue(plan.contains("idx_fines_status_expired"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    void testClaimDueEmailsUsesPartialIndex() throws SQLException {
+        String plan = explain("""
+                SELECT email_id FROM email_outbox
+                WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= now() AND attempts < 5
+                ORDER BY next_attempt_at LIMIT 50 FOR UPDATE SKIP LOCKED""");
+
+        assertTrue(plan.contains("idx_email_outbox_due"), plan);
+    }
+}
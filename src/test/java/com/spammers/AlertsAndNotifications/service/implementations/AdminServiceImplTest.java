@@ -22,8 +22,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.stubbing.Answer;
 import org.mockito.stubbing.OngoingStubbing;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -56,6 +59,9 @@ class AdminServiceImplTest {
     @Mock
     FineDailyIncrease fineDailyIncrease;
 
+    @Mock
+    private UserNotificationCounters userNotificationCounters;
+
     private LoanDTO loanDTO;
     private UserInfo userInfo;
     private LoanModel loanModel;
@@ -89,7 +95,7 @@ class AdminServiceImplTest {
         doNothing().when(emailService).sendEmailTemplate(
                 anyString(),
                 any(EmailTemplate.class),
-                anyString()
+                any(), any(), any(), any()
         );
         when(apiClient.getUserInfoById(loanDTO.getUserId())).thenReturn(userInfo);
         // Act
@@ -98,10 +104,14 @@ class AdminServiceImplTest {
         // Assert
         verify(loanRepository).save(any(LoanModel.class));
         verify(notificationRepository).save(any(NotificationModel.class));
+        verify(userNotificationCounters).adjust("user123", 1, 0);
         verify(emailService).sendEmailTemplate(
                 eq(loanDTO.getEmailGuardian()),
-                eq(EmailTemplate.NOTIFICATION_ALERT),
-                anyString()
+                eq(EmailTemplate.LOAN_CREATED),
+                eq(userInfo.getGuardianName()),
+                eq(userInfo.getName()),
+                eq(loanDTO.getBookName()),
+                eq(loanDTO.getLoanReturn().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")))
         );
     }
     @Test
@@ -120,11 +130,13 @@ class AdminServiceImplTest {
         // Specific stubbing for emailService to match exact parameters
         doNothing().when(emailService).sendEmailTemplate(
                 eq(userInfo.getGuardianEmail()),
-                eq(EmailTemplate.FINE_ALERT),
-                eq("null\nTe informamos que se ha registrado una nueva multa: "),
+                eq(EmailTemplate.FINE_OPENED),
+                eq(null),
                 eq(50.0f),
                 eq(LocalDate.now()),
-                eq(FineDescription.DAMAGED_MATERIAL.getDescription() + "\nAl estudiante Test User por el libro Test Book.")
+                eq(FineDescription.DAMAGED_MATERIAL.getDescription()),
+                eq("Test User"),
+                eq("Test Book")
         );
         when(apiClient.getUserInfoById("user123")).thenReturn(userInfo);
         // Act
@@ -133,45 +145,26 @@ class AdminServiceImplTest {
         // Assert
         verify(finesRepository).save(any(FineModel.class));
         verify(notificationRepository).save(any(NotificationModel.class));
+        verify(userNotificationCounters).adjust("user123", 1, 1);
         verify(emailService).sendEmailTemplate(
                 eq(userInfo.getGuardianEmail()),
-                eq(EmailTemplate.FINE_ALERT),
-                eq("null\nTe informamos que se ha registrado una nueva multa: "),
+                eq(EmailTemplate.FINE_OPENED),
+                eq(null),
                 eq(50.0f),
                 eq(LocalDate.now()),
-                eq(FineDescription.DAMAGED_MATERIAL.getDescription() + "\nAl estudiante Test User por el libro Test Book.")
+                eq(FineDescription.DAMAGED_MATERIAL.getDescription()),
+                eq("Test User"),
+                eq("Test Book")
         );
     }
     @Test
     void testReturnAllActiveFines_Success() {
         int pageSize = 10;
         int pageNumber = 0;
-        List<FineModel> fines = new ArrayList<>();
-
-        LoanModel loanModel1 = new LoanModel();
-        loanModel1.setUserId("user1");
-        loanModel1.setBookName("Book 1");
-        loanModel1.setBookId("book1");
-
-        FineModel fineModel1 = new FineModel();
-        fineModel1.setFineId("fine1");
-        fineModel1.setAmount(50.0f);
-        fineModel1.setFineStatus(FineStatus.PENDING);
-        fineModel1.setLoan(loanModel1);
-        fines.add(fineModel1);
-
-        LoanModel loanModel2 = new LoanModel();
-        loanModel2.setUserId("user2");
-        loanModel2.setBookName("Book 2");
-        loanModel2.setBookId("book2");
-
-        FineModel fineModel2 = new FineModel();
-        fineModel2.setFineId("fine2");
-        fineModel2.setAmount(75.0f);
-        fineModel2.setFineStatus(FineStatus.PENDING);
-        fineModel2.setLoan(loanModel2);
-        fines.add(fineModel2);
-        PageImpl<FineModel> page = new PageImpl<>(fines);
+        List<FineOutputDTO> fines = new ArrayList<>();
+        fines.add(pendingFine("fine1", 50.0f, "Book 1"));
+        fines.add(pendingFine("fine2", 75.0f, "Book 2"));
+        PageImpl<FineOutputDTO> page = new PageImpl<>(fines);
         when(finesRepository.findByStatus(eq(FineStatus.PENDING), any(Pageable.class)))
                 .thenReturn(page);
         PaginatedResponseDTO<FineOutputDTO> result = adminService.returnAllActiveFines(pageNumber, pageSize);
@@ -191,7 +184,7 @@ class AdminServiceImplTest {
     void testReturnAllActiveFines_NoFines() {
         int pageSize = 10;
         int pageNumber = 0;
-        PageImpl<FineModel> emptyPage = new PageImpl<>(Collections.emptyList());
+        PageImpl<FineOutputDTO> emptyPage = new PageImpl<>(Collections.emptyList());
         when(finesRepository.findByStatus(eq(FineStatus.PENDING), any(Pageable.class)))
                 .thenReturn(emptyPage);
         PaginatedResponseDTO<FineOutputDTO> result = adminService.returnAllActiveFines(pageNumber, pageSize);
@@ -206,18 +199,10 @@ class AdminServiceImplTest {
         LocalDate testDate = LocalDate.of(2024, 1, 15);
         int pageSize = 10;
         int pageNumber = 0;
-        LoanModel loanModel = new LoanModel();
-        loanModel.setBookName("Test Book");
-        loanModel.setUserId("user123");
-        List<FineModel> fines = new ArrayList<>();
-        FineModel fineModel = new FineModel();
-        fineModel.setFineId("fine1");
-        fineModel.setAmount(50.0f);
-        fineModel.setFineStatus(FineStatus.PENDING);
-        fineModel.setLoan(loanModel);
-        fines.add(fineModel);
-        PageImpl<FineModel> page = new PageImpl<>(fines);
-        when(finesRepository.findByStatusAndDate(eq(FineStatus.PENDING), eq(testDate), any(Pageable.class)))
+        List<FineOutputDTO> fines = new ArrayList<>();
+        fines.add(pendingFine("fine1", 50.0f, "Test Book"));
+        PageImpl<FineOutputDTO> page = new PageImpl<>(fines);
+        when(finesRepository.findByStatusAndDate(eq(FineStatus.PENDING), eq(LocalDate.of(2024, 1, 1)), eq(LocalDate.of(2024, 2, 1)), any(Pageable.class)))
                 .thenReturn(page);
         PaginatedResponseDTO<FineOutputDTO> result = adminService.returnAllActiveFinesBetweenDate(testDate, pageSize, pageNumber);
         assertNotNull(result);
@@ -226,7 +211,7 @@ class AdminServiceImplTest {
         assertEquals("fine1", result.getData().get(0).getFineId());
         assertEquals(50.0f, result.getData().get(0).getAmount());
         assertEquals("Test Book", result.getData().get(0).getBookTitle());
-        verify(finesRepository).findByStatusAndDate(eq(FineStatus.PENDING), eq(testDate), any(Pageable.class));
+        verify(finesRepository).findByStatusAndDate(eq(FineStatus.PENDING), eq(LocalDate.of(2024, 1, 1)), eq(LocalDate.of(2024, 2, 1)), any(Pageable.class));
     }
 
     @Test
@@ -234,13 +219,29 @@ class AdminServiceImplTest {
         LocalDate testDate = LocalDate.of(2024, 1, 15);
         int pageSize = 10;
         int pageNumber = 0;
-        PageImpl<FineModel> emptyPage = new PageImpl<>(Collections.emptyList());
-        when(finesRepository.findByStatusAndDate(eq(FineStatus.PENDING), eq(testDate), any(Pageable.class)))
+        PageImpl<FineOutputDTO> emptyPage = new PageImpl<>(Collections.emptyList());
+        when(finesRepository.findByStatusAndDate(eq(FineStatus.PENDING), eq(LocalDate.of(2024, 1, 1)), eq(LocalDate.of(2024, 2, 1)), any(Pageable.class)))
                 .thenReturn(emptyPage);
         PaginatedResponseDTO<FineOutputDTO> result = adminService.returnAllActiveFinesBetweenDate(testDate, pageSize, pageNumber);
         assertNotNull(result);
         assertTrue(result.getData().isEmpty());
-        verify(finesRepository).findByStatusAndDate(eq(FineStatus.PENDING), eq(testDate), any(Pageable.class));
+        verify(finesRepository).findByStatusAndDate(eq(FineStatus.PENDING), eq(LocalDate.of(2024, 1, 1)), eq(LocalDate.of(2024, 2, 1)), any(Pageable.class));
+    }
+
+    @Test
+    void testReturnActiveFinesSliceBetweenDate_UsesMonthRange() {
+        LocalDate testDate = LocalDate.of(2024, 12, 31);
+        SliceImpl<FineOutputDTO> slice = new SliceImpl<>(List.of(pendingFine("fine1", 50.0f, "Test Book")),
+                PageRequest.of(0, 1), true);
+        when(finesRepository.findSliceByStatusAndDate(eq(FineStatus.PENDING), eq(LocalDate.of(2024, 12, 1)),
+                eq(LocalDate.of(2025, 1, 1)), any(Pageable.class))).thenReturn(slice);
+
+        SliceResponseDTO<FineOutputDTO> result = adminService.returnActiveFinesSliceBetweenDate(testDate, 1, 0);
+
+        assertEquals(1, result.getData().size());
+        assertEquals("fine1", result.getData().get(0).getFineId());
+        assertTrue(result.isHasNext());
+        verify(finesRepository, never()).findByStatusAndDate(any(), any(), any(), any());
     }
 
     @Test
@@ -254,10 +255,15 @@ class AdminServiceImplTest {
 
         // Assert
         verify(loanRepository).findFirstLoanByBookIdAndBookReturned("book456", false);
-        verify(emailService).sendEmailCustomised(
+        verify(emailService).sendEmailTemplate(
                 eq("guardian@email.com"),
-                eq("Devolución de un libro"),
-                anyString()
+                eq(EmailTemplate.BOOK_RETURN),
+                isNull(),
+                eq("Test User"),
+                eq("Test Book"),
+                eq(LocalDate.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))),
+                anyString(),
+                eq("")
         );
         verify(loanRepository).save(loanModel);
         assertTrue(loanModel.isBookReturned());
@@ -275,10 +281,15 @@ class AdminServiceImplTest {
 
         // Assert
         verify(loanRepository).findFirstLoanByBookIdAndBookReturned("book456", false);
-        verify(emailService).sendEmailCustomised(
+        verify(emailService).sendEmailTemplate(
                 eq("guardian@email.com"),
-                eq("Devolución de un libro"),
-                argThat(body -> body.contains("tuvo un retraso de") && body.contains("devolvió en malas condiciones"))
+                eq(EmailTemplate.BOOK_RETURN),
+                isNull(),
+                eq("Test User"),
+                eq("Test Book"),
+                eq(LocalDate.now().minusDays(20).format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))),
+                eq("Sin embargo, tuvo un retraso de 20 días.\n"),
+                eq("Además, el libro se devolvió en malas condiciones.\n")
         );
         verify(loanRepository).save(loanModel);
         assertTrue(loanModel.isBookReturned());
@@ -303,7 +314,7 @@ class AdminServiceImplTest {
         fineModel.setAmount(10.50f);
         fineModel.setDescription("Late return fine");
 
-        when(finesRepository.findById("fine123")).thenReturn(Optional.of(fineModel));
+        when(finesRepository.findWithLoanByFineId("fine123")).thenReturn(Optional.of(fineModel));
         when(apiClient.getUserInfoById(loanModel.getUserId())).thenReturn(userInfo);
         // Act
         adminService.closeFine("fine123");
@@ -311,20 +322,54 @@ class AdminServiceImplTest {
         // Assert
         verify(finesRepository).updateFineStatus("fine123", FineStatus.PAID);
         verify(notificationRepository).save(any(NotificationModel.class));
+        verify(userNotificationCounters).adjust("user123", 1, 0);
         verify(emailService).sendEmailTemplate(
                 eq("guardian@email.com"),
-                eq(EmailTemplate.FINE_ALERT),
-                eq("Se ha cerrado una multa: "),
+                eq(EmailTemplate.FINE_CLOSED),
                 eq(10.50f),
                 eq(LocalDate.now()),
-                eq("Late return fine\nAl estudiante null")
+                eq("Late return fine"),
+                eq(null)
         );
     }
 
+    @Test
+    void testCloseFine_PendingFineDecreasesActiveFines() {
+        FineModel fineModel = new FineModel();
+        fineModel.setLoan(loanModel);
+        fineModel.setAmount(10.50f);
+        fineModel.setFineStatus(FineStatus.PENDING);
+
+        when(finesRepository.findWithLoanByFineId("fine123")).thenReturn(Optional.of(fineModel));
+        when(finesRepository.updateFineStatus("fine123", FineStatus.PENDING, FineStatus.PAID)).thenReturn(1);
+        when(apiClient.getUserInfoById(loanModel.getUserId())).thenReturn(userInfo);
+
+        adminService.closeFine("fine123");
+
+        verify(userNotificationCounters).adjust("user123", 1, -1);
+        verify(finesRepository, never()).updateFineStatus("fine123", FineStatus.PAID);
+    }
+
+    @Test
+    void testCloseFine_ConcurrentCloseDecreasesActiveFinesOnce() {
+        FineModel fineModel = new FineModel();
+        fineModel.setLoan(loanModel);
+        fineModel.setAmount(10.50f);
+        fineModel.setFineStatus(FineStatus.PENDING);
+
+        when(finesRepository.findWithLoanByFineId("fine123")).thenReturn(Optional.of(fineModel));
+        when(finesRepository.updateFineStatus("fine123", FineStatus.PENDING, FineStatus.PAID)).thenReturn(0);
+        when(apiClient.getUserInfoById(loanModel.getUserId())).thenReturn(userInfo);
+
+        adminService.closeFine("fine123");
+
+        verify(userNotificationCounters).adjust("user123", 1, 0);
+    }
+
     @Test
     void testCloseFine_NotFound() {
         // Arrange
-        when(finesRepository.findById("fine123")).thenReturn(Optional.empty());
+        when(finesRepository.findWithLoanByFineId("fine123")).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(SpammersPrivateExceptions.class,
@@ -370,7 +415,7 @@ class AdminServiceImplTest {
 
         verify(finesRepository, never()).save(any());
         verify(notificationRepository, never()).save(any());
-        verify(emailService, never()).sendEmailTemplate(any(), any(), any(), any(), any(), any());
+        verify(emailService, never()).sendEmailTemplate(any(), any(), any(), any(), any(), any(), any(), any());
     }
 
     @Test
@@ -407,14 +452,21 @@ class AdminServiceImplTest {
         ));
 
         verify(notificationRepository).save(any(NotificationModel.class));
+        verify(userNotificationCounters).adjust("user123", 1, 1);
         verify(emailService).sendEmailTemplate(
                 eq("guardian@email.com"),
-                eq(EmailTemplate.FINE_ALERT),
-                eq("null\nTe informamos que se ha registrado una nueva multa: "),
+                eq(EmailTemplate.FINE_OPENED),
+                eq(null),
                 eq(10f),
                 eq(LocalDate.now()),
-                eq("Libro dañado en la página 5\nAl estudiante null por el libro Test Book.")
+                eq("Libro dañado en la página 5"),
+                eq(null),
+                eq("Test Book")
         );
     }
 
-}
\ No newline at end of file
+    private FineOutputDTO pendingFine(String fineId, float amount, String bookTitle) {
+        return new FineOutputDTO(fineId, "Fine", amount, FineStatus.PENDING, FineType.RETARDMENT, LocalDate.now(),
+                bookTitle, "Student", "guardian@email.com");
+    }
+}
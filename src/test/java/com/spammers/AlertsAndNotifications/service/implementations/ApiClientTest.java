@@ -0,0 +1,151 @@
+package com.spammers.AlertsAndNotifications.service.implementations;
+
+import com.spammers.AlertsAndNotifications.exceptions.SpammersPrivateExceptions;
+import com.spammers.AlertsAndNotifications.model.dto.UserInfo;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiClientTest {
+    private static final int PARALLELISM = 3;
+
+    private HttpServer gateway;
+    private ThreadPoolTaskExecutor executor;
+    private ApiClient apiClient;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        gateway = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        gateway.createContext("/find/student/", this::handleStudent);
+        gateway.setExecutor(Executors.newFixedThreadPool(10));
+        gateway.start();
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(PARALLELISM);
+        executor.setMaxPoolSize(PARALLELISM);
+        executor.initialize();
+        apiClient = new ApiClient(RestClient.create(), new TokenHolder(), new UserInfoCache(600, 60, 100), executor,
+                RateLimiter.ofDefaults("gateway"), RateLimiter.ofDefaults("gateway-requests"));
+        ReflectionTestUtils.setField(apiClient, "APIGATEWAY_URL", "http://localhost:" + gateway.getAddress().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        gateway.stop(0);
+        executor.shutdown();
+    }
+
+    private void handleStudent(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        String userId = exchange.getRequestURI().getPath().substring("/find/student/".length());
+        inFlight.decrementAndGet();
+        if (userId.startsWith("missing")) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        byte[] body = ("{\"studentName\":\"Student " + userId + "\",\"responsibleName\":\"Guardian " + userId
+                + "\",\"responsibleEmail\":\"" + userId + "@email.com\"}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Test
+    void testGetUserInfoByIdsDeduplicatesAndBoundsParallelism() {
+        List<String> userIds = List.of("u1", "u2", "u3", "u4", "u5", "u6", "u1", "u2", "missing-1");
+
+        Map<String, UserInfo> users = apiClient.getUserInfoByIds(userIds);
+
+        assertEquals(6, users.size());
+        assertEquals("Guardian u3", users.get("u3").getGuardianName());
+        assertEquals("u6@email.com", users.get("u6").getGuardianEmail());
+        assertFalse(users.containsKey("missing-1"));
+        assertEquals(7, requests.get());
+        assertTrue(maxInFlight.get() > 1);
+        assertTrue(maxInFlight.get() <= PARALLELISM);
+    }
+
+    @Test
+    void testGetUserInfoByIdsUsesCache() {
+        apiClient.getUserInfoByIds(List.of("u1", "u2", "missing-1"));
+        Map<String, UserInfo> users = apiClient.getUserInfoByIds(List.of("u1", "u2", "u3", "missing-1"));
+
+        assertEquals(3, users.size());
+        assertEquals(4, requests.get());
+        assertEquals("Student u1", apiClient.getUserInfoById("u1").getName());
+        assertEquals(4, requests.get());
+    }
+
+    @Test
+    void testGetUserInfoByIdNotFound() {
+        SpammersPrivateExceptions exception = assertThrows(SpammersPrivateExceptions.class,
+                () -> apiClient.getUserInfoById("missing-2"));
+
+        assertEquals(404, exception.code);
+    }
+
+    @Test
+    void testGetUserInfoByIdsLeavesOutUsersOverTheRateLimit() {
+        RateLimiter twoLookups = RateLimiter.of("gateway", RateLimiterConfig.custom()
+                .limitForPeriod(2).limitRefreshPeriod(Duration.ofMinutes(1)).timeoutDuration(Duration.ZERO).build());
+        apiClient = new ApiClient(RestClient.create(), new TokenHolder(), new UserInfoCache(600, 60, 100), executor, twoLookups,
+                RateLimiter.ofDefaults("gateway-requests"));
+        ReflectionTestUtils.setField(apiClient, "APIGATEWAY_URL", "http://localhost:" + gateway.getAddress().getPort());
+
+        Map<String, UserInfo> users = apiClient.getUserInfoByIds(List.of("u1", "u2", "u3"));
+
+        assertEquals(2, users.size());
+        assertEquals(2, requests.get());
+        assertEquals("Student u4", apiClient.getUserInfoById("u4").getName());
+    }
+
+    @Test
+    void testGetUserInfoByIdAnswersBusyWithoutWaitingForTheRateLimit() {
+        RateLimiter waitingJobs = RateLimiter.of("gateway", RateLimiterConfig.custom()
+                .limitForPeriod(1).limitRefreshPeriod(Duration.ofMinutes(1)).timeoutDuration(Duration.ofSeconds(30)).build());
+        RateLimiter oneRequest = RateLimiter.of("gateway-requests", RateLimiterConfig.custom()
+                .limitForPeriod(1).limitRefreshPeriod(Duration.ofMinutes(1)).timeoutDuration(Duration.ZERO).build());
+        apiClient = new ApiClient(RestClient.create(), new TokenHolder(), new UserInfoCache(600, 60, 100), executor,
+                waitingJobs, oneRequest);
+        ReflectionTestUtils.setField(apiClient, "APIGATEWAY_URL", "http://localhost:" + gateway.getAddress().getPort());
+        apiClient.getUserInfoById("u1");
+
+        long start = System.nanoTime();
+        SpammersPrivateExceptions exception = assertThrows(SpammersPrivateExceptions.class,
+                () -> apiClient.getUserInfoById("u2"));
+
+        assertEquals(429, exception.code);
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(1)) < 0);
+        assertEquals(1, requests.get());
+    }
+}
@@ -0,0 +1,156 @@
+package com.spammers.AlertsAndNotifications.service.implementations;
+
+import com.spammers.AlertsAndNotifications.model.EmailOutboxModel;
+import com.spammers.AlertsAndNotifications.model.enums.EmailStatus;
+import com.spammers.AlertsAndNotifications.model.enums.EmailTemplate;
+import com.spammers.AlertsAndNotifications.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailDigestCollectorTest {
+    private static final String GUARDIAN = "guardian@email.com";
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private EmailDigestCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        collector = new EmailDigestCollector(emailOutboxRepository, transactionTemplate);
+        ReflectionTestUtils.setField(collector, "recipientsPerPoll", 100);
+        ReflectionTestUtils.setField(collector, "maxItems", 40);
+    }
+
+    private EmailOutboxModel held(EmailTemplate template, Object... args) {
+        EmailOutboxModel email = new EmailOutboxModel(GUARDIAN, template.getSubject(), template.formatBody(args),
+                template.formatHtml(args), template);
+        email.setStatus(EmailStatus.HELD);
+        email.setDigestItem(template.formatDigestItem(args));
+        email.setNextAttemptAt(LocalDateTime.now().minusMinutes(1));
+        return email;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+    }
+
+    @Test
+    void testCollectMergesTheHeldEmailsOfAGuardianInOneDigest() {
+        EmailOutboxModel expired = held(EmailTemplate.LOAN_EXPIRED, "Maria Perez", "Juan Perez", "Rayuela", "01/10/2026");
+        EmailOutboxModel fine = held(EmailTemplate.FINE_OPENED, "Maria Perez", 8000f, "17/10/2026", "Libro dañado",
+                "Ana Perez", "Cien años de soledad");
+        when(emailOutboxRepository.findDueRecipients(eq(EmailStatus.HELD), any(), any())).thenReturn(List.of(GUARDIAN));
+        when(emailOutboxRepository.lockByRecipient(eq(GUARDIAN), eq(EmailStatus.HELD), any()))
+                .thenReturn(List.of(expired, fine));
+        runTransactions();
+
+        assertEquals(1, collector.collect());
+
+        ArgumentCaptor<List<EmailOutboxModel>> saved = ArgumentCaptor.captor();
+        verify(emailOutboxRepository).saveAll(saved.capture());
+        assertEquals(3, saved.getValue().size());
+        EmailOutboxModel digest = saved.getValue().get(2);
+        assertEquals(EmailTemplate.DIGEST, digest.getTemplate());
+        assertEquals(EmailStatus.PENDING, digest.getStatus());
+        assertEquals(GUARDIAN, digest.getRecipient());
+        assertTrue(digest.getBody().contains("Tienes 2 notificaciones nuevas:\n" +
+                "- Juan Perez no ha devuelto el libro Rayuela, prestado el día 01/10/2026.\n" +
+                "- Nueva multa al estudiante Ana Perez por el libro Cien años de soledad: Libro dañado. " +
+                "Monto: 8000.0, fecha: 17/10/2026.\n"));
+        assertTrue(new String(digest.getHtmlBody(), StandardCharsets.UTF_8)
+                .contains("- Juan Perez no ha devuelto el libro Rayuela, prestado el día 01/10/2026.<br>"));
+        assertEquals(EmailStatus.MERGED, expired.getStatus());
+        assertEquals(EmailStatus.MERGED, fine.getStatus());
+    }
+
+    @Test
+    void testCollectSendsASingleHeldEmailAsItIs() {
+        EmailOutboxModel expiring = held(EmailTemplate.LOAN_EXPIRING, "Maria Perez", "Juan Perez", "Rayuela");
+        when(emailOutboxRepository.findDueRecipients(eq(EmailStatus.HELD), any(), any())).thenReturn(List.of(GUARDIAN));
+        when(emailOutboxRepository.lockByRecipient(eq(GUARDIAN), eq(EmailStatus.HELD), any())).thenReturn(List.of(expiring));
+        runTransactions();
+
+        assertEquals(1, collector.collect());
+
+        verify(emailOutboxRepository).saveAll(List.of(expiring));
+        assertEquals(EmailStatus.PENDING, expiring.getStatus());
+        assertEquals(EmailTemplate.LOAN_EXPIRING, expiring.getTemplate());
+        assertFalse(expiring.getNextAttemptAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void testCollectSkipsTheEmailsHeldByAnotherInstance() {
+        when(emailOutboxRepository.findDueRecipients(eq(EmailStatus.HELD), any(), any())).thenReturn(List.of(GUARDIAN));
+        when(emailOutboxRepository.lockByRecipient(eq(GUARDIAN), eq(EmailStatus.HELD), any())).thenReturn(List.of());
+        runTransactions();
+
+        assertEquals(0, collector.collect());
+
+        verify(emailOutboxRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testCollectGoesOnWhenTheEmailsOfAGuardianFail() {
+        EmailOutboxModel expiring = held(EmailTemplate.LOAN_EXPIRING, "Maria Perez", "Juan Perez", "Rayuela");
+        when(emailOutboxRepository.findDueRecipients(eq(EmailStatus.HELD), any(), any()))
+                .thenReturn(List.of("broken@email.com", GUARDIAN));
+        when(emailOutboxRepository.lockByRecipient(eq("broken@email.com"), eq(EmailStatus.HELD), any()))
+                .thenThrow(new IllegalStateException("connection reset"));
+        when(emailOutboxRepository.lockByRecipient(eq(GUARDIAN), eq(EmailStatus.HELD), any())).thenReturn(List.of(expiring));
+        runTransactions();
+
+        assertEquals(1, collector.collect());
+
+        assertEquals(EmailStatus.PENDING, expiring.getStatus());
+    }
+
+    @Test
+    void testCollectLeavesHeldTheEmailsPastTheBodyLimit() {
+        List<EmailOutboxModel> held = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            EmailOutboxModel email = held(EmailTemplate.FINE_OPENED, "Maria Perez", 8000f, "17/10/2026", "Libro dañado",
+                    "Ana Perez", "Libro " + i);
+            email.setDigestItem("x".repeat(EmailOutboxModel.DIGEST_ITEM_LENGTH));
+            held.add(email);
+        }
+        when(emailOutboxRepository.findDueRecipients(eq(EmailStatus.HELD), any(), any())).thenReturn(List.of(GUARDIAN));
+        when(emailOutboxRepository.lockByRecipient(eq(GUARDIAN), eq(EmailStatus.HELD), any())).thenReturn(held);
+        runTransactions();
+
+        collector.collect();
+
+        ArgumentCaptor<List<EmailOutboxModel>> saved = ArgumentCaptor.captor();
+        verify(emailOutboxRepository).saveAll(saved.capture());
+        EmailOutboxModel digest = saved.getValue().get(saved.getValue().size() - 1);
+        int merged = saved.getValue().size() - 1;
+        assertTrue(digest.getBody().length() <= EmailOutboxModel.BODY_LENGTH);
+        assertTrue(digest.getBody().contains("Tienes " + merged + " notificaciones nuevas"));
+        assertEquals(9, merged);
+        held.subList(0, merged).forEach(email -> assertEquals(EmailStatus.MERGED, email.getStatus()));
+        held.subList(merged, held.size()).forEach(email -> assertEquals(EmailStatus.HELD, email.getStatus()));
+    }
+}
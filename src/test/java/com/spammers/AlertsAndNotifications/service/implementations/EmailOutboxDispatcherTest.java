@@ -0,0 +1,249 @@
+package com.spammers.AlertsAndNotifications.service.implementations;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.spammers.AlertsAndNotifications.model.EmailOutboxModel;
+import com.spammers.AlertsAndNotifications.model.enums.EmailStatus;
+import com.spammers.AlertsAndNotifications.model.enums.EmailTemplate;
+import com.spammers.AlertsAndNotifications.repository.EmailOutboxRepository;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    private JavaMailSenderImpl javaMailSender;
+    private ThreadPoolTaskExecutor executor;
+    private EmailOutboxDispatcher dispatcher;
+    private SimpleMeterRegistry meterRegistry;
+    private final LocalDateTime lease = LocalDateTime.now().plusSeconds(60).truncatedTo(ChronoUnit.MICROS);
+
+    @BeforeEach
+    void setUp() {
+        javaMailSender = new JavaMailSenderImpl();
+        javaMailSender.setHost("localhost");
+        javaMailSender.setPort(ServerSetupTest.SMTP.getPort());
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(2);
+        executor.initialize();
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new EmailOutboxDispatcher(emailOutboxRepository, javaMailSender, executor,
+                new NotificationMetrics(meterRegistry), RateLimiter.ofDefaults("smtp"));
+        ReflectionTestUtils.setField(dispatcher, "email", "biblosoft@mail.com");
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 2);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoffSeconds", 10L);
+        ReflectionTestUtils.setField(dispatcher, "leaseSeconds", 60L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    /**
+     * An email as the claim returns it: being sent, leased and with its first attempt counted.
+     */
+    private EmailOutboxModel outboxEmail(String id, String recipient) {
+        EmailOutboxModel outboxEmail = new EmailOutboxModel(recipient, "Subject " + id, "Body " + id, EmailTemplate.NOTIFICATION_ALERT);
+        outboxEmail.setEmailId(id);
+        claimed(outboxEmail);
+        return outboxEmail;
+    }
+
+    private void claimed(EmailOutboxModel outboxEmail) {
+        outboxEmail.setStatus(EmailStatus.SENDING);
+        outboxEmail.setNextAttemptAt(lease);
+        outboxEmail.setAttempts(1);
+    }
+
+    @Test
+    void testDeliverSendsWholeBatch() {
+        List<EmailOutboxModel> batch = List.of(outboxEmail("1", "a@email.com"), outboxEmail("2", "b@email.com"),
+                outboxEmail("3", "c@email.com"));
+
+        dispatcher.deliver(batch, lease);
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(3, received.length);
+        batch.forEach(email -> {
+            assertEquals(EmailStatus.SENT, email.getStatus());
+            assertEquals(1, email.getAttempts());
+            assertNotNull(email.getSentAt());
+        });
+        verify(emailOutboxRepository).markSent(eq(List.of("1", "2", "3")), eq(EmailStatus.SENDING), eq(EmailStatus.SENT),
+                eq(lease), any());
+        verify(emailOutboxRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testDeliverSendsTextAndHtmlAlternatives() throws Exception {
+        EmailTemplate template = EmailTemplate.NOTIFICATION_ALERT;
+        EmailOutboxModel outboxEmail = new EmailOutboxModel("a@email.com", template.getSubject(),
+                template.formatBody("Préstamo <nuevo>"), template.formatHtml("Préstamo <nuevo>"), template);
+        outboxEmail.setEmailId("1");
+        claimed(outboxEmail);
+
+        dispatcher.deliver(List.of(outboxEmail), lease);
+
+        MimeMessage received = greenMail.getReceivedMessages()[0];
+        MimeMultipart alternatives = (MimeMultipart) received.getContent();
+        assertTrue(received.getContentType().startsWith("multipart/alternative"));
+        assertEquals(2, alternatives.getCount());
+        assertTrue(alternatives.getBodyPart(0).isMimeType("text/plain"));
+        assertEquals(template.formatBody("Préstamo <nuevo>"), lines(alternatives.getBodyPart(0).getContent()));
+        assertTrue(alternatives.getBodyPart(1).isMimeType("text/html"));
+        ByteArrayOutputStream html = new ByteArrayOutputStream();
+        alternatives.getBodyPart(1).getInputStream().transferTo(html);
+        assertEquals(lines(new String(outboxEmail.getHtmlBody(), StandardCharsets.UTF_8)),
+                lines(html.toString(StandardCharsets.UTF_8)));
+        assertEquals(EmailStatus.SENT, outboxEmail.getStatus());
+    }
+
+    /**
+     * The mail server receives the lines of the text parts ended with CRLF.
+     */
+    private static String lines(Object content) {
+        return String.valueOf(content).replace("\r\n", "\n");
+    }
+
+    @Test
+    void testDeliverSendsPlainTextWithoutHtml() throws Exception {
+        dispatcher.deliver(List.of(outboxEmail("1", "a@email.com")), lease);
+
+        MimeMessage received = greenMail.getReceivedMessages()[0];
+        assertTrue(received.isMimeType("text/plain"));
+        assertEquals("Body 1", String.valueOf(received.getContent()).trim());
+    }
+
+    @Test
+    void testDeliverDefersEmailsOverTheRateLimit() {
+        RateLimiter oneEmail = RateLimiter.of("smtp", RateLimiterConfig.custom()
+                .limitForPeriod(1).limitRefreshPeriod(Duration.ofMinutes(1)).timeoutDuration(Duration.ZERO).build());
+        dispatcher = new EmailOutboxDispatcher(emailOutboxRepository, javaMailSender, executor,
+                new NotificationMetrics(meterRegistry), oneEmail);
+        ReflectionTestUtils.setField(dispatcher, "email", "biblosoft@mail.com");
+        EmailOutboxModel sent = outboxEmail("1", "a@email.com");
+        EmailOutboxModel deferred = outboxEmail("2", "b@email.com");
+
+        dispatcher.deliver(List.of(sent, deferred), lease);
+
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        assertEquals(EmailStatus.SENT, sent.getStatus());
+        assertEquals(EmailStatus.PENDING, deferred.getStatus());
+        assertEquals(0, deferred.getAttempts());
+        verify(emailOutboxRepository).markSent(eq(List.of("1")), eq(EmailStatus.SENDING), eq(EmailStatus.SENT),
+                eq(lease), any());
+        verify(emailOutboxRepository).defer(eq(List.of("2")), eq(EmailStatus.SENDING), eq(EmailStatus.PENDING),
+                eq(lease), any());
+    }
+
+    @Test
+    void testDeliverReportsFailurePerMessage() {
+        EmailOutboxModel valid = outboxEmail("1", "a@email.com");
+        EmailOutboxModel invalid = outboxEmail("2", "a@b@c");
+
+        dispatcher.deliver(List.of(valid, invalid), lease);
+
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        assertEquals(EmailStatus.SENT, valid.getStatus());
+        assertEquals(EmailStatus.PENDING, invalid.getStatus());
+        assertNotNull(invalid.getLastError());
+        assertEquals(1, meterRegistry.get("notifications.email.send")
+                .tags("template", "NOTIFICATION_ALERT", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("notifications.email.send")
+                .tags("template", "NOTIFICATION_ALERT", "outcome", "error").timer().count());
+    }
+
+    @Test
+    void testDeliverSchedulesRetryWithBackoff() {
+        javaMailSender.setPort(1);
+        EmailOutboxModel outboxEmail = outboxEmail("1", "a@email.com");
+        outboxEmail.setAttempts(2);
+
+        dispatcher.deliver(List.of(outboxEmail), lease);
+
+        assertEquals(EmailStatus.PENDING, outboxEmail.getStatus());
+        assertEquals(2, outboxEmail.getAttempts());
+        assertNotNull(outboxEmail.getLastError());
+        assertTrue(outboxEmail.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(15)));
+        verify(emailOutboxRepository).markFailed(List.of("1"), EmailStatus.SENDING, EmailStatus.PENDING, lease,
+                outboxEmail.getNextAttemptAt(), outboxEmail.getLastError());
+    }
+
+    @Test
+    void testDeliverRecordsTheSameFailureInOneUpdate() {
+        javaMailSender.setPort(1);
+        List<EmailOutboxModel> batch = List.of(outboxEmail("1", "a@email.com"), outboxEmail("2", "b@email.com"));
+
+        dispatcher.deliver(batch, lease);
+
+        verify(emailOutboxRepository).markFailed(eq(List.of("1", "2")), eq(EmailStatus.SENDING), eq(EmailStatus.PENDING),
+                eq(lease), any(), anyString());
+        verify(emailOutboxRepository, never()).markSent(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testDeliverMovesEmailToDeadLetter() {
+        javaMailSender.setPort(1);
+        EmailOutboxModel outboxEmail = outboxEmail("1", "a@email.com");
+        outboxEmail.setAttempts(3);
+
+        dispatcher.deliver(List.of(outboxEmail), lease);
+
+        assertEquals(EmailStatus.DEAD_LETTER, outboxEmail.getStatus());
+        assertEquals(3, outboxEmail.getAttempts());
+        verify(emailOutboxRepository).markFailed(eq(List.of("1")), eq(EmailStatus.SENDING), eq(EmailStatus.DEAD_LETTER),
+                eq(lease), any(), anyString());
+    }
+
+    @Test
+    void testDispatchClaimsTheDueEmailsAtOnceAndSendsThemInBatches() {
+        List<EmailOutboxModel> claimed = List.of(outboxEmail("1", "a@email.com"), outboxEmail("2", "b@email.com"),
+                outboxEmail("3", "c@email.com"));
+        when(emailOutboxRepository.claimDue(any(LocalDateTime.class), any(LocalDateTime.class), eq(3), eq(4)))
+                .thenReturn(claimed);
+
+        dispatcher.dispatch();
+
+        verify(emailOutboxRepository, timeout(5000)).markSent(eq(List.of("1", "2")), eq(EmailStatus.SENDING),
+                eq(EmailStatus.SENT), any(), any());
+        verify(emailOutboxRepository, timeout(5000)).markSent(eq(List.of("3")), eq(EmailStatus.SENDING),
+                eq(EmailStatus.SENT), any(), any());
+        verify(emailOutboxRepository).abandonExhausted(anyList(), eq(EmailStatus.DEAD_LETTER), any(), eq(3), anyString());
+        verify(emailOutboxRepository, times(1)).claimDue(any(), any(), anyInt(), anyInt());
+        assertEquals(3, greenMail.getReceivedMessages().length);
+    }
+}
@@ -0,0 +1,70 @@
+package com.spammers.AlertsAndNotifications.service.implementations;
+
+import com.spammers.AlertsAndNotifications.model.EmailOutboxModel;
+import com.spammers.AlertsAndNotifications.model.enums.EmailStatus;
+import com.spammers.AlertsAndNotifications.model.enums.EmailTemplate;
+import com.spammers.AlertsAndNotifications.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailServiceImplTest {
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    private EmailServiceImpl emailService;
+
+    @BeforeEach
+    void setUp() {
+        emailService = new EmailServiceImpl(emailOutboxRepository);
+        ReflectionTestUtils.setField(emailService, "digestEnabled", true);
+        ReflectionTestUtils.setField(emailService, "digestWindowMinutes", 60L);
+    }
+
+    private EmailOutboxModel queued() {
+        ArgumentCaptor<EmailOutboxModel> email = ArgumentCaptor.forClass(EmailOutboxModel.class);
+        verify(emailOutboxRepository).save(email.capture());
+        return email.getValue();
+    }
+
+    @Test
+    void testSendEmailTemplateHoldsTheDigestibleEmails() {
+        emailService.sendEmailTemplate("guardian@email.com", EmailTemplate.LOAN_EXPIRING, "Maria Perez", "Juan Perez", "Rayuela");
+
+        EmailOutboxModel email = queued();
+        assertEquals(EmailStatus.HELD, email.getStatus());
+        assertEquals("Juan Perez tiene 3 dias para devolver el libro Rayuela.", email.getDigestItem());
+        assertEquals(Duration.ofMinutes(60), Duration.between(email.getCreatedAt(), email.getNextAttemptAt()));
+    }
+
+    @Test
+    void testSendEmailTemplateCutsTheDigestItemToItsColumn() {
+        emailService.sendEmailTemplate("guardian@email.com", EmailTemplate.FINE_OPENED, "Maria Perez", 8000f, "17/10/2026",
+                "d".repeat(2000), "Juan Perez", "Rayuela");
+
+        EmailOutboxModel email = queued();
+        assertEquals(EmailOutboxModel.DIGEST_ITEM_LENGTH, email.getDigestItem().length());
+        assertTrue(email.getDigestItem().endsWith("…"));
+    }
+
+    @Test
+    void testSendEmailTemplateSendsTheOtherEmailsOnTheirOwn() {
+        emailService.sendEmailTemplate("guardian@email.com", EmailTemplate.FINE_CLOSED, 8000f, "17/10/2026", "Pagada",
+                "Juan Perez");
+
+        EmailOutboxModel email = queued();
+        assertEquals(EmailStatus.PENDING, email.getStatus());
+        assertNull(email.getDigestItem());
+    }
+}
@@ -0,0 +1,104 @@
+package com.spammers.AlertsAndNotifications.service.implementations;
+
+import com.spammers.AlertsAndNotifications.model.JobCursorModel;
+import com.spammers.AlertsAndNotifications.repository.JobCursorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JobCursorManagerTest {
+    private static final String OWNER = "instance-1";
+    private static final String LEASE_TOKEN = OWNER + "/claim-1";
+
+    @Mock
+    private JobCursorRepository jobCursorRepository;
+
+    private JobCursorManager jobCursorManager;
+
+    @BeforeEach
+    void setUp() {
+        jobCursorManager = new JobCursorManager(jobCursorRepository, OWNER, 300);
+    }
+
+    @Test
+    void testPrepareCreatesTodaysPartitions() {
+        jobCursorManager.prepare("job", 4);
+
+        verify(jobCursorRepository).prepareRun("job", 4, LocalDate.now());
+    }
+
+    @Test
+    void testClaimLeasesTheFirstFreePartition() {
+        JobCursorModel free = new JobCursorModel("job", 2, 4);
+        free.restart(LocalDate.now());
+        when(jobCursorRepository.findClaimable(eq("job"), eq(4), eq(LocalDate.now()), any(), any()))
+                .thenReturn(List.of(free));
+
+        JobCursorModel cursor = jobCursorManager.claim("job", 4).orElseThrow();
+
+        assertEquals("job-2-of-4", cursor.getJobName());
+        assertTrue(cursor.getLeaseOwner().startsWith(OWNER + "/"));
+        assertTrue(cursor.getLeaseUntil().isAfter(LocalDateTime.now().plusSeconds(290)));
+        assertEquals(JobCursorModel.START_ID, cursor.keyId());
+    }
+
+    @Test
+    void testClaimIsEmptyWhenEveryPartitionIsTaken() {
+        when(jobCursorRepository.findClaimable(eq("job"), eq(4), any(), any(), any())).thenReturn(List.of());
+
+        Optional<JobCursorModel> cursor = jobCursorManager.claim("job", 4);
+
+        assertTrue(cursor.isEmpty());
+    }
+
+    @Test
+    void testEveryClaimGetsItsOwnLeaseToken() {
+        when(jobCursorRepository.findClaimable(eq("job"), eq(1), any(), any(), any()))
+                .thenReturn(List.of(new JobCursorModel("job", 0, 1)), List.of(new JobCursorModel("job", 0, 1)));
+
+        JobCursorModel first = jobCursorManager.claim("job", 1).orElseThrow();
+        JobCursorModel second = jobCursorManager.claim("job", 1).orElseThrow();
+
+        assertNotEquals(first.getLeaseOwner(), second.getLeaseOwner());
+    }
+
+    @Test
+    void testAdvanceAndComplete() {
+        JobCursorModel cursor = new JobCursorModel("job", 0, 1);
+        cursor.setLeaseOwner(LEASE_TOKEN);
+        when(jobCursorRepository.advance(eq("job-0-of-1"), eq(LEASE_TOKEN), eq(LocalDate.of(2024, 5, 2)), eq("loan-10"), any()))
+                .thenReturn(1);
+        when(jobCursorRepository.complete("job-0-of-1", LEASE_TOKEN)).thenReturn(1);
+
+        jobCursorManager.advance(cursor, LocalDate.of(2024, 5, 2), "loan-10");
+        jobCursorManager.complete(cursor);
+
+        assertEquals("loan-10", cursor.keyId());
+        assertTrue(cursor.isCompleted());
+        assertNull(cursor.getLeaseOwner());
+    }
+
+    @Test
+    void testAdvanceFailsWhenTheLeasePassedToAnotherClaim() {
+        JobCursorModel cursor = new JobCursorModel("job", 0, 1);
+        cursor.setLeaseOwner(LEASE_TOKEN);
+        when(jobCursorRepository.advance(anyString(), eq(LEASE_TOKEN), any(), anyString(), any())).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> jobCursorManager.advance(cursor, LocalDate.of(2024, 5, 2), "loan-10"));
+        assertEquals(JobCursorModel.START_ID, cursor.keyId());
+    }
+}
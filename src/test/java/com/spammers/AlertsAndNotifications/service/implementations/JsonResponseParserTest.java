@@ -0,0 +1,62 @@
+package com.spammers.AlertsAndNotifications.service.implementations;
+
+import com.spammers.AlertsAndNotifications.exceptions.SpammersPrivateExceptions;
+import com.spammers.AlertsAndNotifications.model.dto.TokenClaims;
+import com.spammers.AlertsAndNotifications.model.dto.UserInfo;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonResponseParserTest {
+
+    @Test
+    void testParseUserInfoReadsEscapedAndNestedFields() {
+        String body = "{\"data\":{\"studentName\":\"Juan \\\"JP\\\" P\\u00e9rez\",\"grades\":[1,2],"
+                + "\"responsibleName\":\"María\",\"responsibleEmail\":\"maria@email.com\"}}";
+
+        UserInfo userInfo = JsonResponseParser.parseUserInfo(body.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("Juan \"JP\" Pérez", userInfo.getName());
+        assertEquals("María", userInfo.getGuardianName());
+        assertEquals("maria@email.com", userInfo.getGuardianEmail());
+    }
+
+    @Test
+    void testParseUserInfoFailsOnMissingField() {
+        byte[] body = "{\"studentName\":\"Juan\",\"responsibleName\":\"Maria\"}".getBytes(StandardCharsets.UTF_8);
+
+        SpammersPrivateExceptions exception = assertThrows(SpammersPrivateExceptions.class, () -> JsonResponseParser.parseUserInfo(body));
+        assertEquals(500, exception.code);
+    }
+
+    @Test
+    void testParseLoginToken() {
+        byte[] body = "{\"status\":\"OK\",\"data\":\"a.b.c\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals("a.b.c", JsonResponseParser.parseLoginToken(body));
+        assertNull(JsonResponseParser.parseLoginToken("{\"status\":\"KO\"}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testParseClaims() {
+        TokenClaims claims = JsonResponseParser.parseClaims(token("{\"sub\":\"user123\",\"scopes\":[\"a\"],\"role\":\"admin\",\"exp\":1}"));
+
+        assertEquals("user123", claims.subject());
+        assertEquals("admin", claims.role());
+        assertNull(JsonResponseParser.parseClaims(token("{\"sub\":\"user123\"}")).role());
+    }
+
+    @Test
+    void testParseClaimsFailsOnMalformedToken() {
+        SpammersPrivateExceptions exception = assertThrows(SpammersPrivateExceptions.class, () -> JsonResponseParser.parseClaims("not-a-token"));
+        assertEquals(401, exception.code);
+    }
+
+    private String token(String payload) {
+        return "eyJhbGciOiJIUzI1NiJ9." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".signature";
+    }
+}
@@ -0,0 +1,187 @@
+package com.spammers.AlertsAndNotifications.service.implementations;
+
+import com.spammers.AlertsAndNotifications.model.JobCursorModel;
+import com.spammers.AlertsAndNotifications.model.LoanModel;
+import com.spammers.AlertsAndNotifications.model.dto.EmailMessageDTO;
+import com.spammers.AlertsAndNotifications.model.dto.UserInfo;
+import com.spammers.AlertsAndNotifications.repository.JobCursorRepository;
+import com.spammers.AlertsAndNotifications.repository.LoanRepository;
+import com.spammers.AlertsAndNotifications.repository.NotificationRepository;
+import com.spammers.AlertsAndNotifications.service.interfaces.EmailService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LoanExpiredNotificationTest {
+    private static final int PARTITIONS = 3;
+    private static final int BATCH_SIZE = 2;
+    private static final int LOANS = 11;
+
+    @Mock
+    private LoanRepository loanRepository;
+    @Mock
+    private NotificationRepository notificationRepository;
+    @Mock
+    private EmailService emailService;
+    @Mock
+    private ApiClient apiClient;
+    @Mock
+    private JobCursorRepository jobCursorRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private UserNotificationCounters userNotificationCounters;
+    private final Map<String, JobCursorModel> cursors = new ConcurrentHashMap<>();
+    private final List<String> notifiedLoans = new ArrayList<>();
+    private final List<LoanModel> loans = new ArrayList<>();
+    private ThreadPoolTaskExecutor executor;
+    private LoanExpiredNotification loanExpiredNotification;
+
+    @BeforeEach
+    void setUp() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < LOANS; i++) {
+            LoanModel loan = new LoanModel("user-" + i, "book-" + i, today.minusDays(20), "Book " + i,
+                    today.minusDays(1 + i % 4), true);
+            loan.setLoanId("loan-" + i);
+            loans.add(loan);
+        }
+        when(jobCursorRepository.prepareRun(eq(LoanExpiredNotification.JOB_NAME), eq(PARTITIONS), any()))
+                .thenAnswer(invocation -> {
+                    for (int partition = 0; partition < PARTITIONS; partition++) {
+                        JobCursorModel cursor = new JobCursorModel(LoanExpiredNotification.JOB_NAME, partition, PARTITIONS);
+                        cursor.restart(invocation.getArgument(2));
+                        cursors.putIfAbsent(cursor.getJobName(), cursor);
+                    }
+                    return PARTITIONS;
+                });
+        when(jobCursorRepository.findClaimable(anyString(), eq(PARTITIONS), any(), any(), any()))
+                .thenAnswer(invocation -> claimable(invocation.getArgument(3)));
+        when(jobCursorRepository.advance(anyString(), anyString(), any(), anyString(), any())).thenReturn(1);
+        when(jobCursorRepository.complete(anyString(), anyString())).thenAnswer(invocation -> {
+            cursors.get(invocation.<String>getArgument(0)).setCompleted(true);
+            return 1;
+        });
+        when(loanRepository.findExpiredLoans(any(), any(), anyString(), eq(PARTITIONS), anyInt(), any()))
+                .thenAnswer(invocation -> partitionBatch(invocation.getArgument(1), invocation.getArgument(2),
+                        invocation.getArgument(4), invocation.getArgument(5)));
+        when(loanRepository.updateLoansStatus(anyList(), eq(false))).thenAnswer(invocation -> {
+            synchronized (notifiedLoans) {
+                notifiedLoans.addAll(invocation.getArgument(0));
+            }
+            return invocation.<List<String>>getArgument(0).size();
+        });
+        when(apiClient.getUserInfoByIds(anyCollection())).thenAnswer(invocation -> invocation.<Collection<String>>getArgument(0)
+                .stream().collect(Collectors.toMap(userId -> userId,
+                        userId -> new UserInfo("Student", "Guardian", userId + "@email.com"), (a, b) -> a)));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.initialize();
+        TokenHolder tokenHolder = new TokenHolder();
+        tokenHolder.setToken("token");
+        loanExpiredNotification = new LoanExpiredNotification(loanRepository, notificationRepository, emailService,
+                apiClient, tokenHolder, new JobCursorManager(jobCursorRepository, "instance-1", 300), transactionTemplate,
+                new NotificationMetrics(new SimpleMeterRegistry()), userNotificationCounters, executor,
+                PARTITIONS, BATCH_SIZE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Answers like the locking query: the first free partition, which stays locked, so
+     * taken, until the manager leases it.
+     */
+    private synchronized List<JobCursorModel> claimable(LocalDateTime now) {
+        Optional<JobCursorModel> free = cursors.values().stream()
+                .filter(cursor -> !cursor.isCompleted())
+                .filter(cursor -> cursor.getLeaseUntil() == null || cursor.getLeaseUntil().isBefore(now))
+                .min(Comparator.comparing(JobCursorModel::getPartitionIndex));
+        free.ifPresent(cursor -> cursor.setLeaseUntil(now.plusHours(1)));
+        return free.stream().toList();
+    }
+
+    /**
+     * Answers like the query: the loans of the partition after the keyset position, in order.
+     */
+    private List<LoanModel> partitionBatch(LocalDate lastExpired, String lastLoanId, int partition, Pageable pageable) {
+        Comparator<LoanModel> order = Comparator.comparing(LoanModel::getLoanExpired).thenComparing(LoanModel::getLoanId);
+        return loans.stream()
+                .filter(loan -> loans.indexOf(loan) % PARTITIONS == partition)
+                .filter(loan -> loan.getLoanExpired().isAfter(lastExpired)
+                        || loan.getLoanExpired().equals(lastExpired) && loan.getLoanId().compareTo(lastLoanId) > 0)
+                .sorted(order)
+                .limit(pageable.getPageSize())
+                .toList();
+    }
+
+    @Test
+    void testProcessAllRunsEveryPartitionToTheEnd() {
+        int processed = loanExpiredNotification.processAll();
+
+        assertEquals(LOANS, processed);
+        assertEquals(LOANS, notifiedLoans.size());
+        assertEquals(LOANS, notifiedLoans.stream().distinct().count());
+        assertEquals(PARTITIONS, cursors.size());
+        cursors.values().forEach(cursor -> assertTrue(cursor.isCompleted(), cursor.getJobName()));
+        verify(emailService, atLeast(LOANS / BATCH_SIZE)).sendBatch(anyList());
+    }
+
+    @Test
+    void testProcessAllSkipsCompletedPartitions() {
+        loanExpiredNotification.processAll();
+        clearInvocations(loanRepository);
+
+        assertEquals(0, loanExpiredNotification.processAll());
+        verify(loanRepository, never()).findExpiredLoans(any(), any(), anyString(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void testProcessAllContinuesWhenPartitionFails() {
+        doThrow(new IllegalStateException("SMTP outbox unavailable")).when(emailService).sendBatch(argThat(messages ->
+                messages.stream().map(EmailMessageDTO::getTo).anyMatch("user-1@email.com"::equals)));
+
+        int processed = loanExpiredNotification.processAll();
+
+        // Partition 1 commits its first batch, loan-7 and loan-10, stops at the one of loan-1 and keeps its lease
+        assertEquals(LOANS - 2, processed);
+        assertFalse(cursors.get(LoanExpiredNotification.JOB_NAME + "-1-of-" + PARTITIONS).isCompleted());
+        assertTrue(cursors.get(LoanExpiredNotification.JOB_NAME + "-0-of-" + PARTITIONS).isCompleted());
+        assertTrue(cursors.get(LoanExpiredNotification.JOB_NAME + "-2-of-" + PARTITIONS).isCompleted());
+    }
+}
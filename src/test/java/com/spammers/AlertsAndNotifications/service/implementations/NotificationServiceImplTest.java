@@ -41,6 +41,9 @@ class NotificationServiceImplTest {
     @Mock
     private ApiClient apiClient;
 
+    @Mock
+    private UserNotificationCounters userNotificationCounters;
+
     @InjectMocks
     private NotificationServiceImpl notificationService;
 
@@ -78,11 +81,10 @@ class NotificationServiceImplTest {
         int pageNumber = 0;
         int pageSize = 10;
 
-        List<NotificationModel> notifications = new ArrayList<>();
-        NotificationModel notificationModel = new NotificationModel(userId,"example@mail.com",
-                LocalDate.now().minusDays(2),NotificationType.FINE,false,"Boulevard");
-        notifications.add(notificationModel);
-        PageImpl<NotificationModel> page = new PageImpl<>(notifications);
+        List<NotificationDTO> notifications = new ArrayList<>();
+        notifications.add(new NotificationDTO("notification123", LocalDate.now().minusDays(2),
+                NotificationType.FINE, "Boulevard", false));
+        PageImpl<NotificationDTO> page = new PageImpl<>(notifications);
         when(notificationRepository.findByUserId(eq(userId), any(Pageable.class)))
                 .thenReturn(page);
 
@@ -105,7 +107,7 @@ class NotificationServiceImplTest {
         int pageNumber = 0;
         int pageSize = 10;
 
-        PageImpl<NotificationModel> emptyPage = new PageImpl<>(Collections.emptyList());
+        PageImpl<NotificationDTO> emptyPage = new PageImpl<>(Collections.emptyList());
 
         when(notificationRepository.findByUserId(eq(userId), any(Pageable.class)))
                 .thenReturn(emptyPage);
@@ -121,22 +123,97 @@ class NotificationServiceImplTest {
 
     @Test
     void testMarkNotificationAsSeen_Success(){
-        String userId = "user123";
-        when(notificationRepository.markNotificationAsSeen(userId)).thenReturn(1);
-        notificationService.markNotificationAsSeen(userId);
-        verify(notificationRepository).markNotificationAsSeen(userId);
+        String notificationId = "notification123";
+        when(notificationRepository.findStudentIdById(notificationId)).thenReturn(Optional.of("user123"));
+        when(notificationRepository.markNotificationAsSeen(notificationId)).thenReturn(1);
+        assertEquals(1, notificationService.markNotificationAsSeen(notificationId));
+        verify(notificationRepository).markNotificationAsSeen(notificationId);
+        verify(userNotificationCounters).adjust("user123", -1, 0);
+    }
+
+    @Test
+    void testMarkNotificationAsSeen_AlreadySeen(){
+        String notificationId = "notification123";
+        when(notificationRepository.findStudentIdById(notificationId)).thenReturn(Optional.of("user123"));
+        when(notificationRepository.markNotificationAsSeen(notificationId)).thenReturn(0);
+        assertEquals(1, notificationService.markNotificationAsSeen(notificationId));
+        verify(notificationRepository).markNotificationAsSeen(notificationId);
+        verifyNoInteractions(userNotificationCounters);
     }
 
     @Test
     void testMarkNotificationAsSeen_Failure(){
-        String userId = "user123";
-        when(notificationRepository.markNotificationAsSeen(userId)).thenReturn(0);
-        notificationService.markNotificationAsSeen(userId);
-        verify(notificationRepository).markNotificationAsSeen(userId);
+        String notificationId = "notification123";
+        when(notificationRepository.findStudentIdById(notificationId)).thenReturn(Optional.empty());
+        assertEquals(0, notificationService.markNotificationAsSeen(notificationId));
+        verify(notificationRepository, never()).markNotificationAsSeen(notificationId);
+        verifyNoInteractions(userNotificationCounters);
+    }
+
+
+
+
+    @Test
+    void testMarkAllNotificationsAsSeen_UpdatesCounters(){
+        when(notificationRepository.markAllNotificationsAsSeen("user123")).thenReturn(7);
+
+        assertEquals(7, notificationService.markAllNotificationsAsSeen("user123", null));
+
+        verify(userNotificationCounters).adjust("user123", -7, 0);
+        verify(notificationRepository, never()).markNotificationsAsSeenBefore(any(), any());
+    }
+
+    @Test
+    void testMarkAllNotificationsAsSeen_BeforeDate(){
+        LocalDate before = LocalDate.of(2026, 10, 1);
+        when(notificationRepository.markNotificationsAsSeenBefore("user123", before)).thenReturn(2);
+
+        assertEquals(2, notificationService.markAllNotificationsAsSeen("user123", before));
+
+        verify(userNotificationCounters).adjust("user123", -2, 0);
+        verify(notificationRepository, never()).markAllNotificationsAsSeen(any());
     }
 
+    @Test
+    void testMarkNotificationsAsSeen_ById(){
+        when(notificationRepository.markNotificationsAsSeen("user123", Set.of("n1", "n2"))).thenReturn(2);
+
+        assertEquals(2, notificationService.markNotificationsAsSeen("user123", List.of("n1", "n2", "n1")));
+
+        verify(userNotificationCounters).adjust("user123", -2, 0);
+    }
+
+    @Test
+    void testMarkNotificationsAsSeen_EmptyList(){
+        assertEquals(0, notificationService.markNotificationsAsSeen("user123", List.of()));
+
+        verifyNoInteractions(notificationRepository, userNotificationCounters);
+    }
+
+    @Test
+    void testMarkNotificationsAsSeen_NullIdsAreIgnored(){
+        when(notificationRepository.markNotificationsAsSeen("user123", Set.of("n1"))).thenReturn(1);
 
+        assertEquals(1, notificationService.markNotificationsAsSeen("user123", Arrays.asList("n1", null)));
+        assertEquals(0, notificationService.markNotificationsAsSeen("user123", Collections.singletonList(null)));
 
+        verify(notificationRepository).markNotificationsAsSeen("user123", Set.of("n1"));
+        verify(userNotificationCounters).adjust("user123", -1, 0);
+    }
+
+    @Test
+    void testMarkNotificationsAsSeen_TooManyIds(){
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i <= 500; i++) {
+            ids.add("n" + i);
+        }
+
+        SpammersPrivateExceptions exception = assertThrows(SpammersPrivateExceptions.class,
+                () -> notificationService.markNotificationsAsSeen("user123", ids));
+
+        assertEquals(400, exception.code);
+        verifyNoInteractions(notificationRepository, userNotificationCounters);
+    }
 
     @Test
     void testGetFines_Success() {
@@ -145,15 +222,11 @@ class NotificationServiceImplTest {
         int size = 15;
         int pageNumber = 0;
 
-        List<FineModel> fines = new ArrayList<>();
-        FineModel fineModel = new FineModel();
-        fineModel.setLoan(loanModel);
-        fineModel.setFineId("fine123");
-        fineModel.setAmount(50.0f);
-        fineModel.setDescription("Test Fine");
-        fines.add(fineModel);
+        List<FineOutputDTO> fines = new ArrayList<>();
+        fines.add(new FineOutputDTO("fine123", "Test Fine", 50.0f, FineStatus.PENDING, FineType.RETARDMENT,
+                LocalDate.now(), "Test Book", "Test User", "guardian@email.com"));
 
-        PageImpl<FineModel> page = new PageImpl<>(fines);
+        PageImpl<FineOutputDTO> page = new PageImpl<>(fines);
 
         when(finesRepository.findByUserId(eq(userId), any(Pageable.class)))
                 .thenReturn(page);
@@ -177,11 +250,8 @@ class NotificationServiceImplTest {
         Long expectedNotifications = 3L;
         Long expectedActiveFines = 2L;
 
-        when(notificationRepository.getNumberNotificationsNotSeenByUser(userId, false))
-                .thenReturn(expectedNotifications);
-
-        when(finesRepository.getNumberActiveFinesByUser(userId, FineStatus.PENDING))
-                .thenReturn(expectedActiveFines);
+        when(userNotificationCounters.get(userId))
+                .thenReturn(new UserNotificationsInformationDTO(expectedNotifications, expectedActiveFines));
 
         // Act
         UserNotificationsInformationDTO result =
@@ -192,8 +262,8 @@ class NotificationServiceImplTest {
         assertEquals(expectedActiveFines, result.getNumberActiveFines());
 
         // Verify interactions
-        verify(notificationRepository).getNumberNotificationsNotSeenByUser(userId, false);
-        verify(finesRepository).getNumberActiveFinesByUser(userId, FineStatus.PENDING);
+        verify(userNotificationCounters).get(userId);
+        verifyNoInteractions(notificationRepository, finesRepository);
     }
 
     @Test
@@ -203,11 +273,8 @@ class NotificationServiceImplTest {
         Long expectedNotifications = 0L;
         Long expectedActiveFines = 0L;
 
-        when(notificationRepository.getNumberNotificationsNotSeenByUser(userId, false))
-                .thenReturn(expectedNotifications);
-
-        when(finesRepository.getNumberActiveFinesByUser(userId, FineStatus.PENDING))
-                .thenReturn(expectedActiveFines);
+        when(userNotificationCounters.get(userId))
+                .thenReturn(new UserNotificationsInformationDTO(expectedNotifications, expectedActiveFines));
 
         // Act
         UserNotificationsInformationDTO result =
@@ -218,8 +285,8 @@ class NotificationServiceImplTest {
         assertEquals(expectedActiveFines, result.getNumberActiveFines());
 
         // Verify interactions
-        verify(notificationRepository).getNumberNotificationsNotSeenByUser(userId, false);
-        verify(finesRepository).getNumberActiveFinesByUser(userId, FineStatus.PENDING);
+        verify(userNotificationCounters).get(userId);
+        verifyNoInteractions(notificationRepository, finesRepository);
     }
 
     @Test
@@ -229,11 +296,8 @@ class NotificationServiceImplTest {
         Long expectedNotifications = 5L;
         Long expectedActiveFines = 0L;
 
-        when(notificationRepository.getNumberNotificationsNotSeenByUser(userId, false))
-                .thenReturn(expectedNotifications);
-
-        when(finesRepository.getNumberActiveFinesByUser(userId, FineStatus.PENDING))
-                .thenReturn(expectedActiveFines);
+        when(userNotificationCounters.get(userId))
+                .thenReturn(new UserNotificationsInformationDTO(expectedNotifications, expectedActiveFines));
 
         // Act
         UserNotificationsInformationDTO result =
@@ -244,8 +308,8 @@ class NotificationServiceImplTest {
         assertEquals(expectedActiveFines, result.getNumberActiveFines());
 
         // Verify interactions
-        verify(notificationRepository).getNumberNotificationsNotSeenByUser(userId, false);
-        verify(finesRepository).getNumberActiveFinesByUser(userId, FineStatus.PENDING);
+        verify(userNotificationCounters).get(userId);
+        verifyNoInteractions(notificationRepository, finesRepository);
     }
 
     @Test
@@ -255,11 +319,8 @@ class NotificationServiceImplTest {
         Long expectedNotifications = 0L;
         Long expectedActiveFines = 3L;
 
-        when(notificationRepository.getNumberNotificationsNotSeenByUser(userId, false))
-                .thenReturn(expectedNotifications);
-
-        when(finesRepository.getNumberActiveFinesByUser(userId, FineStatus.PENDING))
-                .thenReturn(expectedActiveFines);
+        when(userNotificationCounters.get(userId))
+                .thenReturn(new UserNotificationsInformationDTO(expectedNotifications, expectedActiveFines));
 
         // Act
         UserNotificationsInformationDTO result =
@@ -270,8 +331,8 @@ class NotificationServiceImplTest {
         assertEquals(expectedActiveFines, result.getNumberActiveFines());
 
         // Verify interactions
-        verify(notificationRepository).getNumberNotificationsNotSeenByUser(userId, false);
-        verify(finesRepository).getNumberActiveFinesByUser(userId, FineStatus.PENDING);
+        verify(userNotificationCounters).get(userId);
+        verifyNoInteractions(notificationRepository, finesRepository);
     }
 
 
@@ -0,0 +1,104 @@
+package com.spammers.AlertsAndNotifications.service.implementations;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVerifierTest {
+    @Mock
+    private ApiClient apiClient;
+    @Mock
+    private RestClient restClient;
+    private TokenVerifier tokenVerifier;
+    private RSAKey signingKey;
+
+    @BeforeEach
+    void setUp() throws JOSEException {
+        signingKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        tokenVerifier = new TokenVerifier(apiClient, restClient, 60, 100);
+        ReflectionTestUtils.setField(tokenVerifier, "clockSkewSeconds", 30L);
+        ReflectionTestUtils.setField(tokenVerifier, "keys", new JWKSet(signingKey.toPublicJWK()));
+    }
+
+    @Test
+    void testIsValidVerifiesSignatureLocally() throws JOSEException {
+        String token = sign(signingKey, Instant.now().plusSeconds(600));
+
+        assertTrue(tokenVerifier.isValid(token));
+        verifyNoInteractions(apiClient);
+    }
+
+    @Test
+    void testIsValidRejectsExpiredToken() throws JOSEException {
+        String token = sign(signingKey, Instant.now().minusSeconds(600));
+
+        assertFalse(tokenVerifier.isValid(token));
+        verifyNoInteractions(apiClient);
+    }
+
+    @Test
+    void testIsValidRejectsForgedSignature() throws JOSEException {
+        RSAKey forgedKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        String token = sign(forgedKey, Instant.now().plusSeconds(600));
+
+        assertFalse(tokenVerifier.isValid(token));
+        verifyNoInteractions(apiClient);
+    }
+
+    @Test
+    void testIsValidFallsBackToRemoteValidationForUnknownKey() throws JOSEException {
+        RSAKey rotatedKey = new RSAKeyGenerator(2048).keyID("key-2").generate();
+        String token = sign(rotatedKey, Instant.now().plusSeconds(600));
+        when(apiClient.validateToken(token)).thenReturn(true);
+
+        assertTrue(tokenVerifier.isValid(token));
+        assertTrue(tokenVerifier.isValid(token));
+        verify(apiClient, times(1)).validateToken(token);
+    }
+
+    @Test
+    void testIsValidAcceptsTokenWithoutExpiration() throws JOSEException {
+        String token = sign(signingKey, null);
+
+        assertTrue(tokenVerifier.isValid(token));
+        assertTrue(tokenVerifier.isValid(token));
+        verifyNoInteractions(apiClient);
+    }
+
+    @Test
+    void testIsValidRejectsMalformedToken() {
+        assertFalse(tokenVerifier.isValid("not-a-token"));
+        verifyNoInteractions(apiClient);
+    }
+
+    private String sign(RSAKey key, Instant expiration) throws JOSEException {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("user123")
+                .claim("role", "student")
+                .expirationTime(expiration == null ? null : Date.from(expiration))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
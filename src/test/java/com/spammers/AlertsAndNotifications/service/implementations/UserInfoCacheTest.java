@@ -0,0 +1,72 @@
+package com.spammers.AlertsAndNotifications.service.implementations;
+
+import com.spammers.AlertsAndNotifications.exceptions.SpammersPrivateExceptions;
+import com.spammers.AlertsAndNotifications.model.dto.UserInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserInfoCacheTest {
+    private UserInfoCache userInfoCache;
+    private AtomicInteger calls;
+    private Function<String, UserInfo> loader;
+
+    @BeforeEach
+    void setUp() {
+        userInfoCache = new UserInfoCache(600, 60, 100);
+        calls = new AtomicInteger();
+        loader = userId -> {
+            calls.incrementAndGet();
+            if (userId.equals("missing")) {
+                throw new SpammersPrivateExceptions(SpammersPrivateExceptions.USER_NOT_FOUND, 404);
+            }
+            if (userId.equals("broken")) {
+                throw new SpammersPrivateExceptions("User Service error", 500);
+            }
+            return new UserInfo(userId, "Guardian", "guardian@email.com");
+        };
+    }
+
+    @Test
+    void testGetLoadsUserOnce() {
+        UserInfo first = userInfoCache.get("user123", loader);
+        UserInfo second = userInfoCache.get("user123", loader);
+
+        assertSame(first, second);
+        assertEquals(1, calls.get());
+        assertEquals(1, userInfoCache.stats().hitCount());
+        assertEquals(1, userInfoCache.stats().missCount());
+    }
+
+    @Test
+    void testGetCachesMissingUsers() {
+        SpammersPrivateExceptions first = assertThrows(SpammersPrivateExceptions.class, () -> userInfoCache.get("missing", loader));
+        SpammersPrivateExceptions second = assertThrows(SpammersPrivateExceptions.class, () -> userInfoCache.get("missing", loader));
+
+        assertEquals(404, first.code);
+        assertEquals(SpammersPrivateExceptions.USER_NOT_FOUND, second.getMessage());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testGetDoesNotCacheGatewayErrors() {
+        assertThrows(SpammersPrivateExceptions.class, () -> userInfoCache.get("broken", loader));
+        assertThrows(SpammersPrivateExceptions.class, () -> userInfoCache.get("broken", loader));
+
+        assertEquals(2, calls.get());
+        assertEquals(0, userInfoCache.size());
+    }
+
+    @Test
+    void testEvictForcesReload() {
+        userInfoCache.get("user123", loader);
+        userInfoCache.evict("user123");
+        userInfoCache.get("user123", loader);
+
+        assertEquals(2, calls.get());
+    }
+}
@@ -0,0 +1,115 @@
+package com.spammers.AlertsAndNotifications.service.implementations;
+
+import com.spammers.AlertsAndNotifications.model.LoanNotification;
+import com.spammers.AlertsAndNotifications.model.NotificationModel;
+import com.spammers.AlertsAndNotifications.model.UserNotificationCounterModel;
+import com.spammers.AlertsAndNotifications.model.dto.UserNotificationsInformationDTO;
+import com.spammers.AlertsAndNotifications.model.enums.FineStatus;
+import com.spammers.AlertsAndNotifications.model.enums.NotificationType;
+import com.spammers.AlertsAndNotifications.repository.UserNotificationCounterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserNotificationCountersTest {
+    @Mock
+    private UserNotificationCounterRepository counterRepository;
+    private UserNotificationCounters userNotificationCounters;
+
+    @BeforeEach
+    void setUp() {
+        userNotificationCounters = new UserNotificationCounters(counterRepository, 30, 100);
+    }
+
+    @Test
+    void testGetReadsTheCountersOnce() {
+        when(counterRepository.findById("user123")).thenReturn(Optional.of(counter("user123", 3, 2)));
+
+        UserNotificationsInformationDTO first = userNotificationCounters.get("user123");
+        UserNotificationsInformationDTO second = userNotificationCounters.get("user123");
+
+        assertEquals(3L, first.getNumberNotificationsNotSeen());
+        assertEquals(2L, first.getNumberActiveFines());
+        assertSame(first, second);
+        verify(counterRepository, times(1)).findById("user123");
+    }
+
+    @Test
+    void testGetReturnsZeroForUserWithoutCounters() {
+        when(counterRepository.findById("user123")).thenReturn(Optional.empty());
+
+        UserNotificationsInformationDTO result = userNotificationCounters.get("user123");
+
+        assertEquals(0L, result.getNumberNotificationsNotSeen());
+        assertEquals(0L, result.getNumberActiveFines());
+    }
+
+    @Test
+    void testAdjustUpdatesTheRowAndEvictsTheUser() {
+        when(counterRepository.findById("user123"))
+                .thenReturn(Optional.of(counter("user123", 3, 2)))
+                .thenReturn(Optional.of(counter("user123", 4, 3)));
+        userNotificationCounters.get("user123");
+
+        userNotificationCounters.adjust("user123", 1, 1);
+
+        verify(counterRepository).addToCounters("user123", 1, 1);
+        assertEquals(4L, userNotificationCounters.get("user123").getNumberNotificationsNotSeen());
+    }
+
+    @Test
+    void testAdjustSkipsEmptyDelta() {
+        userNotificationCounters.adjust("user123", 0, 0);
+
+        verifyNoInteractions(counterRepository);
+    }
+
+    @Test
+    void testNotificationsSavedAddsOneDeltaPerUser() {
+        List<NotificationModel> notifications = List.of(
+                notification("user1", false), notification("user1", false),
+                notification("user2", false), notification("user3", true));
+
+        userNotificationCounters.notificationsSaved(notifications);
+
+        verify(counterRepository).addToCounters("user1", 2, 0);
+        verify(counterRepository).addToCounters("user2", 1, 0);
+        verify(counterRepository, never()).addToCounters(eq("user3"), anyLong(), anyLong());
+    }
+
+    @Test
+    void testReconcileRepairsAndClearsTheCache() {
+        when(counterRepository.findById("user123")).thenReturn(Optional.of(counter("user123", 3, 2)));
+        when(counterRepository.reconcile(FineStatus.PENDING.ordinal())).thenReturn(1);
+        userNotificationCounters.get("user123");
+
+        assertEquals(1, userNotificationCounters.reconcile());
+        userNotificationCounters.get("user123");
+
+        verify(counterRepository, times(2)).findById("user123");
+    }
+
+    private UserNotificationCounterModel counter(String userId, long unseen, long fines) {
+        UserNotificationCounterModel counter = new UserNotificationCounterModel();
+        counter.setUserId(userId);
+        counter.setUnseenNotifications(unseen);
+        counter.setActiveFines(fines);
+        return counter;
+    }
+
+    private NotificationModel notification(String userId, boolean seen) {
+        return new LoanNotification(userId, "guardian@email.com", LocalDate.now(), NotificationType.BOOK_LOAN,
+                null, seen, "Book");
+    }
+}